@@ -18,8 +18,12 @@
  */
 package org.apereo.cas.client.authentication;
 
+import org.apereo.cas.client.proxy.ProxyTicketResult;
+
 import java.io.Serializable;
 import java.security.Principal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -43,6 +47,25 @@ public interface AttributePrincipal extends Principal, Serializable {
      */
     String getProxyTicketFor(String service);
 
+    /**
+     * Retrieves CAS proxy tickets for several services at once.  Failures are reported per service rather than
+     * aborting the whole request.
+     *
+     * @param services the services we wish to proxy this user to.
+     * @return the results keyed by service.
+     */
+    default Map<String, ProxyTicketResult> getProxyTicketsFor(final Collection<String> services) {
+        final Map<String, ProxyTicketResult> results = new LinkedHashMap<String, ProxyTicketResult>();
+        for (final String service : services) {
+            try {
+                results.put(service, ProxyTicketResult.of(service, getProxyTicketFor(service)));
+            } catch (final RuntimeException e) {
+                results.put(service, ProxyTicketResult.failed(service, e));
+            }
+        }
+        return results;
+    }
+
     /**
      * The Map of key/value pairs associated with this principal.
      * @return the map of key/value pairs associated with this principal.
@@ -19,12 +19,15 @@
 package org.apereo.cas.client.authentication;
 
 import org.apereo.cas.client.proxy.ProxyRetriever;
+import org.apereo.cas.client.proxy.ProxyTicketResult;
 import org.apereo.cas.client.util.CommonUtils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -108,6 +111,20 @@ public class AttributePrincipalImpl extends SimplePrincipal implements Attribute
         return null;
     }
 
+    @Override
+    public Map<String, ProxyTicketResult> getProxyTicketsFor(final Collection<String> services) {
+        if (proxyGrantingTicket != null) {
+            return this.proxyRetriever.getProxyTicketIdsFor(this.proxyGrantingTicket, services);
+        }
+
+        LOGGER.debug("No ProxyGrantingTicket was supplied, so no Proxy Tickets can be retrieved.");
+        final Map<String, ProxyTicketResult> results = new LinkedHashMap<String, ProxyTicketResult>();
+        for (final String service : services) {
+            results.put(service, ProxyTicketResult.of(service, null));
+        }
+        return results;
+    }
+
     @Override
     public Map<String, Object> getAttributes() {
         return this.attributes;
@@ -20,9 +20,11 @@ package org.apereo.cas.client.authentication;
 
 import org.apereo.cas.client.Protocol;
 import org.apereo.cas.client.configuration.ConfigurationKeys;
+import org.apereo.cas.client.engine.CasClient;
 import org.apereo.cas.client.util.AbstractCasFilter;
 import org.apereo.cas.client.util.CommonUtils;
 import org.apereo.cas.client.util.ReflectUtils;
+import org.apereo.cas.client.util.ServletCasSession;
 import org.apereo.cas.client.validation.Assertion;
 
 import jakarta.servlet.FilterChain;
@@ -32,7 +34,6 @@ import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.servlet.http.HttpSession;
 
 import java.io.IOException;
 import java.util.HashMap;
@@ -48,6 +49,10 @@ import java.util.Map;
  * <li><code>renew</code> - true/false on whether to use renew or not.</li>
  * <li><code>gateway</code> - true/false on whether to use gateway or not.</li>
  * <li><code>method</code> - the method used by the CAS server to send the user back to the application (redirect or post).</li>
+ * <li><code>gatewayStorageClass</code> - the {@link GatewayResolver} recording gateway redirects; use
+ * {@link CookieGatewayResolverImpl} to avoid creating sessions, along with <code>gatewaySecretKey</code> and
+ * <code>gatewayCookieMaxAge</code>.</li>
+ * <li><code>assertionCookieKeys</code> - accept the stateless assertion cookie issued by the validation filter.</li>
  * </ul>
  *
  * <p>Please see AbstractCasFilter for additional properties.</p>
@@ -67,26 +72,6 @@ public class AuthenticationFilter extends AbstractCasFilter {
         PATTERN_MATCHER_TYPES.put("EXACT", ExactUrlPatternMatcherStrategy.class);
     }
 
-    /**
-     * The URL to the CAS Server login.
-     */
-    private String casServerLoginUrl;
-
-    /**
-     * Whether to send the renew request or not.
-     */
-    private boolean renew = false;
-
-    /**
-     * Whether to send the gateway request or not.
-     */
-    private boolean gateway = false;
-
-    /**
-     * The method used by the CAS server to send the user back to the application.
-     */
-    private String method;
-
     private GatewayResolver gatewayStorage = new DefaultGatewayResolverImpl();
 
     private AuthenticationRedirectStrategy authenticationRedirectStrategy = new DefaultAuthenticationRedirectStrategy();
@@ -110,7 +95,7 @@ public class AuthenticationFilter extends AbstractCasFilter {
             ConfigurationKeys.CAS_SERVER_LOGIN_URL.getName(),
             ConfigurationKeys.CAS_SERVER_URL_PREFIX.getName());
 
-        CommonUtils.assertNotNull(this.casServerLoginUrl, message);
+        CommonUtils.assertNotNull(getCasClient().getCasServerLoginUrl(), message);
     }
 
     @Override
@@ -155,6 +140,18 @@ public class AuthenticationFilter extends AbstractCasFilter {
                 setGatewayStorage(ReflectUtils.newInstance(gatewayStorageClass));
             }
 
+            if (this.gatewayStorage instanceof CookieGatewayResolverImpl) {
+                final CookieGatewayResolverImpl cookieGatewayResolver = (CookieGatewayResolverImpl) this.gatewayStorage;
+                final String gatewaySecretKey = getString(ConfigurationKeys.GATEWAY_SECRET_KEY);
+                if (gatewaySecretKey != null) {
+                    cookieGatewayResolver.setSecretKey(gatewaySecretKey);
+                } else {
+                    logger.warn("No {} configured; gateway cookies are signed with a random key only valid on this node.",
+                        ConfigurationKeys.GATEWAY_SECRET_KEY.getName());
+                }
+                cookieGatewayResolver.setMaxAge(getInt(ConfigurationKeys.GATEWAY_COOKIE_MAX_AGE));
+            }
+
             final Class<? extends AuthenticationRedirectStrategy> authenticationRedirectStrategyClass = getClass(ConfigurationKeys.AUTHENTICATION_REDIRECT_STRATEGY_CLASS);
 
             if (authenticationRedirectStrategyClass != null) {
@@ -176,8 +173,11 @@ public class AuthenticationFilter extends AbstractCasFilter {
             return;
         }
 
-        final HttpSession session = request.getSession(false);
-        final Assertion assertion = session != null ? (Assertion) session.getAttribute(CONST_CAS_ASSERTION) : null;
+        final CasClient casClient = getCasClient();
+        Assertion assertion = casClient.getAssertion(ServletCasSession.of(request.getSession(false)));
+        if (assertion == null && getAssertionCookieCodec() != null) {
+            assertion = getAssertionCookieCodec().retrieveAssertion(request);
+        }
 
         if (assertion != null) {
             filterChain.doFilter(request, response);
@@ -186,9 +186,9 @@ public class AuthenticationFilter extends AbstractCasFilter {
 
         final String serviceUrl = constructServiceUrl(request, response);
         final String ticket = retrieveTicketFromRequest(request);
-        final boolean wasGatewayed = this.gateway && this.gatewayStorage.hasGatewayedAlready(request, serviceUrl);
+        final boolean wasGatewayed = casClient.isGateway() && this.gatewayStorage.hasGatewayedAlready(request, serviceUrl);
 
-        if (CommonUtils.isNotBlank(ticket) || wasGatewayed) {
+        if (!casClient.requiresLoginRedirect(assertion, ticket, wasGatewayed)) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -196,32 +196,31 @@ public class AuthenticationFilter extends AbstractCasFilter {
         final String modifiedServiceUrl;
 
         logger.debug("no ticket and no assertion found");
-        if (this.gateway) {
+        if (casClient.isGateway()) {
             logger.debug("setting gateway attribute in session");
-            modifiedServiceUrl = this.gatewayStorage.storeGatewayInformation(request, serviceUrl);
+            modifiedServiceUrl = this.gatewayStorage.storeGatewayInformation(request, response, serviceUrl);
         } else {
             modifiedServiceUrl = serviceUrl;
         }
 
         logger.debug("Constructed service url: {}", modifiedServiceUrl);
 
-        final String urlToRedirectTo = CommonUtils.constructRedirectUrl(this.casServerLoginUrl,
-            getProtocol().getServiceParameterName(), modifiedServiceUrl, this.renew, this.gateway, this.method);
+        final String urlToRedirectTo = casClient.constructLoginUrl(modifiedServiceUrl);
 
         logger.debug("redirecting to \"{}\"", urlToRedirectTo);
         this.authenticationRedirectStrategy.redirect(request, response, urlToRedirectTo);
     }
 
     public final void setRenew(final boolean renew) {
-        this.renew = renew;
+        getCasClient().setRenew(renew);
     }
 
     public final void setGateway(final boolean gateway) {
-        this.gateway = gateway;
+        getCasClient().setGateway(gateway);
     }
 
     public void setMethod(final String method) {
-        this.method = method;
+        getCasClient().setMethod(method);
     }
 
     public final void setCasServerUrlPrefix(final String casServerUrlPrefix) {
@@ -229,7 +228,7 @@ public class AuthenticationFilter extends AbstractCasFilter {
     }
 
     public final void setCasServerLoginUrl(final String casServerLoginUrl) {
-        this.casServerLoginUrl = casServerLoginUrl;
+        getCasClient().setCasServerLoginUrl(casServerLoginUrl);
     }
 
     public final void setGatewayStorage(final GatewayResolver gatewayStorage) {
@@ -0,0 +1,182 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.authentication;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * GatewayResolver recording the gateway redirect in a short-lived, HMAC signed cookie instead of the HTTP session, so
+ * that anonymous requests to gateway enabled pages never create a session.
+ * <p>
+ * The cookie holds its expiry time and a HMAC-SHA256 signature of it.  Without a configured secret key a random one is
+ * generated, which is only suitable for a single node: in a cluster all nodes must share the same
+ * <code>gatewaySecretKey</code>.  Like the keys of the assertion cookie, it must be base64 encoded random bytes, at least
+ * {@value #MIN_KEY_LENGTH} of them (128 bits), as generated by <code>openssl rand -base64 32</code>.
+ * <p>
+ * When no response is available to set the cookie on, the same signed value is added to the service url as a parameter
+ * named like the cookie, and CAS hands it back on the redirect to the service.
+ *
+ * @since 4.0.0
+ */
+public final class CookieGatewayResolverImpl implements GatewayResolver {
+
+    /** Default name of the gateway cookie. */
+    public static final String DEFAULT_COOKIE_NAME = "CASGATEWAY";
+
+    /** Default lifetime of the gateway cookie in seconds, the default servlet session timeout. */
+    public static final int DEFAULT_MAX_AGE = 1800;
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final int MIN_KEY_LENGTH = 16;
+
+    private String cookieName = DEFAULT_COOKIE_NAME;
+
+    private int maxAge = DEFAULT_MAX_AGE;
+
+    private SecretKeySpec secretKey;
+
+    public CookieGatewayResolverImpl() {
+        final byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.secretKey = new SecretKeySpec(key, ALGORITHM);
+    }
+
+    public void setCookieName(final String cookieName) {
+        CommonUtils.assertTrue(CommonUtils.isNotBlank(cookieName), "cookieName cannot be blank.");
+        this.cookieName = cookieName;
+    }
+
+    /**
+     * @param maxAge the number of seconds a gateway redirect is remembered.
+     */
+    public void setMaxAge(final int maxAge) {
+        CommonUtils.assertTrue(maxAge > 0, "maxAge must be greater than zero.");
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * @param secretKey the base64 encoded key of at least 16 bytes the cookie is signed with, shared by all nodes of a
+     *                  cluster.
+     */
+    public void setSecretKey(final String secretKey) {
+        CommonUtils.assertTrue(CommonUtils.isNotBlank(secretKey), "secretKey cannot be blank.");
+        this.secretKey = new SecretKeySpec(decodeKey(secretKey.trim()), ALGORITHM);
+    }
+
+    @Override
+    public boolean hasGatewayedAlready(final HttpServletRequest request, final String serviceUrl) {
+        final Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (final Cookie cookie : cookies) {
+                if (this.cookieName.equals(cookie.getName()) && isValid(cookie.getValue())) {
+                    return true;
+                }
+            }
+        }
+        return isValid(CommonUtils.safeGetParameter(request, this.cookieName));
+    }
+
+    @Override
+    public String storeGatewayInformation(final HttpServletRequest request, final String serviceUrl) {
+        return serviceUrl + (serviceUrl.indexOf('?') < 0 ? '?' : '&') + this.cookieName + "=" + newValue();
+    }
+
+    @Override
+    public String storeGatewayInformation(final HttpServletRequest request, final HttpServletResponse response,
+                                          final String serviceUrl) {
+        if (response == null) {
+            return storeGatewayInformation(request, serviceUrl);
+        }
+        final Cookie cookie = new Cookie(this.cookieName, newValue());
+        cookie.setMaxAge(this.maxAge);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(request.isSecure());
+        cookie.setPath(CommonUtils.isEmpty(request.getContextPath()) ? "/" : request.getContextPath());
+        cookie.setAttribute("SameSite", "Lax");
+        response.addCookie(cookie);
+        return serviceUrl;
+    }
+
+    /**
+     * Decodes a key in either the standard or the URL safe base64 alphabet.
+     */
+    private static byte[] decodeKey(final String secret) {
+        byte[] key;
+        try {
+            key = Base64.getDecoder().decode(secret);
+        } catch (final IllegalArgumentException e) {
+            try {
+                key = Base64.getUrlDecoder().decode(secret);
+            } catch (final IllegalArgumentException urlSafe) {
+                throw new IllegalArgumentException("the gateway secret key must be base64 encoded.", e);
+            }
+        }
+        CommonUtils.assertTrue(key.length >= MIN_KEY_LENGTH,
+            "the gateway secret key must be at least " + MIN_KEY_LENGTH + " bytes (128 bits) of random data.");
+        return key;
+    }
+
+    private String newValue() {
+        final String expires = Long.toString(System.currentTimeMillis() + this.maxAge * 1000L);
+        return expires + "." + sign(expires);
+    }
+
+    private boolean isValid(final String value) {
+        if (value == null) {
+            return false;
+        }
+        final int separator = value.indexOf('.');
+        if (separator <= 0) {
+            return false;
+        }
+        final String expires = value.substring(0, separator);
+        if (!MessageDigest.isEqual(sign(expires).getBytes(StandardCharsets.UTF_8),
+            value.substring(separator + 1).getBytes(StandardCharsets.UTF_8))) {
+            return false;
+        }
+        try {
+            return Long.parseLong(expires) > System.currentTimeMillis();
+        } catch (final NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private String sign(final String value) {
+        try {
+            final Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(this.secretKey);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
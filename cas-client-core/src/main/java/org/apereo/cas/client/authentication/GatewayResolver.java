@@ -19,6 +19,7 @@
 package org.apereo.cas.client.authentication;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * Implementations of this should only have a default constructor if
@@ -48,4 +49,18 @@ public interface GatewayResolver {
      * @return the potentially modified service url to redirect to
      */
     String storeGatewayInformation(HttpServletRequest request, String serviceUrl);
+
+    /**
+     * Storage the request for gatewaying and return the service url, which can be modified.  Resolvers keeping their
+     * state on the client override this to get access to the response; by default the response is ignored.
+     *
+     * @param request the HttpServletRequest.
+     * @param response the HttpServletResponse.
+     * @param serviceUrl the service url
+     * @return the potentially modified service url to redirect to
+     */
+    default String storeGatewayInformation(final HttpServletRequest request, final HttpServletResponse response,
+                                           final String serviceUrl) {
+        return storeGatewayInformation(request, serviceUrl);
+    }
 }
@@ -20,11 +20,14 @@ package org.apereo.cas.client.configuration;
 
 import org.apereo.cas.client.Protocol;
 import org.apereo.cas.client.authentication.AuthenticationRedirectStrategy;
+import org.apereo.cas.client.authentication.CookieGatewayResolverImpl;
 import org.apereo.cas.client.authentication.DefaultGatewayResolverImpl;
 import org.apereo.cas.client.authentication.GatewayResolver;
 import org.apereo.cas.client.proxy.ProxyGrantingTicketStorage;
 import org.apereo.cas.client.proxy.ProxyGrantingTicketStorageImpl;
+import org.apereo.cas.client.validation.AssertionCookieCodec;
 import org.apereo.cas.client.validation.Cas20ServiceTicketValidator;
+import org.apereo.cas.client.validation.TicketPreValidator;
 
 import javax.net.ssl.HostnameVerifier;
 
@@ -54,6 +57,9 @@ public interface ConfigurationKeys {
         new ConfigurationKey<Class<? extends AuthenticationRedirectStrategy>>("authenticationRedirectStrategyClass", null);
     ConfigurationKey<Class<? extends GatewayResolver>> GATEWAY_STORAGE_CLASS =
         new ConfigurationKey<Class<? extends GatewayResolver>>("gatewayStorageClass", DefaultGatewayResolverImpl.class);
+    ConfigurationKey<String> GATEWAY_SECRET_KEY = new ConfigurationKey<String>("gatewaySecretKey", null);
+    ConfigurationKey<Integer> GATEWAY_COOKIE_MAX_AGE = new ConfigurationKey<Integer>("gatewayCookieMaxAge",
+        CookieGatewayResolverImpl.DEFAULT_MAX_AGE);
     ConfigurationKey<String> CAS_SERVER_URL_PREFIX = new ConfigurationKey<String>("casServerUrlPrefix", null);
     ConfigurationKey<String> ENCODING = new ConfigurationKey<String>("encoding", null);
     ConfigurationKey<Long> TOLERANCE = new ConfigurationKey<Long>("tolerance", 1000L);
@@ -83,6 +89,28 @@ public interface ConfigurationKeys {
     ConfigurationKey<String> ALLOWED_PROXY_CHAINS = new ConfigurationKey<String>("allowedProxyChains", null);
     ConfigurationKey<Class<? extends Cas20ServiceTicketValidator>> TICKET_VALIDATOR_CLASS = new ConfigurationKey<Class<? extends Cas20ServiceTicketValidator>>("ticketValidatorClass", null);
     ConfigurationKey<String> PROXY_CALLBACK_URL = new ConfigurationKey<String>("proxyCallbackUrl", null);
+    ConfigurationKey<Integer> PROXY_TICKET_PREFETCH_SIZE = new ConfigurationKey<Integer>("proxyTicketPrefetchSize", 0);
     ConfigurationKey<String> RELAY_STATE_PARAMETER_NAME = new ConfigurationKey<String>("relayStateParameterName", "RelayState");
     ConfigurationKey<String> LOGOUT_CALLBACK_PATH = new ConfigurationKey<String>("logoutCallbackPath", null);
+    ConfigurationKey<Integer> LOGOUT_QUEUE_CAPACITY = new ConfigurationKey<Integer>("logoutQueueCapacity", 0);
+    ConfigurationKey<Integer> LOGOUT_WORKER_THREADS = new ConfigurationKey<Integer>("logoutWorkerThreads", 2);
+    ConfigurationKey<String> BULK_LOGOUT_PATH = new ConfigurationKey<String>("bulkLogoutPath", null);
+    ConfigurationKey<String> BULK_LOGOUT_TOKEN = new ConfigurationKey<String>("bulkLogoutToken", null);
+    ConfigurationKey<Boolean> PRINCIPAL_SESSION_INDEX = new ConfigurationKey<Boolean>("principalSessionIndex", Boolean.FALSE);
+    ConfigurationKey<String> ASSERTION_COOKIE_KEYS = new ConfigurationKey<String>("assertionCookieKeys", null);
+    ConfigurationKey<String> ASSERTION_COOKIE_NAME = new ConfigurationKey<String>("assertionCookieName",
+        AssertionCookieCodec.DEFAULT_COOKIE_NAME);
+    ConfigurationKey<Integer> ASSERTION_COOKIE_MAX_AGE = new ConfigurationKey<Integer>("assertionCookieMaxAge",
+        AssertionCookieCodec.DEFAULT_MAX_AGE);
+    ConfigurationKey<Integer> ASSERTION_COOKIE_MAX_SIZE = new ConfigurationKey<Integer>("assertionCookieMaxSize",
+        AssertionCookieCodec.DEFAULT_MAX_SIZE);
+    ConfigurationKey<String> ASSERTION_COOKIE_ATTRIBUTES = new ConfigurationKey<String>("assertionCookieAttributes", null);
+    ConfigurationKey<String> TICKET_PREFIXES = new ConfigurationKey<String>("ticketPrefixes", null);
+    ConfigurationKey<Integer> TICKET_MIN_LENGTH = new ConfigurationKey<Integer>("ticketMinLength",
+        TicketPreValidator.DEFAULT_MIN_LENGTH);
+    ConfigurationKey<Integer> TICKET_MAX_LENGTH = new ConfigurationKey<Integer>("ticketMaxLength",
+        TicketPreValidator.DEFAULT_MAX_LENGTH);
+    ConfigurationKey<Integer> REJECTED_TICKET_CACHE_SIZE = new ConfigurationKey<Integer>("rejectedTicketCacheSize", 0);
+    ConfigurationKey<Integer> REJECTED_TICKET_CACHE_TIME_TO_LIVE = new ConfigurationKey<Integer>("rejectedTicketCacheTimeToLive",
+        TicketPreValidator.DEFAULT_CACHE_TIME_TO_LIVE);
 }
@@ -0,0 +1,356 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.engine;
+
+import org.apereo.cas.client.Protocol;
+import org.apereo.cas.client.session.LogoutMessageInflater;
+import org.apereo.cas.client.session.SessionIndexExtractor;
+import org.apereo.cas.client.util.CommonUtils;
+import org.apereo.cas.client.util.URIBuilder;
+import org.apereo.cas.client.validation.Assertion;
+import org.apereo.cas.client.validation.TicketValidationException;
+import org.apereo.cas.client.validation.TicketValidator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Framework neutral CAS client engine.
+ * <p>
+ * Holds the logic of the servlet filters (service url construction, the decision to redirect to CAS login, ticket
+ * validation and logout message parsing) on top of the {@link CasRequest}, {@link CasResponse} and {@link CasSession}
+ * adapters, so that it can be embedded in any HTTP stack.  The servlet filters are adapters over this class.
+ *
+ * @since 4.0.0
+ */
+public class CasClient {
+
+    /** Represents the constant for where the assertion will be located in memory. */
+    public static final String CONST_CAS_ASSERTION = "_const_cas_assertion_";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CasClient.class);
+
+    private static final SessionIndexExtractor SESSION_INDEX_EXTRACTOR = new SessionIndexExtractor();
+
+    private static final LogoutMessageInflater LOGOUT_MESSAGE_INFLATER = new LogoutMessageInflater();
+
+    private final Protocol protocol;
+
+    /** Sets where response.encodeUrl should be called on service urls when constructed. */
+    private boolean encodeServiceUrl = true;
+
+    /** The name of the server, in the format {protocol}:{hostName}:{port}; may hold several space separated names. */
+    private String serverName;
+
+    /** The exact url of the service. */
+    private String service;
+
+    /** The URL to the CAS Server login. */
+    private String casServerLoginUrl;
+
+    /** Whether to send the renew request or not. */
+    private boolean renew;
+
+    /** Whether to send the gateway request or not. */
+    private boolean gateway;
+
+    /** The method used by the CAS server to send the user back to the application. */
+    private String method;
+
+    /** The TicketValidator we will use to validate tickets. */
+    private TicketValidator ticketValidator;
+
+    public CasClient(final Protocol protocol) {
+        CommonUtils.assertNotNull(protocol, "protocol cannot be null.");
+        this.protocol = protocol;
+    }
+
+    public Protocol getProtocol() {
+        return this.protocol;
+    }
+
+    public String getServerName() {
+        return this.serverName;
+    }
+
+    public void setServerName(final String serverName) {
+        this.serverName = serverName;
+    }
+
+    public String getService() {
+        return this.service;
+    }
+
+    public void setService(final String service) {
+        this.service = service;
+    }
+
+    public void setEncodeServiceUrl(final boolean encodeServiceUrl) {
+        this.encodeServiceUrl = encodeServiceUrl;
+    }
+
+    public String getCasServerLoginUrl() {
+        return this.casServerLoginUrl;
+    }
+
+    public void setCasServerLoginUrl(final String casServerLoginUrl) {
+        this.casServerLoginUrl = casServerLoginUrl;
+    }
+
+    public boolean isRenew() {
+        return this.renew;
+    }
+
+    public void setRenew(final boolean renew) {
+        this.renew = renew;
+    }
+
+    public boolean isGateway() {
+        return this.gateway;
+    }
+
+    public void setGateway(final boolean gateway) {
+        this.gateway = gateway;
+    }
+
+    public void setMethod(final String method) {
+        this.method = method;
+    }
+
+    public TicketValidator getTicketValidator() {
+        return this.ticketValidator;
+    }
+
+    public void setTicketValidator(final TicketValidator ticketValidator) {
+        this.ticketValidator = ticketValidator;
+    }
+
+    /**
+     * @param session the current session, may be null.
+     * @return the assertion stored in the session, or null if the user has not been authenticated.
+     */
+    public Assertion getAssertion(final CasSession session) {
+        return session != null ? (Assertion) session.getAttribute(CONST_CAS_ASSERTION) : null;
+    }
+
+    /**
+     * Stores the assertion in the session so that subsequent requests are recognized as authenticated.
+     *
+     * @param session the session.  CANNOT be NULL.
+     * @param assertion the assertion.
+     */
+    public void storeAssertion(final CasSession session, final Assertion assertion) {
+        session.setAttribute(CONST_CAS_ASSERTION, assertion);
+    }
+
+    /**
+     * Retrieves the ticket from the request.  For anything but POST requests the ticket is only looked up if the query
+     * string mentions it, so that the body of form posts is never read needlessly.
+     *
+     * @param request the current request.
+     * @return the ticket, or null if there is none.
+     */
+    public String retrieveTicket(final CasRequest request) {
+        final String name = this.protocol.getArtifactParameterName();
+        if ("POST".equals(request.getMethod())) {
+            return request.getParameter(name);
+        }
+        return request.hasQueryParameter(name) ? request.getParameter(name) : null;
+    }
+
+    /**
+     * @param request the current request.
+     * @param response the current response.
+     * @return the service url of the current request.
+     */
+    public String constructServiceUrl(final CasRequest request, final CasResponse response) {
+        return constructServiceUrl(request, response, this.service, this.serverName,
+            this.protocol.getServiceParameterName(), this.protocol.getArtifactParameterName(), this.encodeServiceUrl);
+    }
+
+    /**
+     * Decides whether the user must be sent to CAS for authentication.
+     *
+     * @param assertion the assertion of the user, null if the user has not been authenticated yet.
+     * @param ticket the ticket found on the request, if any.
+     * @param gatewayed whether the user has already been sent to CAS in gateway mode for this service.
+     * @return true if the user must be redirected to CAS login, false if the request may proceed.
+     */
+    public boolean requiresLoginRedirect(final Assertion assertion, final String ticket, final boolean gatewayed) {
+        return assertion == null && CommonUtils.isBlank(ticket) && !(this.gateway && gatewayed);
+    }
+
+    /**
+     * @param serviceUrl the service url the user should return to.
+     * @return the CAS login url to redirect the user to.
+     */
+    public String constructLoginUrl(final String serviceUrl) {
+        return CommonUtils.constructRedirectUrl(this.casServerLoginUrl, this.protocol.getServiceParameterName(),
+            serviceUrl, this.renew, this.gateway, this.method);
+    }
+
+    /**
+     * Validates the ticket for the service url of the request and exposes the assertion as a request attribute.
+     *
+     * @param request the current request.
+     * @param response the current response.
+     * @param ticket the ticket to validate.
+     * @return the assertion.
+     * @throws TicketValidationException if the ticket is not valid.
+     */
+    public Assertion validate(final CasRequest request, final CasResponse response, final String ticket)
+        throws TicketValidationException {
+        LOGGER.debug("Attempting to validate ticket: {}", ticket);
+        final Assertion assertion = this.ticketValidator.validate(ticket, constructServiceUrl(request, response));
+        LOGGER.debug("Successfully authenticated user: {}", assertion.getPrincipal().getName());
+        request.setAttribute(CONST_CAS_ASSERTION, assertion);
+        return assertion;
+    }
+
+    /**
+     * Extracts the SessionIndex from a CAS logout message, either plain (back channel) or base64 encoded and deflated
+     * (front channel).
+     *
+     * @param logoutMessage the logout message.
+     * @return the SessionIndex, or null if the message could not be decompressed or parsed.
+     */
+    public static String extractSessionIndex(final String logoutMessage) {
+        if (logoutMessage.contains("SessionIndex")) {
+            LOGGER.trace("Logout request:\n{}", logoutMessage);
+            return SESSION_INDEX_EXTRACTOR.extract(logoutMessage);
+        }
+        try (Reader reader = LOGOUT_MESSAGE_INFLATER.newReader(logoutMessage)) {
+            return SESSION_INDEX_EXTRACTOR.extract(reader);
+        } catch (final IOException | IllegalArgumentException e) {
+            LOGGER.error("Unable to decompress logout message", e);
+            return null;
+        }
+    }
+
+    /**
+     * Constructs a service url from the request or from the given service. Prefers the service if it is set.  Removes
+     * the service and artifact parameters from the query string.
+     *
+     * @param request the current request.
+     * @param response the current response.
+     * @param service the configured service url (this will be used if not null)
+     * @param serverNames the space separated server names to construct the service url from if service is empty.
+     * @param serviceParameterName the comma separated service parameter names to remove.
+     * @param artifactParameterName the artifact parameter name to remove (i.e. ticket)
+     * @param encode whether to encode the url or not (i.e. Jsession).
+     * @return the service url to use.
+     */
+    public static String constructServiceUrl(final CasRequest request, final CasResponse response,
+                                             final String service, final String serverNames,
+                                             final String serviceParameterName, final String artifactParameterName,
+                                             final boolean encode) {
+        if (CommonUtils.isNotBlank(service)) {
+            return encode ? response.encodeURL(service) : service;
+        }
+
+        final String serverName = findMatchingServerName(request, serverNames);
+        final URIBuilder originalRequestUrl = new URIBuilder(encode);
+        originalRequestUrl.setParameters(request.getQueryString());
+
+        final URIBuilder builder;
+        if (!serverName.startsWith("https://") && !serverName.startsWith("http://")) {
+            final String scheme = request.isSecure() ? "https://" : "http://";
+            builder = new URIBuilder(scheme + serverName, encode);
+        } else {
+            builder = new URIBuilder(serverName, encode);
+        }
+
+        if (builder.getPort() == -1 && !requestIsOnStandardPort(request)) {
+            builder.setPort(request.getServerPort());
+        }
+
+        builder.setEncodedPath(builder.getEncodedPath() + request.getRequestURI());
+
+        final List<String> serviceParameterNames = Arrays.asList(serviceParameterName.split(","));
+        if (!serviceParameterNames.isEmpty() && !originalRequestUrl.getQueryParams().isEmpty()) {
+            for (final URIBuilder.BasicNameValuePair pair : originalRequestUrl.getQueryParams()) {
+                final String name = pair.getName();
+                if (!name.equals(artifactParameterName) && !serviceParameterNames.contains(name)) {
+                    if (name.contains("&") || name.contains("=")) {
+                        final URIBuilder encodedParamBuilder = new URIBuilder();
+                        encodedParamBuilder.setParameters(name);
+                        for (final URIBuilder.BasicNameValuePair pair2 : encodedParamBuilder.getQueryParams()) {
+                            final String name2 = pair2.getName();
+                            if (!name2.equals(artifactParameterName) && !serviceParameterNames.contains(name2)) {
+                                builder.addParameter(name2, pair2.getValue());
+                            }
+                        }
+                    } else {
+                        builder.addParameter(name, pair.getValue());
+                    }
+                }
+            }
+        }
+
+        final String result = builder.toString();
+        final String returnValue = encode ? response.encodeURL(result) : result;
+        LOGGER.debug("serviceUrl generated: {}", returnValue);
+        return returnValue;
+    }
+
+    /**
+     * Picks the server name matching the Host (or X-Forwarded-Host) header of the request.
+     *
+     * @param request the current request.
+     * @param serverName one or more space separated server names.
+     * @return the matching server name, or the first one if none matches.
+     */
+    public static String findMatchingServerName(final CasRequest request, final String serverName) {
+        final String[] serverNames = serverName.split(" ");
+
+        if (serverNames.length == 0 || serverNames.length == 1) {
+            return serverName;
+        }
+
+        final String host = request.getHeader("Host");
+        final String xHost = request.getHeader("X-Forwarded-Host");
+
+        final String comparisonHost;
+        comparisonHost = (xHost != null) ? xHost : host;
+
+        if (comparisonHost == null) {
+            return serverName;
+        }
+
+        for (final String server : serverNames) {
+            final String lowerCaseServer = server.toLowerCase();
+
+            if (lowerCaseServer.contains(comparisonHost)) {
+                return server;
+            }
+        }
+
+        return serverNames[0];
+    }
+
+    private static boolean requestIsOnStandardPort(final CasRequest request) {
+        final int serverPort = request.getServerPort();
+        return serverPort == 80 || serverPort == 443;
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.engine;
+
+/**
+ * The parts of an HTTP request {@link CasClient} needs, independent of the web framework handling it.
+ *
+ * @since 4.0.0
+ */
+public interface CasRequest {
+
+    /**
+     * @return the HTTP method, i.e. GET or POST.
+     */
+    String getMethod();
+
+    /**
+     * @return the scheme of the request, i.e. http or https.
+     */
+    String getScheme();
+
+    /**
+     * @return true if the request was made over a secure channel.
+     */
+    boolean isSecure();
+
+    /**
+     * @return the port the request was received on.
+     */
+    int getServerPort();
+
+    /**
+     * @return the path of the request, without query string.
+     */
+    String getRequestURI();
+
+    /**
+     * @return the raw query string, or null if there is none.
+     */
+    String getQueryString();
+
+    /**
+     * Tells whether the query string holds a parameter, without reading the body of the request.  The default
+     * implementation scans the raw query string; implementations may answer from a parsed view.
+     *
+     * @param name the parameter name.
+     * @return true if the query string (probably) holds the parameter.
+     */
+    default boolean hasQueryParameter(final String name) {
+        final String queryString = getQueryString();
+        return queryString != null && queryString.contains(name);
+    }
+
+    /**
+     * @param name the header name.
+     * @return the header value, or null if the header is absent.
+     */
+    String getHeader(String name);
+
+    /**
+     * @param name the parameter name.
+     * @return the decoded value of the query (or, for form posts, body) parameter, or null if it is absent.
+     */
+    String getParameter(String name);
+
+    /**
+     * Stores a value for the remainder of the request.
+     *
+     * @param name the attribute name.
+     * @param value the value.
+     */
+    void setAttribute(String name, Object value);
+}
@@ -0,0 +1,54 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.engine;
+
+import java.io.IOException;
+
+/**
+ * The parts of an HTTP response {@link CasClient} needs, independent of the web framework handling it.
+ *
+ * @since 4.0.0
+ */
+public interface CasResponse {
+
+    /**
+     * Encodes the url for session tracking, if the framework supports it.
+     *
+     * @param url the url.
+     * @return the encoded url, or the url unchanged.
+     */
+    String encodeURL(String url);
+
+    /**
+     * Redirects the user agent.
+     *
+     * @param url the location to redirect to.
+     * @throws IOException if the response cannot be written.
+     */
+    void sendRedirect(String url) throws IOException;
+
+    /**
+     * Completes the response with an error status.
+     *
+     * @param status the HTTP status code.
+     * @param message the error message.
+     * @throws IOException if the response cannot be written.
+     */
+    void sendError(int status, String message) throws IOException;
+}
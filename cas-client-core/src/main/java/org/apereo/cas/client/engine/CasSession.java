@@ -0,0 +1,49 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.engine;
+
+/**
+ * The parts of an HTTP session {@link CasClient} needs, independent of the web framework handling it.
+ *
+ * @since 4.0.0
+ */
+public interface CasSession {
+
+    /**
+     * @return the session id.
+     */
+    String getId();
+
+    /**
+     * @param name the attribute name.
+     * @return the attribute value, or null if it is absent.
+     */
+    Object getAttribute(String name);
+
+    /**
+     * @param name the attribute name.
+     * @param value the attribute value.
+     */
+    void setAttribute(String name, Object value);
+
+    /**
+     * Invalidates the session.
+     */
+    void invalidate();
+}
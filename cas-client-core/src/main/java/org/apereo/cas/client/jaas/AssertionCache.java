@@ -0,0 +1,335 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.jaas;
+
+import org.apereo.cas.client.util.CommonUtils;
+import org.apereo.cas.client.validation.Assertion;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent, bounded cache of assertions keyed by the ticket they were validated from.
+ * <p>
+ * Each entry expires a configurable time after the assertion became valid.  Expired entries are never returned and are
+ * removed in the background by a scheduler shared by all caches, so looking up or adding an assertion never scans the
+ * cache.  When the cache is full, the oldest entries are evicted first.
+ *
+ * @since 4.0.0
+ */
+public final class AssertionCache {
+
+    /**
+     * Default maximum number of cached assertions.
+     */
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    /**
+     * Interval in milliseconds at which expired entries are removed.
+     */
+    public static final long CLEANUP_INTERVAL = 60 * 1000;
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "cas-assertion-cache-cleanup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final ConcurrentMap<TicketCredential, Entry> entries = new ConcurrentHashMap<TicketCredential, Entry>();
+
+    /**
+     * Entries in insertion order, used for eviction.  May contain entries that have already been removed.
+     */
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<Entry>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final AtomicLong expirations = new AtomicLong();
+
+    private volatile int maxSize;
+
+    public AssertionCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize the maximum number of cached assertions.
+     */
+    public AssertionCache(final int maxSize) {
+        setMaxSize(maxSize);
+
+        // the scheduler must not keep discarded caches alive; the task cancels itself once the cache is collected
+        final WeakReference<AssertionCache> reference = new WeakReference<AssertionCache>(this);
+        SCHEDULER.scheduleWithFixedDelay(() -> {
+            final AssertionCache cache = reference.get();
+            if (cache == null) {
+                throw new CancellationException("Assertion cache has been garbage collected.");
+            }
+            cache.removeExpired();
+        }, CLEANUP_INTERVAL, CLEANUP_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    public void setMaxSize(final int maxSize) {
+        CommonUtils.assertTrue(maxSize > 0, "maxSize must be greater than zero.");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param ticket the ticket the assertion was validated from.
+     * @return the cached assertion, or null if there is none or it has expired.
+     */
+    public Assertion get(final TicketCredential ticket) {
+        final Entry entry = this.entries.get(ticket);
+
+        if (entry == null) {
+            this.misses.incrementAndGet();
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            if (this.entries.remove(ticket, entry)) {
+                this.expirations.incrementAndGet();
+            }
+            this.misses.incrementAndGet();
+            return null;
+        }
+        this.hits.incrementAndGet();
+        return entry.assertion;
+    }
+
+    /**
+     * Caches an assertion.  Caching the same assertion again does not extend its lifetime.
+     *
+     * @param ticket the ticket the assertion was validated from.
+     * @param assertion the assertion.
+     * @param timeToLive the time after which the assertion expires, counted from its valid from date.
+     * @param unit the unit of the time to live.
+     */
+    public void put(final TicketCredential ticket, final Assertion assertion, final long timeToLive, final TimeUnit unit) {
+        final long validFrom = assertion.getValidFromDate() != null ? assertion.getValidFromDate().getTime()
+            : System.currentTimeMillis();
+        final Entry entry = new Entry(ticket, assertion, validFrom + unit.toMillis(timeToLive));
+        final Entry current = this.entries.compute(ticket, (key, existing) ->
+            existing != null && existing.assertion == assertion ? existing : entry);
+
+        if (current == entry) {
+            this.insertionOrder.offer(entry);
+            evictIfNecessary();
+        }
+    }
+
+    /**
+     * @param ticket the ticket the assertion was validated from.
+     */
+    public void remove(final TicketCredential ticket) {
+        this.entries.remove(ticket);
+    }
+
+    public void clear() {
+        this.entries.clear();
+        this.insertionOrder.clear();
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns a {@link Map} view of this cache for code written against a plain map.  Lookups through the view count
+     * as hits and misses, and expired assertions are skipped when iterating over it.
+     *
+     * @param timeToLive the time after which assertions put through the view expire, counted from their valid from
+     *                   date.
+     * @param unit the unit of the time to live.
+     * @return the view.
+     */
+    public Map<TicketCredential, Assertion> asMap(final long timeToLive, final TimeUnit unit) {
+        return new AbstractMap<TicketCredential, Assertion>() {
+
+            @Override
+            public Assertion get(final Object key) {
+                return key instanceof TicketCredential ? AssertionCache.this.get((TicketCredential) key) : null;
+            }
+
+            @Override
+            public boolean containsKey(final Object key) {
+                return get(key) != null;
+            }
+
+            @Override
+            public Assertion put(final TicketCredential key, final Assertion value) {
+                final AssertionCache.Entry previous = entries.get(key);
+                AssertionCache.this.put(key, value, timeToLive, unit);
+                return previous == null ? null : previous.assertion;
+            }
+
+            @Override
+            public Assertion remove(final Object key) {
+                final AssertionCache.Entry removed = entries.remove(key);
+                return removed == null ? null : removed.assertion;
+            }
+
+            @Override
+            public int size() {
+                return AssertionCache.this.size();
+            }
+
+            @Override
+            public void clear() {
+                AssertionCache.this.clear();
+            }
+
+            @Override
+            public Set<Map.Entry<TicketCredential, Assertion>> entrySet() {
+                return new AbstractSet<Map.Entry<TicketCredential, Assertion>>() {
+
+                    @Override
+                    public Iterator<Map.Entry<TicketCredential, Assertion>> iterator() {
+                        final long now = System.currentTimeMillis();
+                        final Iterator<AssertionCache.Entry> iterator = entries.values().stream()
+                            .filter(entry -> !entry.isExpired(now)).iterator();
+                        return new Iterator<Map.Entry<TicketCredential, Assertion>>() {
+
+                            private AssertionCache.Entry current;
+
+                            @Override
+                            public boolean hasNext() {
+                                return iterator.hasNext();
+                            }
+
+                            @Override
+                            public Map.Entry<TicketCredential, Assertion> next() {
+                                this.current = iterator.next();
+                                return new SimpleImmutableEntry<TicketCredential, Assertion>(this.current.ticket,
+                                    this.current.assertion);
+                            }
+
+                            @Override
+                            public void remove() {
+                                if (this.current == null) {
+                                    throw new IllegalStateException("next() has not been called.");
+                                }
+                                entries.remove(this.current.ticket, this.current);
+                                this.current = null;
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return AssertionCache.this.size();
+                    }
+                };
+            }
+        };
+    }
+
+    public long getHitCount() {
+        return this.hits.get();
+    }
+
+    public long getMissCount() {
+        return this.misses.get();
+    }
+
+    /**
+     * @return the number of entries removed because the cache was full.
+     */
+    public long getEvictionCount() {
+        return this.evictions.get();
+    }
+
+    /**
+     * @return the number of entries removed because they expired.
+     */
+    public long getExpirationCount() {
+        return this.expirations.get();
+    }
+
+    private void evictIfNecessary() {
+        while (this.entries.size() > this.maxSize) {
+            final Entry oldest = this.insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            if (this.entries.remove(oldest.ticket, oldest)) {
+                this.evictions.incrementAndGet();
+                logger.debug("Evicted cached assertion for principal {}", oldest.assertion.getPrincipal());
+            }
+        }
+    }
+
+    /**
+     * Removes expired entries, and entries of the insertion order that are no longer cached.
+     */
+    void removeExpired() {
+        try {
+            final long now = System.currentTimeMillis();
+            for (final Entry entry : this.entries.values()) {
+                if (entry.isExpired(now) && this.entries.remove(entry.ticket, entry)) {
+                    this.expirations.incrementAndGet();
+                    logger.debug("Removing expired assertion for principal {}", entry.assertion.getPrincipal());
+                }
+            }
+            this.insertionOrder.removeIf(entry -> this.entries.get(entry.ticket) != entry);
+        } catch (final RuntimeException e) {
+            logger.warn("Error cleaning assertion cache: {}", e.getMessage(), e);
+        }
+    }
+
+    private static final class Entry {
+
+        private final TicketCredential ticket;
+
+        private final Assertion assertion;
+
+        private final long expiresAt;
+
+        Entry(final TicketCredential ticket, final Assertion assertion, final long expiresAt) {
+            this.ticket = ticket;
+            this.assertion = assertion;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(final long now) {
+            return now >= this.expiresAt;
+        }
+    }
+}
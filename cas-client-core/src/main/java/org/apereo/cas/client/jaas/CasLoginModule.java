@@ -42,12 +42,13 @@ import java.beans.PropertyDescriptor;
 import java.io.IOException;
 import java.security.Principal;
 import java.util.Arrays;
-import java.util.Calendar;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -83,11 +84,15 @@ import java.util.concurrent.TimeUnit;
  * <li>cacheTimeout (optional) - Assertion cache timeout in minutes.</li>
  * <li>cacheTimeoutUnit (optional) - Assertion cache timeout unit.  Must be one of {@link TimeUnit} enumeration
  *     names, e.g. DAYS, HOURS, MINUTES, SECONDS, MILLISECONDS. Default unit is MINUTES.</li>
+ * <li>cacheMaxSize (optional) - Maximum number of cached assertions, shared by all login modules.
+ *     Default is 10000.</li>
  * </ul>
  *
  * <p>
  * Module options not explicitly listed above are treated as attributes of the
  * given ticket validator class, e.g. <code>tolerance</code> in the following example.
+ * A ticket validator is created once for each distinct combination of validator class and options, and is shared by
+ * all logins with that configuration.
  *
  * <p>
  * Sample jaas.config file entry for this module:
@@ -144,7 +149,23 @@ public class CasLoginModule implements LoginModule {
      * CAS tickets are one-time-use, a cached assertion must be provided on
      * re-authentication.
      */
-    protected static final Map<TicketCredential, Assertion> ASSERTION_CACHE = new HashMap<TicketCredential, Assertion>();
+    protected static final AssertionCache ASSERTIONS = new AssertionCache();
+
+    /**
+     * {@link Map} view of {@link #ASSERTIONS}.  Assertions put through it expire after the default cache timeout.
+     *
+     * @deprecated use {@link #ASSERTIONS}, which honors the configured cache timeout.
+     */
+    @Deprecated
+    protected static final Map<TicketCredential, Assertion> ASSERTION_CACHE =
+        ASSERTIONS.asMap(DEFAULT_CACHE_TIMEOUT, DEFAULT_CACHE_TIMEOUT_UNIT);
+
+    /**
+     * Fully configured ticket validators keyed by the fingerprint of the options they were created from, so that
+     * logins with the same configuration share one validator and its connection factory.
+     */
+    private static final ConcurrentMap<String, TicketValidator> TICKET_VALIDATORS =
+        new ConcurrentHashMap<String, TicketValidator>();
 
     /**
      * Logger instance
@@ -316,15 +337,16 @@ public class CasLoginModule implements LoginModule {
             } else if ("cacheTimeoutUnit".equals(key)) {
                 this.cacheTimeoutUnit = Enum.valueOf(TimeUnit.class, (String) options.get(key));
                 logger.debug("Set cacheTimeoutUnit={}", this.cacheTimeoutUnit);
+            } else if ("cacheMaxSize".equals(key)) {
+                ASSERTIONS.setMaxSize(Integer.parseInt((String) options.get(key)));
+                logger.debug("Set cacheMaxSize={}", options.get(key));
             }
         }
 
-        if (this.cacheAssertions) {
-            cleanCache();
-        }
-
         CommonUtils.assertNotNull(ticketValidatorClass, "ticketValidatorClass is required.");
-        this.ticketValidator = createTicketValidator(ticketValidatorClass, options);
+        final String validatorClass = ticketValidatorClass;
+        this.ticketValidator = TICKET_VALIDATORS.computeIfAbsent(fingerprint(validatorClass, options),
+            fingerprint -> createTicketValidator(validatorClass, options));
     }
 
     @Override
@@ -357,7 +379,7 @@ public class CasLoginModule implements LoginModule {
                     : this.service;
 
                 if (this.cacheAssertions) {
-                    this.assertion = ASSERTION_CACHE.get(ticket);
+                    this.assertion = ASSERTIONS.get(ticket);
                     if (this.assertion != null) {
                         logger.debug("Assertion found in cache.");
                     }
@@ -418,7 +440,7 @@ public class CasLoginModule implements LoginModule {
 
                 if (this.cacheAssertions) {
                     logger.debug("Caching assertion for principal {}", this.assertion.getPrincipal());
-                    ASSERTION_CACHE.put(this.ticket, this.assertion);
+                    ASSERTIONS.put(this.ticket, this.assertion, this.cacheTimeout, this.cacheTimeoutUnit);
                 }
             } else {
                 // Login must have failed if there is no assertion defined
@@ -457,7 +479,7 @@ public class CasLoginModule implements LoginModule {
         if (this.cacheAssertions) {
             for (final TicketCredential ticket : this.subject.getPrivateCredentials(TicketCredential.class)) {
                 logger.debug("Removing cached assertion for {}", ticket);
-                ASSERTION_CACHE.remove(ticket);
+                ASSERTIONS.remove(ticket);
             }
         }
 
@@ -526,6 +548,21 @@ public class CasLoginModule implements LoginModule {
         // template method
     }
 
+    /**
+     * Computes a canonical representation of the validator class and the options, independent of option order.
+     *
+     * @param className   Fully-qualified name of {@link TicketValidator} concrete class.
+     * @param options     Login module options.
+     * @return the fingerprint.
+     */
+    private static String fingerprint(final String className, final Map<String, ?> options) {
+        final StringBuilder builder = new StringBuilder(className);
+        for (final Map.Entry<String, ?> option : new TreeMap<String, Object>(options).entrySet()) {
+            builder.append('\n').append(option.getKey()).append('=').append(option.getValue());
+        }
+        return builder.toString();
+    }
+
     /**
      * Creates a {@link TicketValidator} instance from a class name and map of property name/value pairs.
      *
@@ -581,23 +618,4 @@ public class CasLoginModule implements LoginModule {
     private void removeCredentialsOfType(final Class<? extends Principal> clazz) {
         this.subject.getPrivateCredentials().removeAll(this.subject.getPrivateCredentials(clazz));
     }
-
-    /**
-     * Removes expired entries from the assertion cache.
-     */
-    private void cleanCache() {
-        logger.debug("Cleaning assertion cache of size {}", ASSERTION_CACHE.size());
-        final Iterator<Map.Entry<TicketCredential, Assertion>> iter = ASSERTION_CACHE.entrySet().iterator();
-        final Calendar cutoff = Calendar.getInstance();
-        cutoff.setTimeInMillis(System.currentTimeMillis() - this.cacheTimeoutUnit.toMillis(this.cacheTimeout));
-        while (iter.hasNext()) {
-            final Assertion assertion = iter.next().getValue();
-            final Calendar created = Calendar.getInstance();
-            created.setTime(assertion.getValidFromDate());
-            if (created.before(cutoff)) {
-                logger.debug("Removing expired assertion for principal {}", assertion.getPrincipal());
-                iter.remove();
-            }
-        }
-    }
 }
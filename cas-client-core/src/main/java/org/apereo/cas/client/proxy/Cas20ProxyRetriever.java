@@ -24,9 +24,22 @@ import org.apereo.cas.client.util.XmlUtils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
 
 import java.net.URL;
 import java.net.URLEncoder;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Implementation of a ProxyRetriever that follows the CAS 2.0 specification.
@@ -82,6 +95,14 @@ public final class Cas20ProxyRetriever implements ProxyRetriever {
         CommonUtils.assertNotNull(proxyGrantingTicketId, "proxyGrantingTicketId cannot be null.");
         CommonUtils.assertNotNull(targetService, "targetService cannot be null.");
 
+        return requestProxyTicket(proxyGrantingTicketId, targetService).getProxyTicket();
+    }
+
+    /**
+     * Requests a proxy ticket and keeps the code and message of a proxyFailure, so callers can tell an invalid
+     * proxy granting ticket from a service that may not be proxied.
+     */
+    private ProxyTicketResult requestProxyTicket(final String proxyGrantingTicketId, final String targetService) {
         final URL url = constructUrl(proxyGrantingTicketId, targetService);
         final String response;
 
@@ -90,16 +111,67 @@ public final class Cas20ProxyRetriever implements ProxyRetriever {
         } else {
             response = CommonUtils.getResponseFromServer(url, this.encoding);
         }
-        final String error = XmlUtils.getTextForElement(response, "proxyFailure");
+        final Document document;
+        try {
+            document = XmlUtils.newDocument(response);
+        } catch (final RuntimeException e) {
+            logger.debug("Unable to parse proxy response: {}", e.getMessage());
+            return ProxyTicketResult.of(targetService, null);
+        }
+
+        final Element failure = getElement(document, "proxyFailure");
+        if (failure != null) {
+            final String code = failure.getAttribute("code");
+            final String message = failure.getTextContent().trim();
+            logger.debug("Proxy ticket for {} refused with {}: {}", targetService, code, message);
+            return ProxyTicketResult.rejected(targetService, CommonUtils.isNotEmpty(code) ? code : null, message);
+        }
+
+        final Element ticket = getElement(document, "proxyTicket");
+        final String proxyTicket = ticket != null ? ticket.getTextContent().trim() : null;
+        logger.debug("Got proxy ticket {}", proxyTicket);
+        return ProxyTicketResult.of(targetService, proxyTicket);
+    }
+
+    private static Element getElement(final Document document, final String localName) {
+        final NodeList elements = document.getElementsByTagNameNS("*", localName);
+        return elements.getLength() > 0 ? (Element) elements.item(0) : null;
+    }
 
-        if (CommonUtils.isNotEmpty(error)) {
-            logger.debug(error);
-            return null;
+    /**
+     * Issues the <code>/proxy</code> requests concurrently on a bounded, shared pool of
+     * {@value BatchExecutorHolder#THREADS} threads, so the call takes roughly as long as the slowest request.  When the
+     * pool is saturated the calling thread performs the request itself.
+     */
+    @Override
+    public Map<String, ProxyTicketResult> getProxyTicketIdsFor(final String proxyGrantingTicketId,
+                                                             final Collection<String> targetServices) {
+        CommonUtils.assertNotNull(proxyGrantingTicketId, "proxyGrantingTicketId cannot be null.");
+        CommonUtils.assertNotNull(targetServices, "targetServices cannot be null.");
+
+        final Map<String, Future<ProxyTicketResult>> futures = new LinkedHashMap<String, Future<ProxyTicketResult>>();
+        for (final String targetService : targetServices) {
+            if (!futures.containsKey(targetService)) {
+                futures.put(targetService, BatchExecutorHolder.EXECUTOR.submit(
+                    () -> requestProxyTicket(proxyGrantingTicketId, targetService)));
+            }
         }
 
-        final String ticket = XmlUtils.getTextForElement(response, "proxyTicket");
-        logger.debug("Got proxy ticket {}", ticket);
-        return ticket;
+        final Map<String, ProxyTicketResult> results = new LinkedHashMap<String, ProxyTicketResult>();
+        for (final Map.Entry<String, Future<ProxyTicketResult>> entry : futures.entrySet()) {
+            final String targetService = entry.getKey();
+            try {
+                results.put(targetService, entry.getValue().get());
+            } catch (final ExecutionException e) {
+                final Throwable cause = e.getCause();
+                results.put(targetService, ProxyTicketResult.failed(targetService,
+                    cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause)));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.put(targetService, ProxyTicketResult.failed(targetService, new RuntimeException(e)));
+            }
+        }
+        return results;
     }
 
     private URL constructUrl(final String proxyGrantingTicketId, final String targetService) {
@@ -110,4 +182,26 @@ public final class Cas20ProxyRetriever implements ProxyRetriever {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Lazily created pool shared by all instances; daemon threads that time out when idle.
+     */
+    private static final class BatchExecutorHolder {
+
+        private static final int THREADS = 8;
+
+        private static final ExecutorService EXECUTOR = newExecutor();
+
+        private static ExecutorService newExecutor() {
+            final AtomicInteger threadNumber = new AtomicInteger();
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(THREADS * 16), r -> {
+                    final Thread thread = new Thread(r, "cas-proxy-retriever-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
 }
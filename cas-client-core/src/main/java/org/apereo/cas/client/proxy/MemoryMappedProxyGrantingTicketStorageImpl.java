@@ -0,0 +1,383 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.proxy;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Implementation of {@link ProxyGrantingTicketStorage} that is backed by a memory-mapped file, allowing several JVMs on
+ * the same host to share ProxyGrantingTickets without an external service.  The proxy callback may therefore land on a
+ * different JVM than the one that later retrieves the ticket.
+ * <p>
+ * The file holds an open-addressing hash table of fixed-size slots.  Slots are claimed with a compare-and-set on their
+ * state word, so concurrent writers in different processes never corrupt each other, and every entry carries an
+ * expiration stamp so that unclaimed tickets disappear after the configured timeout.  Probing is bounded by
+ * {@value #MAX_PROBES} slots; if no slot is available within that distance the ticket is not stored and a warning is
+ * logged, so the capacity should comfortably exceed the number of tickets outstanding at any time.
+ * <p>
+ * The state word also records when a slot was claimed.  A slot left claimed for longer than
+ * {@value #BUSY_TIMEOUT} milliseconds belongs to a process that died while writing or reading it, and is reclaimed by
+ * the next save, retrieval or clean up that comes across it.
+ * <p>
+ * Keys are limited to {@value #MAX_KEY_LENGTH} and values to {@value #MAX_VALUE_LENGTH} UTF-8 bytes.  As with
+ * {@link ProxyGrantingTicketStorageImpl}, a ticket can only be retrieved once.  {@link #destroy()} unmaps the file.
+ *
+ * @since 4.0.0
+ */
+public final class MemoryMappedProxyGrantingTicketStorageImpl extends AbstractEncryptedProxyGrantingTicketStorageImpl {
+
+    /**
+     * Default timeout in milliseconds.
+     */
+    private static final long DEFAULT_TIMEOUT = 60000;
+
+    /**
+     * Default number of slots in the table.
+     */
+    private static final int DEFAULT_CAPACITY = 65536;
+
+    /**
+     * Time, in milliseconds, after which a claimed slot is considered abandoned.  Claims last microseconds.
+     */
+    private static final long BUSY_TIMEOUT = 10000;
+
+    private static final int MAX_PROBES = 64;
+
+    private static final int MAX_KEY_LENGTH = 224;
+
+    private static final int MAX_VALUE_LENGTH = 264;
+
+    private static final int MAGIC = 0x43415350;
+
+    private static final int VERSION = 2;
+
+    private static final int HEADER_SIZE = 64;
+
+    private static final int SLOT_SIZE = 512;
+
+    private static final int STATE_EMPTY = 0;
+
+    private static final int STATE_BUSY = 1;
+
+    private static final int STATE_FULL = 2;
+
+    private static final int STATE_REMOVED = 3;
+
+    /**
+     * Number of low bits of the state word holding the state; the remaining bits hold the time the slot was claimed.
+     */
+    private static final int STATE_BITS = 8;
+
+    private static final int OFFSET_STATE = 0;
+
+    private static final int OFFSET_EXPIRES = 8;
+
+    private static final int OFFSET_HASH = 16;
+
+    private static final int OFFSET_KEY_LENGTH = 20;
+
+    private static final int OFFSET_VALUE_LENGTH = 22;
+
+    private static final int OFFSET_KEY = 24;
+
+    private static final int OFFSET_VALUE = OFFSET_KEY + MAX_KEY_LENGTH;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Guards the mapping: operations hold the read lock, {@link #destroy()} the write lock.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private MappedByteBuffer buffer;
+
+    private final int capacity;
+
+    /**
+     * time, in milliseconds, before an unclaimed ProxyGrantingTicket is considered expired.
+     */
+    private final long timeout;
+
+    /**
+     * Maps the given file with the default capacity and timeout.
+     *
+     * @param file the file shared by all participating JVMs.
+     */
+    public MemoryMappedProxyGrantingTicketStorageImpl(final String file) {
+        this(file, DEFAULT_CAPACITY, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Maps the given file, creating and initializing it if necessary.  If the file has already been initialized by
+     * another JVM, its capacity takes precedence over the requested one.
+     *
+     * @param file the file shared by all participating JVMs.
+     * @param capacity the number of slots in the table.
+     * @param timeout the time, in milliseconds, to hold on to a ProxyGrantingTicket if it is never retrieved.
+     */
+    public MemoryMappedProxyGrantingTicketStorageImpl(final String file, final int capacity, final long timeout) {
+        CommonUtils.assertNotNull(file, "file cannot be null.");
+        CommonUtils.assertTrue(capacity > 0 && capacity <= (Integer.MAX_VALUE - HEADER_SIZE) / SLOT_SIZE,
+            "capacity must be greater than zero and fit in a single mapping.");
+        this.timeout = timeout;
+
+        final Path path = Paths.get(file);
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+            final int slots;
+            try (final FileLock ignored = channel.lock()) {
+                slots = initializeHeader(channel, capacity);
+            }
+            this.capacity = slots;
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) slots * SLOT_SIZE);
+        } catch (final IOException e) {
+            throw new IllegalStateException("Unable to map ProxyGrantingTicket storage file " + path, e);
+        }
+        logger.info("Mapped ProxyGrantingTicket storage file [{}] with {} slots", path, this.capacity);
+    }
+
+    private static int initializeHeader(final FileChannel channel, final int capacity) throws IOException {
+        final long size = HEADER_SIZE + (long) capacity * SLOT_SIZE;
+        if (channel.size() >= HEADER_SIZE) {
+            final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt(0) == MAGIC) {
+                CommonUtils.assertTrue(header.getInt(4) == VERSION, "Unsupported storage file version.");
+                CommonUtils.assertTrue(header.getInt(12) == SLOT_SIZE, "Unsupported storage file slot size.");
+                return header.getInt(8);
+            }
+        }
+        final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        header.putInt(4, VERSION);
+        header.putInt(8, capacity);
+        header.putInt(12, SLOT_SIZE);
+        header.putInt(0, MAGIC);
+        header.force();
+        return capacity;
+    }
+
+    @Override
+    protected void saveInternal(final String proxyGrantingTicketIou, final String proxyGrantingTicket) {
+        final byte[] key = proxyGrantingTicketIou.getBytes(StandardCharsets.UTF_8);
+        final byte[] value = proxyGrantingTicket.getBytes(StandardCharsets.UTF_8);
+        if (key.length > MAX_KEY_LENGTH || value.length > MAX_VALUE_LENGTH) {
+            logger.warn("ProxyGrantingTicketIOU [{}] or its ProxyGrantingTicket is too long to be stored", proxyGrantingTicketIou);
+            return;
+        }
+
+        this.lock.readLock().lock();
+        try {
+            if (this.buffer == null) {
+                logger.warn("ProxyGrantingTicket storage has been destroyed; not saving [{}]", proxyGrantingTicketIou);
+                return;
+            }
+            final int hash = hash(key);
+            final long now = System.currentTimeMillis();
+            for (int i = 0; i < Math.min(MAX_PROBES, this.capacity); i++) {
+                final int slot = slotOffset(hash, i);
+                final long word = (long) LONG.getVolatile(this.buffer, slot + OFFSET_STATE);
+                final int state = state(word);
+                final boolean reusable = state == STATE_EMPTY || state == STATE_REMOVED
+                                         || (state == STATE_FULL && this.buffer.getLong(slot + OFFSET_EXPIRES) < now)
+                                         || isAbandoned(word, now);
+                if (reusable && LONG.compareAndSet(this.buffer, slot + OFFSET_STATE, word, busy(now))) {
+                    this.buffer.putInt(slot + OFFSET_HASH, hash);
+                    this.buffer.putLong(slot + OFFSET_EXPIRES, now + this.timeout);
+                    this.buffer.putShort(slot + OFFSET_KEY_LENGTH, (short) key.length);
+                    this.buffer.putShort(slot + OFFSET_VALUE_LENGTH, (short) value.length);
+                    this.buffer.put(slot + OFFSET_KEY, key);
+                    this.buffer.put(slot + OFFSET_VALUE, value);
+                    LONG.setVolatile(this.buffer, slot + OFFSET_STATE, (long) STATE_FULL);
+                    logger.debug("Saved ProxyGrantingTicketIOU [{}] in slot {}", proxyGrantingTicketIou, (slot - HEADER_SIZE) / SLOT_SIZE);
+                    return;
+                }
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        logger.warn("No free slot for ProxyGrantingTicketIOU [{}]; consider increasing the capacity", proxyGrantingTicketIou);
+    }
+
+    /**
+     * NOTE: you can only retrieve a ProxyGrantingTicket once with this method.
+     * Its removed after retrieval.
+     */
+    @Override
+    protected String retrieveInternal(final String proxyGrantingTicketIou) {
+        if (CommonUtils.isBlank(proxyGrantingTicketIou)) {
+            return null;
+        }
+
+        final byte[] key = proxyGrantingTicketIou.getBytes(StandardCharsets.UTF_8);
+        final int hash = hash(key);
+        this.lock.readLock().lock();
+        try {
+            for (int i = 0; this.buffer != null && i < Math.min(MAX_PROBES, this.capacity); i++) {
+                final int slot = slotOffset(hash, i);
+                final long word = (long) LONG.getVolatile(this.buffer, slot + OFFSET_STATE);
+                final int state = state(word);
+                if (state == STATE_EMPTY) {
+                    break;
+                }
+                if (isAbandoned(word, System.currentTimeMillis())) {
+                    reclaim(slot, word);
+                    continue;
+                }
+                if (state != STATE_FULL || this.buffer.getInt(slot + OFFSET_HASH) != hash
+                    || !LONG.compareAndSet(this.buffer, slot + OFFSET_STATE, word, busy(System.currentTimeMillis()))) {
+                    continue;
+                }
+                if (!keyEquals(slot, key)) {
+                    LONG.setVolatile(this.buffer, slot + OFFSET_STATE, (long) STATE_FULL);
+                    continue;
+                }
+                final boolean expired = this.buffer.getLong(slot + OFFSET_EXPIRES) < System.currentTimeMillis();
+                final byte[] value = new byte[this.buffer.getShort(slot + OFFSET_VALUE_LENGTH)];
+                this.buffer.get(slot + OFFSET_VALUE, value);
+                LONG.setVolatile(this.buffer, slot + OFFSET_STATE, (long) STATE_REMOVED);
+                if (expired) {
+                    break;
+                }
+                logger.debug("Returned ProxyGrantingTicket for [{}]", proxyGrantingTicketIou);
+                return new String(value, StandardCharsets.UTF_8);
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        logger.info("No Proxy Ticket found for [{}].", proxyGrantingTicketIou);
+        return null;
+    }
+
+    /**
+     * Marks expired and abandoned slots as removed so that they can be reused.
+     */
+    @Override
+    public void cleanUp() {
+        final long now = System.currentTimeMillis();
+        this.lock.readLock().lock();
+        try {
+            for (int i = 0; this.buffer != null && i < this.capacity; i++) {
+                final int slot = HEADER_SIZE + i * SLOT_SIZE;
+                final long word = (long) LONG.getVolatile(this.buffer, slot + OFFSET_STATE);
+                if (isAbandoned(word, now)
+                    || state(word) == STATE_FULL && this.buffer.getLong(slot + OFFSET_EXPIRES) < now) {
+                    reclaim(slot, word);
+                }
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes outstanding changes to the file and unmaps it.  Saves are dropped and retrievals find nothing afterwards.
+     */
+    public void destroy() {
+        this.lock.writeLock().lock();
+        try {
+            if (this.buffer == null) {
+                return;
+            }
+            this.buffer.force();
+            unmap(this.buffer);
+            this.buffer = null;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private void reclaim(final int slot, final long word) {
+        if (LONG.compareAndSet(this.buffer, slot + OFFSET_STATE, word, (long) STATE_REMOVED) && state(word) == STATE_BUSY) {
+            logger.warn("Reclaimed slot {} abandoned by another process", (slot - HEADER_SIZE) / SLOT_SIZE);
+        }
+    }
+
+    private boolean keyEquals(final int slot, final byte[] key) {
+        if (this.buffer.getShort(slot + OFFSET_KEY_LENGTH) != key.length) {
+            return false;
+        }
+        final byte[] stored = new byte[key.length];
+        this.buffer.get(slot + OFFSET_KEY, stored);
+        return Arrays.equals(stored, key);
+    }
+
+    private int slotOffset(final int hash, final int probe) {
+        return HEADER_SIZE + (int) (((hash & 0xffffffffL) + probe) % this.capacity) * SLOT_SIZE;
+    }
+
+    private static int state(final long word) {
+        return (int) (word & ((1 << STATE_BITS) - 1));
+    }
+
+    private static long busy(final long now) {
+        return now << STATE_BITS | STATE_BUSY;
+    }
+
+    private static boolean isAbandoned(final long word, final long now) {
+        return state(word) == STATE_BUSY && now - (word >>> STATE_BITS) > BUSY_TIMEOUT;
+    }
+
+    /**
+     * Releases the mapping right away rather than when the buffer is garbage collected, which on some platforms keeps
+     * the file from being deleted until then.
+     */
+    private void unmap(final MappedByteBuffer mapped) {
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe.get(null), mapped);
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            logger.debug("Unable to unmap ProxyGrantingTicket storage; leaving it to the garbage collector: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * FNV-1a, so that all JVMs agree on the slot regardless of {@link String#hashCode()} implementation details.
+     */
+    private static int hash(final byte[] key) {
+        int hash = 0x811c9dc5;
+        for (final byte b : key) {
+            hash ^= b;
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,347 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.proxy;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link ProxyRetriever} that keeps a small number of fresh proxy tickets per (ProxyGrantingTicket, target service)
+ * pair, acquired in the background from a delegate retriever.  A caller that asks for a proxy ticket usually just
+ * takes one from the pool; only when the pool is empty does the call go to the CAS server synchronously.
+ * <p>
+ * The number of tickets kept for a pair adapts to demand: it follows the number of tickets requested for that pair
+ * during the previous lifetime window, capped at <code>maxTicketsPerTarget</code>.  Nothing is prefetched for a pair
+ * requested at most once per window, since a ticket fetched ahead for it would expire unused.  Tickets older than
+ * <code>ticketLifetime</code> are discarded, so this value must be shorter than the proxy ticket lifetime configured on
+ * the CAS server.  Pairs that have not been used for several lifetimes are dropped entirely.
+ * <p>
+ * Principals are stored in the session together with their retriever.  When serialized, this retriever is replaced by
+ * its delegate, so a deserialized principal falls back to synchronous retrieval.
+ *
+ * @since 4.0.0
+ */
+public final class PrefetchingProxyRetriever implements ProxyRetriever {
+
+    private static final long serialVersionUID = 2749012893470213386L;
+
+    /**
+     * Default time after which a prefetched ticket is discarded.  CAS issues proxy tickets valid for 10 seconds by default.
+     */
+    public static final long DEFAULT_TICKET_LIFETIME = 8000;
+
+    /**
+     * Default maximum number of (ProxyGrantingTicket, target service) pairs that are prefetched for.
+     */
+    public static final int DEFAULT_MAX_TARGETS = 10000;
+
+    /**
+     * Number of lifetimes a pair may go unused before it is dropped.
+     */
+    private static final int IDLE_LIFETIMES = 5;
+
+    private static final Logger logger = LoggerFactory.getLogger(PrefetchingProxyRetriever.class);
+
+    private final ProxyRetriever delegate;
+
+    private final int maxTicketsPerTarget;
+
+    private final long ticketLifetime;
+
+    private final int maxTargets;
+
+    private final transient Map<Target, TicketPool> pools = new ConcurrentHashMap<Target, TicketPool>();
+
+    private final transient ScheduledExecutorService executor;
+
+    /**
+     * Creates a prefetching retriever with the default lifetime and number of targets.
+     *
+     * @param delegate the retriever that contacts the CAS server.
+     * @param maxTicketsPerTarget the maximum number of tickets held for a single target service.
+     */
+    public PrefetchingProxyRetriever(final ProxyRetriever delegate, final int maxTicketsPerTarget) {
+        this(delegate, maxTicketsPerTarget, DEFAULT_TICKET_LIFETIME, DEFAULT_MAX_TARGETS, 2);
+    }
+
+    /**
+     * Main Constructor.
+     *
+     * @param delegate the retriever that contacts the CAS server.
+     * @param maxTicketsPerTarget the maximum number of tickets held for a single target service.
+     * @param ticketLifetime the time, in milliseconds, after which a prefetched ticket is discarded.
+     * @param maxTargets the maximum number of (ProxyGrantingTicket, target service) pairs to prefetch for.
+     * @param threads the number of background threads acquiring tickets.
+     */
+    public PrefetchingProxyRetriever(final ProxyRetriever delegate, final int maxTicketsPerTarget,
+                                     final long ticketLifetime, final int maxTargets, final int threads) {
+        CommonUtils.assertNotNull(delegate, "delegate cannot be null.");
+        CommonUtils.assertTrue(maxTicketsPerTarget > 0, "maxTicketsPerTarget must be greater than zero.");
+        CommonUtils.assertTrue(ticketLifetime > 0, "ticketLifetime must be greater than zero.");
+        CommonUtils.assertTrue(threads > 0, "threads must be greater than zero.");
+        this.delegate = delegate;
+        this.maxTicketsPerTarget = maxTicketsPerTarget;
+        this.ticketLifetime = ticketLifetime;
+        this.maxTargets = maxTargets;
+
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(threads, r -> {
+            final Thread thread = new Thread(r, "cas-proxy-ticket-prefetch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.setRemoveOnCancelPolicy(true);
+        this.executor = pool;
+        this.executor.scheduleWithFixedDelay(this::evictIdle, ticketLifetime, ticketLifetime, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public String getProxyTicketIdFor(final String proxyGrantingTicketId, final String targetService) {
+        CommonUtils.assertNotNull(proxyGrantingTicketId, "proxyGrantingTicketId cannot be null.");
+        CommonUtils.assertNotNull(targetService, "targetService cannot be null.");
+
+        final Target target = new Target(proxyGrantingTicketId, targetService);
+        TicketPool pool = this.pools.get(target);
+        if (pool == null) {
+            if (this.pools.size() >= this.maxTargets) {
+                logger.debug("Prefetch pool limit reached; retrieving proxy ticket for [{}] synchronously", targetService);
+                return this.delegate.getProxyTicketIdFor(proxyGrantingTicketId, targetService);
+            }
+            pool = this.pools.computeIfAbsent(target, t -> new TicketPool());
+        }
+
+        final String prefetched = pool.take();
+        if (prefetched != null) {
+            logger.debug("Using prefetched proxy ticket for [{}]", targetService);
+            scheduleRefill(target, pool);
+            return prefetched;
+        }
+        final String ticket = this.delegate.getProxyTicketIdFor(proxyGrantingTicketId, targetService);
+        if (ticket != null) {
+            scheduleRefill(target, pool);
+        }
+        return ticket;
+    }
+
+    /**
+     * Serves what it can from the pools and retrieves the remaining tickets through the delegate's batch method.
+     */
+    @Override
+    public Map<String, ProxyTicketResult> getProxyTicketIdsFor(final String proxyGrantingTicketId,
+                                                             final Collection<String> targetServices) {
+        CommonUtils.assertNotNull(proxyGrantingTicketId, "proxyGrantingTicketId cannot be null.");
+        CommonUtils.assertNotNull(targetServices, "targetServices cannot be null.");
+
+        final Map<String, ProxyTicketResult> results = new LinkedHashMap<String, ProxyTicketResult>();
+        final List<String> missing = new ArrayList<String>();
+        for (final String targetService : targetServices) {
+            final Target target = new Target(proxyGrantingTicketId, targetService);
+            TicketPool pool = this.pools.get(target);
+            if (pool == null && this.pools.size() < this.maxTargets) {
+                pool = this.pools.computeIfAbsent(target, t -> new TicketPool());
+            }
+            final String prefetched = pool == null ? null : pool.take();
+            if (prefetched != null) {
+                scheduleRefill(target, pool);
+            } else {
+                missing.add(targetService);
+            }
+            results.put(targetService, ProxyTicketResult.of(targetService, prefetched));
+        }
+
+        if (!missing.isEmpty()) {
+            final Map<String, ProxyTicketResult> retrieved = this.delegate.getProxyTicketIdsFor(proxyGrantingTicketId, missing);
+            for (final Map.Entry<String, ProxyTicketResult> entry : retrieved.entrySet()) {
+                results.put(entry.getKey(), entry.getValue());
+                if (entry.getValue().isSuccessful()) {
+                    final Target target = new Target(proxyGrantingTicketId, entry.getKey());
+                    final TicketPool pool = this.pools.get(target);
+                    if (pool != null) {
+                        scheduleRefill(target, pool);
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Stops the background acquisition of proxy tickets and discards all prefetched tickets.
+     */
+    public void destroy() {
+        this.executor.shutdownNow();
+        this.pools.clear();
+    }
+
+    private void scheduleRefill(final Target target, final TicketPool pool) {
+        if (pool.desired > pool.tickets.size() && pool.refilling.compareAndSet(false, true)) {
+            try {
+                this.executor.execute(() -> refill(target, pool));
+            } catch (final RuntimeException e) {
+                pool.refilling.set(false);
+                logger.debug("Unable to schedule proxy ticket prefetch: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void refill(final Target target, final TicketPool pool) {
+        try {
+            pool.discardExpired();
+            while (pool.tickets.size() < pool.desired && this.pools.get(target) == pool) {
+                final String ticket = this.delegate.getProxyTicketIdFor(target.proxyGrantingTicketId, target.targetService);
+                if (ticket == null) {
+                    logger.debug("No proxy ticket granted for [{}]; dropping prefetch pool", target.targetService);
+                    this.pools.remove(target, pool);
+                    return;
+                }
+                pool.tickets.offer(new PrefetchedTicket(ticket, System.currentTimeMillis()));
+            }
+        } catch (final RuntimeException e) {
+            logger.warn("Unable to prefetch proxy ticket for [{}]: {}", target.targetService, e.getMessage());
+        } finally {
+            pool.refilling.set(false);
+        }
+    }
+
+    private void evictIdle() {
+        final long now = System.currentTimeMillis();
+        for (final Map.Entry<Target, TicketPool> entry : this.pools.entrySet()) {
+            final TicketPool pool = entry.getValue();
+            pool.discardExpired();
+            if (now - pool.lastUsed > IDLE_LIFETIMES * this.ticketLifetime) {
+                this.pools.remove(entry.getKey(), pool);
+            }
+        }
+    }
+
+    private Object writeReplace() {
+        return this.delegate;
+    }
+
+    private final class TicketPool {
+
+        private final Queue<PrefetchedTicket> tickets = new ConcurrentLinkedQueue<PrefetchedTicket>();
+
+        private final AtomicBoolean refilling = new AtomicBoolean();
+
+        private final AtomicInteger requestsInWindow = new AtomicInteger();
+
+        private volatile long windowStart = System.currentTimeMillis();
+
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        /**
+         * Number of tickets to keep, derived from the demand seen in the previous lifetime window; 0 while a single
+         * request per window is all there is.
+         */
+        private volatile int desired;
+
+        String take() {
+            final long now = System.currentTimeMillis();
+            this.lastUsed = now;
+            final long elapsed = now - this.windowStart;
+            if (elapsed > ticketLifetime) {
+                final int previous = this.requestsInWindow.getAndSet(1);
+                this.windowStart = now;
+                this.desired = previous > 1 && elapsed <= 2 * ticketLifetime ? Math.min(maxTicketsPerTarget, previous) : 0;
+            } else {
+                final int requests = this.requestsInWindow.incrementAndGet();
+                if (requests > 1 && requests > this.desired) {
+                    this.desired = Math.min(maxTicketsPerTarget, requests);
+                }
+            }
+
+            PrefetchedTicket ticket;
+            while ((ticket = this.tickets.poll()) != null) {
+                if (!ticket.isExpired(now)) {
+                    return ticket.ticket;
+                }
+            }
+            return null;
+        }
+
+        void discardExpired() {
+            final long now = System.currentTimeMillis();
+            this.tickets.removeIf(ticket -> ticket.isExpired(now));
+        }
+    }
+
+    private final class PrefetchedTicket {
+
+        private final String ticket;
+
+        private final long acquired;
+
+        PrefetchedTicket(final String ticket, final long acquired) {
+            this.ticket = ticket;
+            this.acquired = acquired;
+        }
+
+        boolean isExpired(final long now) {
+            return now - this.acquired >= ticketLifetime;
+        }
+    }
+
+    private static final class Target {
+
+        private final String proxyGrantingTicketId;
+
+        private final String targetService;
+
+        Target(final String proxyGrantingTicketId, final String targetService) {
+            this.proxyGrantingTicketId = proxyGrantingTicketId;
+            this.targetService = targetService;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Target)) {
+                return false;
+            }
+            final Target other = (Target) o;
+            return this.proxyGrantingTicketId.equals(other.proxyGrantingTicketId)
+                   && this.targetService.equals(other.targetService);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.proxyGrantingTicketId, this.targetService);
+        }
+    }
+}
@@ -19,6 +19,9 @@
 package org.apereo.cas.client.proxy;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Interface to abstract the retrieval of a proxy ticket to make the
@@ -37,4 +40,28 @@ public interface ProxyRetriever extends Serializable {
      * @return the ProxyTicket Id if Granted, null otherwise.
      */
     String getProxyTicketIdFor(String proxyGrantingTicketId, String targetService);
+
+    /**
+     * Retrieves proxy tickets for several target services.  A failure for one target service does not affect the others;
+     * it is reported in that service's {@link ProxyTicketResult}.
+     * <p>
+     * This default implementation requests the tickets one after the other.
+     *
+     * @param proxyGrantingTicketId the ProxyGrantingTicketId
+     * @param targetServices        the services we want to proxy.
+     * @return the results keyed by target service, in iteration order of the given services.
+     */
+    default Map<String, ProxyTicketResult> getProxyTicketIdsFor(final String proxyGrantingTicketId,
+                                                              final Collection<String> targetServices) {
+        final Map<String, ProxyTicketResult> results = new LinkedHashMap<String, ProxyTicketResult>();
+        for (final String targetService : targetServices) {
+            try {
+                results.put(targetService, ProxyTicketResult.of(targetService,
+                    getProxyTicketIdFor(proxyGrantingTicketId, targetService)));
+            } catch (final RuntimeException e) {
+                results.put(targetService, ProxyTicketResult.failed(targetService, e));
+            }
+        }
+        return results;
+    }
 }
@@ -0,0 +1,110 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.proxy;
+
+/**
+ * Outcome of a proxy ticket request for a single target service, as returned by the batch retrieval methods.
+ *
+ * @since 4.0.0
+ */
+public final class ProxyTicketResult {
+
+    private final String targetService;
+
+    private final String proxyTicket;
+
+    private final String failureCode;
+
+    private final String failureMessage;
+
+    private final RuntimeException exception;
+
+    private ProxyTicketResult(final String targetService, final String proxyTicket, final String failureCode,
+                              final String failureMessage, final RuntimeException exception) {
+        this.targetService = targetService;
+        this.proxyTicket = proxyTicket;
+        this.failureCode = failureCode;
+        this.failureMessage = failureMessage;
+        this.exception = exception;
+    }
+
+    public static ProxyTicketResult of(final String targetService, final String proxyTicket) {
+        return new ProxyTicketResult(targetService, proxyTicket, null, null, null);
+    }
+
+    /**
+     * @param targetService the service the proxy ticket was requested for.
+     * @param failureCode the code of the CAS proxyFailure, such as INVALID_TICKET or UNAUTHORIZED_SERVICE.
+     * @param failureMessage the message of the CAS proxyFailure.
+     * @return the result of a request the CAS server refused.
+     */
+    public static ProxyTicketResult rejected(final String targetService, final String failureCode,
+                                             final String failureMessage) {
+        return new ProxyTicketResult(targetService, null, failureCode, failureMessage, null);
+    }
+
+    public static ProxyTicketResult failed(final String targetService, final RuntimeException exception) {
+        return new ProxyTicketResult(targetService, null, null, null, exception);
+    }
+
+    public String getTargetService() {
+        return this.targetService;
+    }
+
+    /**
+     * @return the proxy ticket, or null if none was granted.
+     */
+    public String getProxyTicket() {
+        return this.proxyTicket;
+    }
+
+    /**
+     * @return the code of the proxyFailure returned by the CAS server, or null if it did not refuse the request.
+     */
+    public String getFailureCode() {
+        return this.failureCode;
+    }
+
+    /**
+     * @return the message of the proxyFailure returned by the CAS server, or null if it did not refuse the request.
+     */
+    public String getFailureMessage() {
+        return this.failureMessage;
+    }
+
+    /**
+     * @return the exception raised while contacting the CAS server, or null if the request completed.
+     */
+    public RuntimeException getException() {
+        return this.exception;
+    }
+
+    /**
+     * @return true if a proxy ticket was granted.
+     */
+    public boolean isSuccessful() {
+        return this.proxyTicket != null;
+    }
+
+    @Override
+    public String toString() {
+        return "ProxyTicketResult[targetService=" + this.targetService + ", successful=" + isSuccessful()
+               + (this.failureCode != null ? ", failureCode=" + this.failureCode : "") + "]";
+    }
+}
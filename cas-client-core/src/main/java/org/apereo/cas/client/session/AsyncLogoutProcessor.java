@@ -0,0 +1,226 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Destroys the sessions of logged out tickets in the background so that logout requests from the CAS server can be
+ * acknowledged as soon as their SessionIndex has been extracted.
+ * <p>
+ * Session indexes are put on a bounded queue that is drained in batches by a fixed pool of worker threads.  When the
+ * queue stays full for longer than the offer timeout, the logout is performed on the calling thread instead, which
+ * slows down the sender rather than dropping logouts.
+ *
+ * @since 4.0.0
+ */
+public final class AsyncLogoutProcessor {
+
+    /**
+     * Default maximum number of session indexes a worker processes in one batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    /**
+     * Default time in milliseconds to wait for room in the queue before the caller performs the logout itself.
+     */
+    public static final long DEFAULT_OFFER_TIMEOUT = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final BlockingQueue<String> queue;
+
+    private final Consumer<String> logoutAction;
+
+    private final ExecutorService workers;
+
+    private final int batchSize;
+
+    private final long offerTimeout;
+
+    private final AtomicLong submitted = new AtomicLong();
+
+    private final AtomicLong processed = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final AtomicLong batches = new AtomicLong();
+
+    private final AtomicLong callerRuns = new AtomicLong();
+
+    /**
+     * @param logoutAction destroys the session mapped to a session index.
+     * @param queueCapacity the maximum number of pending session indexes.
+     * @param workerThreads the number of worker threads.
+     */
+    public AsyncLogoutProcessor(final Consumer<String> logoutAction, final int queueCapacity, final int workerThreads) {
+        this(logoutAction, queueCapacity, workerThreads, DEFAULT_BATCH_SIZE, DEFAULT_OFFER_TIMEOUT);
+    }
+
+    /**
+     * @param logoutAction destroys the session mapped to a session index.
+     * @param queueCapacity the maximum number of pending session indexes.
+     * @param workerThreads the number of worker threads.
+     * @param batchSize the maximum number of session indexes a worker processes in one batch.
+     * @param offerTimeout the time in milliseconds to wait for room in the queue.
+     */
+    public AsyncLogoutProcessor(final Consumer<String> logoutAction, final int queueCapacity, final int workerThreads,
+                                final int batchSize, final long offerTimeout) {
+        CommonUtils.assertNotNull(logoutAction, "logoutAction cannot be null.");
+        CommonUtils.assertTrue(queueCapacity > 0, "queueCapacity must be greater than zero.");
+        CommonUtils.assertTrue(workerThreads > 0, "workerThreads must be greater than zero.");
+        CommonUtils.assertTrue(batchSize > 0, "batchSize must be greater than zero.");
+        CommonUtils.assertTrue(offerTimeout >= 0, "offerTimeout cannot be negative.");
+        this.logoutAction = logoutAction;
+        this.queue = new ArrayBlockingQueue<String>(queueCapacity);
+        this.batchSize = batchSize;
+        this.offerTimeout = offerTimeout;
+
+        final AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads, r -> {
+            final Thread thread = new Thread(r, "cas-logout-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerThreads; i++) {
+            this.workers.execute(this::drain);
+        }
+    }
+
+    /**
+     * Schedules the session mapped to the given session index for destruction.  If the queue remains full, the session
+     * is destroyed on the calling thread.
+     *
+     * @param sessionIndex the session index from the logout request.
+     */
+    public void submit(final String sessionIndex) {
+        this.submitted.incrementAndGet();
+        try {
+            if (this.queue.offer(sessionIndex, this.offerTimeout, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.callerRuns.incrementAndGet();
+        logger.debug("Logout queue is full; destroying session for [{}] on the calling thread", sessionIndex);
+        process(sessionIndex);
+    }
+
+    private void drain() {
+        final List<String> batch = new ArrayList<String>(this.batchSize);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                batch.add(this.queue.take());
+                this.queue.drainTo(batch, this.batchSize - 1);
+                for (final String sessionIndex : batch) {
+                    process(sessionIndex);
+                }
+                this.batches.incrementAndGet();
+                batch.clear();
+            }
+        } catch (final InterruptedException e) {
+            // shutting down
+        }
+    }
+
+    private void process(final String sessionIndex) {
+        try {
+            this.logoutAction.accept(sessionIndex);
+            this.processed.incrementAndGet();
+        } catch (final RuntimeException e) {
+            this.failed.incrementAndGet();
+            logger.warn("Unable to destroy session for [{}]: {}", sessionIndex, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the number of session indexes waiting to be processed.
+     */
+    public int getQueueDepth() {
+        return this.queue.size();
+    }
+
+    /**
+     * @return the number of session indexes that can still be queued without blocking.
+     */
+    public int getRemainingCapacity() {
+        return this.queue.remainingCapacity();
+    }
+
+    /**
+     * @return the number of session indexes submitted.
+     */
+    public long getSubmittedCount() {
+        return this.submitted.get();
+    }
+
+    /**
+     * @return the number of session indexes processed successfully, including those processed by the caller.
+     */
+    public long getProcessedCount() {
+        return this.processed.get();
+    }
+
+    /**
+     * @return the number of session indexes whose processing failed.
+     */
+    public long getFailedCount() {
+        return this.failed.get();
+    }
+
+    /**
+     * @return the number of batches processed by the workers.
+     */
+    public long getBatchCount() {
+        return this.batches.get();
+    }
+
+    /**
+     * @return the number of session indexes processed on the calling thread because the queue was full.
+     */
+    public long getCallerRunsCount() {
+        return this.callerRuns.get();
+    }
+
+    /**
+     * Stops the workers.  Session indexes still queued are processed on the calling thread first.
+     */
+    public void destroy() {
+        this.workers.shutdownNow();
+        String sessionIndex;
+        while ((sessionIndex = this.queue.poll()) != null) {
+            process(sessionIndex);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * SessionMappingStorage decorator that keeps a counting Bloom filter of the tickets recorded on this node, so that
+ * logout requests for tickets this node never saw are answered without consulting the delegate.
+ * <p>
+ * The filter only knows the tickets recorded on this node, so it can only guard a {@link SessionMappingStorage#isLocal()
+ * local} storage.  In a cluster, pass it as the local storage of the clustered storage: the filter then skips the local
+ * lookup only, and logouts for sessions held by other nodes are still resolved through the cluster.
+ * <p>
+ * The filter never yields false negatives.  Its false positive rate is configurable and holds as long as the number
+ * of mapped tickets stays below the expected number of insertions.  Since counters saturate and the number of tickets
+ * may grow, the filter is periodically rebuilt from the tickets currently mapped, sized for at least twice their
+ * number.
+ *
+ * @since 4.0.0
+ */
+public final class BloomFilterSessionMappingStorage implements SessionMappingStorage {
+
+    /**
+     * Default expected number of tickets mapped at the same time.
+     */
+    public static final int DEFAULT_EXPECTED_INSERTIONS = 10000;
+
+    /**
+     * Default false positive rate.
+     */
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    /**
+     * Default interval in milliseconds between rebuilds of the filter.
+     */
+    public static final long DEFAULT_REBUILD_INTERVAL = 10 * 60 * 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final SessionMappingStorage delegate;
+
+    private final int expectedInsertions;
+
+    private final double falsePositiveRate;
+
+    /**
+     * Maps the Session ID to the key from the CAS Server, which is needed to remove tickets from and rebuild the filter.
+     */
+    private final ConcurrentMap<String, String> idToSessionKeyMapping = new ConcurrentHashMap<String, String>();
+
+    /**
+     * Updates of the filter share the read lock; a rebuild takes the write lock.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final ScheduledExecutorService executor;
+
+    private final AtomicLong skippedLookups = new AtomicLong();
+
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    private volatile CountingBloomFilter filter;
+
+    public BloomFilterSessionMappingStorage(final SessionMappingStorage delegate) {
+        this(delegate, DEFAULT_EXPECTED_INSERTIONS, DEFAULT_FALSE_POSITIVE_RATE, DEFAULT_REBUILD_INTERVAL);
+    }
+
+    /**
+     * @param delegate the storage holding the mappings.
+     * @param expectedInsertions the expected number of tickets mapped at the same time.
+     * @param falsePositiveRate the rate of logouts for unknown tickets that are passed to the delegate, between 0 and 1.
+     * @param rebuildInterval the interval in milliseconds between rebuilds of the filter, or 0 to never rebuild it
+     *                        automatically.
+     */
+    public BloomFilterSessionMappingStorage(final SessionMappingStorage delegate, final int expectedInsertions,
+                                            final double falsePositiveRate, final long rebuildInterval) {
+        CommonUtils.assertNotNull(delegate, "delegate cannot be null.");
+        CommonUtils.assertTrue(delegate.isLocal(),
+            "delegate must be a local storage; use the filter as the local storage of a clustered one instead.");
+        CommonUtils.assertTrue(expectedInsertions > 0, "expectedInsertions must be greater than zero.");
+        CommonUtils.assertTrue(falsePositiveRate > 0 && falsePositiveRate < 1, "falsePositiveRate must be between 0 and 1.");
+        CommonUtils.assertTrue(rebuildInterval >= 0, "rebuildInterval cannot be negative.");
+        this.delegate = delegate;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new CountingBloomFilter(expectedInsertions, falsePositiveRate);
+
+        if (rebuildInterval > 0) {
+            this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread thread = new Thread(r, "cas-session-mapping-filter-rebuild");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor.scheduleWithFixedDelay(this::rebuild, rebuildInterval, rebuildInterval, TimeUnit.MILLISECONDS);
+        } else {
+            this.executor = null;
+        }
+    }
+
+    @Override
+    public HttpSession removeSessionByMappingId(final String mappingId) {
+        if (!this.filter.mightContain(mappingId)) {
+            this.skippedLookups.incrementAndGet();
+            return null;
+        }
+
+        final HttpSession session = this.delegate.removeSessionByMappingId(mappingId);
+        if (session == null) {
+            this.falsePositives.incrementAndGet();
+            return null;
+        }
+        unmap(session.getId(), mappingId);
+        return session;
+    }
+
+    @Override
+    public void removeBySessionById(final String sessionId) {
+        this.delegate.removeBySessionById(sessionId);
+        unmap(sessionId, null);
+    }
+
+    @Override
+    public void addSessionById(final String mappingId, final HttpSession session) {
+        // the ticket enters the filter before the delegate so that a concurrent logout never misses it
+        this.lock.readLock().lock();
+        try {
+            this.filter.add(mappingId);
+            final String previous = this.idToSessionKeyMapping.put(session.getId(), mappingId);
+            if (previous != null) {
+                this.filter.remove(previous);
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        this.delegate.addSessionById(mappingId, session);
+    }
+
+    /**
+     * Replaces the filter with one built from the tickets currently mapped.  Updates are blocked while the filter is
+     * rebuilt.
+     */
+    public void rebuild() {
+        this.lock.writeLock().lock();
+        try {
+            final int size = this.idToSessionKeyMapping.size();
+            final CountingBloomFilter rebuilt = new CountingBloomFilter(
+                (int) Math.min(Integer.MAX_VALUE, Math.max(this.expectedInsertions, 2L * size)), this.falsePositiveRate);
+            for (final String mappingId : this.idToSessionKeyMapping.values()) {
+                rebuilt.add(mappingId);
+            }
+            this.filter = rebuilt;
+            logger.debug("Rebuilt session mapping filter for {} tickets; {} lookups skipped, {} false positives so far",
+                size, this.skippedLookups.get(), this.falsePositives.get());
+        } catch (final RuntimeException e) {
+            logger.warn("Error rebuilding session mapping filter: {}", e.getMessage(), e);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of logouts answered without consulting the delegate.
+     */
+    public long getSkippedLookups() {
+        return this.skippedLookups.get();
+    }
+
+    /**
+     * @return the number of logouts passed to the delegate that did not find a session.
+     */
+    public long getFalsePositives() {
+        return this.falsePositives.get();
+    }
+
+    /**
+     * Stops the periodic rebuild and destroys the delegate.
+     */
+    @Override
+    public void destroy() {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+        }
+        this.delegate.destroy();
+    }
+
+    /**
+     * Removes the mapping of the session and its ticket from the filter.  Both happen under the same lock so that a
+     * rebuild never sees one without the other.
+     *
+     * @param sessionId the id of the session.
+     * @param mappingId the ticket expected to be mapped to the session, or null to remove any ticket.
+     */
+    private void unmap(final String sessionId, final String mappingId) {
+        this.lock.readLock().lock();
+        try {
+            if (mappingId == null) {
+                final String removed = this.idToSessionKeyMapping.remove(sessionId);
+                if (removed != null) {
+                    this.filter.remove(removed);
+                }
+            } else if (this.idToSessionKeyMapping.remove(sessionId, mappingId)) {
+                this.filter.remove(mappingId);
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counting Bloom filter with 4-bit counters packed into longs.  Counters that reach their maximum stick there until
+     * the filter is rebuilt, so that removals never cause false negatives.
+     */
+    static final class CountingBloomFilter {
+
+        private static final int COUNTERS_PER_WORD = 16;
+
+        private static final long MAX_COUNT = 15;
+
+        private final AtomicLongArray counters;
+
+        private final int size;
+
+        private final int hashFunctions;
+
+        CountingBloomFilter(final int expectedInsertions, final double falsePositiveRate) {
+            final double ln2 = Math.log(2);
+            final long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+            this.size = (int) Math.max(COUNTERS_PER_WORD, Math.min(bits, Integer.MAX_VALUE - COUNTERS_PER_WORD));
+            this.hashFunctions = Math.max(1, (int) Math.round((double) this.size / expectedInsertions * ln2));
+            this.counters = new AtomicLongArray((this.size + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+        }
+
+        void add(final String value) {
+            final long hash = hash(value);
+            for (int i = 0; i < this.hashFunctions; i++) {
+                update(index(hash, i), 1);
+            }
+        }
+
+        void remove(final String value) {
+            final long hash = hash(value);
+            for (int i = 0; i < this.hashFunctions; i++) {
+                update(index(hash, i), -1);
+            }
+        }
+
+        boolean mightContain(final String value) {
+            final long hash = hash(value);
+            for (int i = 0; i < this.hashFunctions; i++) {
+                final int index = index(hash, i);
+                if (count(this.counters.get(index / COUNTERS_PER_WORD), index) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int getHashFunctions() {
+            return this.hashFunctions;
+        }
+
+        private void update(final int index, final int delta) {
+            final int word = index / COUNTERS_PER_WORD;
+            final int shift = (index % COUNTERS_PER_WORD) * 4;
+            while (true) {
+                final long current = this.counters.get(word);
+                final long count = (current >>> shift) & MAX_COUNT;
+                if (count == MAX_COUNT || (count == 0 && delta < 0)) {
+                    return;
+                }
+                final long updated = (current & ~(MAX_COUNT << shift)) | ((count + delta) << shift);
+                if (this.counters.compareAndSet(word, current, updated)) {
+                    return;
+                }
+            }
+        }
+
+        private static long count(final long word, final int index) {
+            return (word >>> ((index % COUNTERS_PER_WORD) * 4)) & MAX_COUNT;
+        }
+
+        private int index(final long hash, final int i) {
+            final int combined = (int) hash + i * (int) (hash >>> 32);
+            return (combined & Integer.MAX_VALUE) % this.size;
+        }
+
+        /**
+         * 64-bit FNV-1a hash of the characters, with a final avalanche so both halves can be used for double hashing.
+         */
+        private static long hash(final String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
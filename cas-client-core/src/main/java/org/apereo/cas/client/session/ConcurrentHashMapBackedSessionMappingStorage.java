@@ -0,0 +1,143 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * SessionMappingStorage backed by two ConcurrentHashMaps.  Unlike {@link HashMapBackedSessionMappingStorage}, logins,
+ * logouts and session destruction do not serialize on a single monitor.
+ * <p>
+ * Both mappings are kept consistent by changing a ticket's entry only from within an atomic <code>compute</code>
+ * operation on the ID of the session it belongs to, which serializes concurrent updates to the same session only.
+ * Mapping entries remember the session ID they were recorded with, so a stale removal never deletes a newer mapping.
+ *
+ * @since 4.0.0
+ */
+public final class ConcurrentHashMapBackedSessionMappingStorage implements SessionMappingStorage {
+
+    /**
+     * Maps the ID from the CAS server to the Session.
+     */
+    private final ConcurrentMap<String, SessionEntry> managedSessions = new ConcurrentHashMap<String, SessionEntry>();
+
+    /**
+     * Maps the Session ID to the key from the CAS Server.
+     */
+    private final ConcurrentMap<String, String> idToSessionKeyMapping = new ConcurrentHashMap<String, String>();
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Override
+    public HttpSession removeSessionByMappingId(final String mappingId) {
+        final boolean[] removed = new boolean[1];
+
+        while (true) {
+            final SessionEntry entry = this.managedSessions.get(mappingId);
+
+            if (entry == null) {
+                return null;
+            }
+
+            this.idToSessionKeyMapping.computeIfPresent(entry.sessionId, (id, key) -> {
+                removed[0] = this.managedSessions.remove(mappingId, entry);
+                return removed[0] && key.equals(mappingId) ? null : key;
+            });
+
+            if (removed[0] || this.managedSessions.remove(mappingId, entry)) {
+                return entry.session;
+            }
+        }
+    }
+
+    @Override
+    public void removeBySessionById(final String sessionId) {
+        logger.debug("Attempting to remove Session=[{}]", sessionId);
+
+        final boolean[] found = new boolean[1];
+
+        this.idToSessionKeyMapping.computeIfPresent(sessionId, (id, key) -> {
+            found[0] = true;
+            this.managedSessions.computeIfPresent(key, (k, entry) -> entry.sessionId.equals(id) ? null : entry);
+            return null;
+        });
+
+        if (found[0]) {
+            logger.debug("Found mapping for session.  Session Removed.");
+        } else {
+            logger.debug("No mapping for session found.  Ignoring.");
+        }
+    }
+
+    @Override
+    public void addSessionById(final String mappingId, final HttpSession session) {
+        final SessionEntry entry = new SessionEntry(session);
+        final SessionEntry[] replaced = new SessionEntry[1];
+
+        this.idToSessionKeyMapping.compute(entry.sessionId, (id, previousKey) -> {
+            if (previousKey != null && !previousKey.equals(mappingId)) {
+                this.managedSessions.computeIfPresent(previousKey, (k, e) -> e.sessionId.equals(id) ? null : e);
+            }
+            replaced[0] = this.managedSessions.put(mappingId, entry);
+            return mappingId;
+        });
+
+        // the ticket was previously mapped to another session; that session no longer owns it
+        if (replaced[0] != null && !replaced[0].sessionId.equals(entry.sessionId)) {
+            this.idToSessionKeyMapping.computeIfPresent(replaced[0].sessionId,
+                (id, key) -> key.equals(mappingId) && !isMappedTo(mappingId, id) ? null : key);
+        }
+    }
+
+    private boolean isMappedTo(final String mappingId, final String sessionId) {
+        final SessionEntry entry = this.managedSessions.get(mappingId);
+        return entry != null && entry.sessionId.equals(sessionId);
+    }
+
+    /**
+     * @return the number of tickets currently mapped to a session.
+     */
+    public int getMappingCount() {
+        return this.managedSessions.size();
+    }
+
+    /**
+     * @return the number of sessions currently mapped to a ticket.
+     */
+    public int getSessionCount() {
+        return this.idToSessionKeyMapping.size();
+    }
+
+    private static final class SessionEntry {
+
+        private final String sessionId;
+
+        private final HttpSession session;
+
+        SessionEntry(final HttpSession session) {
+            this.sessionId = session.getId();
+            this.session = session;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decompresses base64 encoded, deflated logout messages as they are read.
+ * <p>
+ * Messages are never buffered in full; they are decoded and inflated on demand into a {@link Reader} that can be handed
+ * straight to the XML parser.  The number of bytes a message may inflate to is capped so that a small, highly
+ * compressed request cannot exhaust the heap.  {@link Inflater} instances, with their native buffers, are pooled and
+ * returned to the pool when the reader is closed.
+ *
+ * @since 4.0.0
+ */
+public final class LogoutMessageInflater {
+
+    /**
+     * Default maximum size in bytes of a decompressed logout message.
+     */
+    public static final int DEFAULT_MAX_MESSAGE_SIZE = 64 * 1024;
+
+    /**
+     * Default maximum number of idle Inflaters kept for reuse.
+     */
+    public static final int DEFAULT_POOL_SIZE = 16;
+
+    private static final int BUFFER_SIZE = 512;
+
+    private final BlockingQueue<Inflater> pool;
+
+    private final int maxMessageSize;
+
+    public LogoutMessageInflater() {
+        this(DEFAULT_MAX_MESSAGE_SIZE, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * @param maxMessageSize the maximum size in bytes of a decompressed message.
+     * @param poolSize the maximum number of idle Inflaters kept for reuse.
+     */
+    public LogoutMessageInflater(final int maxMessageSize, final int poolSize) {
+        CommonUtils.assertTrue(maxMessageSize > 0, "maxMessageSize must be greater than zero.");
+        CommonUtils.assertTrue(poolSize > 0, "poolSize must be greater than zero.");
+        this.maxMessageSize = maxMessageSize;
+        this.pool = new ArrayBlockingQueue<Inflater>(poolSize);
+    }
+
+    /**
+     * Opens a reader over the decompressed content of a logout message.  Reading fails with an {@link IOException} once
+     * the decompressed content exceeds the maximum message size.  The reader must be closed to return its Inflater to
+     * the pool.
+     *
+     * @param encodedMessage the base64 encoded, deflated logout message.
+     * @return the reader providing the decompressed message.
+     */
+    public Reader newReader(final String encodedMessage) {
+        final InputStream compressed = Base64.getDecoder()
+            .wrap(new ByteArrayInputStream(encodedMessage.getBytes(StandardCharsets.ISO_8859_1)));
+        return new InputStreamReader(new BoundedInflaterInputStream(compressed, borrow()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the number of idle Inflaters in the pool.
+     */
+    int getIdleCount() {
+        return this.pool.size();
+    }
+
+    private Inflater borrow() {
+        final Inflater inflater = this.pool.poll();
+        return inflater != null ? inflater : new Inflater();
+    }
+
+    private void release(final Inflater inflater) {
+        inflater.reset();
+        if (!this.pool.offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    private final class BoundedInflaterInputStream extends InflaterInputStream {
+
+        private long total;
+
+        private boolean released;
+
+        BoundedInflaterInputStream(final InputStream in, final Inflater inflater) {
+            super(in, inflater, BUFFER_SIZE);
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                this.total += read;
+                if (this.total > maxMessageSize) {
+                    throw new IOException("Logout message exceeds the maximum size of " + maxMessageSize + " bytes.");
+                }
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (!this.released) {
+                    this.released = true;
+                    release(this.inf);
+                }
+            }
+        }
+    }
+}
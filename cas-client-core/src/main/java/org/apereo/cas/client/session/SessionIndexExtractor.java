@@ -0,0 +1,164 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * Extracts the SessionIndex from a SAML logout request with a streaming StAX parser.
+ * <p>
+ * Parsing stops at the first <code>SessionIndex</code> element, in any namespace; the remainder of the document is
+ * never read.  Documents containing a DTD or entity references are rejected, and the number of parse events as well as
+ * the length of the SessionIndex are bounded.  Instances are thread-safe.
+ *
+ * @since 4.0.0
+ */
+public final class SessionIndexExtractor {
+
+    /**
+     * Default maximum number of parse events before giving up on finding the SessionIndex.
+     */
+    public static final int DEFAULT_MAX_EVENTS = 256;
+
+    /**
+     * Default maximum length of a SessionIndex.
+     */
+    public static final int DEFAULT_MAX_SESSION_INDEX_LENGTH = 1024;
+
+    private static final String SESSION_INDEX = "SessionIndex";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final XMLInputFactory factory;
+
+    private final int maxEvents;
+
+    private final int maxSessionIndexLength;
+
+    public SessionIndexExtractor() {
+        this(DEFAULT_MAX_EVENTS, DEFAULT_MAX_SESSION_INDEX_LENGTH);
+    }
+
+    /**
+     * @param maxEvents the maximum number of parse events before giving up on finding the SessionIndex.
+     * @param maxSessionIndexLength the maximum length of a SessionIndex.
+     */
+    public SessionIndexExtractor(final int maxEvents, final int maxSessionIndexLength) {
+        CommonUtils.assertTrue(maxEvents > 0, "maxEvents must be greater than zero.");
+        CommonUtils.assertTrue(maxSessionIndexLength > 0, "maxSessionIndexLength must be greater than zero.");
+        this.maxEvents = maxEvents;
+        this.maxSessionIndexLength = maxSessionIndexLength;
+        this.factory = XMLInputFactory.newFactory();
+        this.factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        this.factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        this.factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, Boolean.FALSE);
+        this.factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        this.factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        if (this.factory.isPropertySupported(XMLConstants.ACCESS_EXTERNAL_DTD)) {
+            this.factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        }
+    }
+
+    /**
+     * @param logoutMessage the logout request.
+     * @return the SessionIndex, or null if there is none or the document is rejected.
+     */
+    public String extract(final String logoutMessage) {
+        return extract(new StringReader(logoutMessage));
+    }
+
+    /**
+     * Reads the logout request up to the end of the first SessionIndex element.  The reader is not closed.
+     *
+     * @param logoutMessage the reader providing the logout request.
+     * @return the SessionIndex, or null if there is none or the document is rejected.
+     */
+    public String extract(final Reader logoutMessage) {
+        XMLStreamReader reader = null;
+        try {
+            reader = this.factory.createXMLStreamReader(logoutMessage);
+            for (int events = 0; events < this.maxEvents && reader.hasNext(); events++) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.DTD:
+                    case XMLStreamConstants.ENTITY_REFERENCE:
+                    case XMLStreamConstants.ENTITY_DECLARATION:
+                        logger.warn("Rejecting logout request containing a DTD or entity reference");
+                        return null;
+                    case XMLStreamConstants.START_ELEMENT:
+                        if (SESSION_INDEX.equals(reader.getLocalName())) {
+                            return readSessionIndex(reader);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            logger.debug("No SessionIndex found in logout request");
+            return null;
+        } catch (final XMLStreamException e) {
+            logger.error("Unable to parse logout request: {}", e.getMessage(), e);
+            return null;
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (final XMLStreamException e) {
+                    // nothing to do
+                }
+            }
+        }
+    }
+
+    private String readSessionIndex(final XMLStreamReader reader) throws XMLStreamException {
+        final StringBuilder builder = new StringBuilder();
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (builder.length() + reader.getTextLength() > this.maxSessionIndexLength) {
+                        logger.warn("Rejecting logout request with a SessionIndex longer than {} characters",
+                            this.maxSessionIndexLength);
+                        return null;
+                    }
+                    builder.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    return builder.toString();
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    logger.warn("Rejecting logout request containing a DTD or entity reference");
+                    return null;
+                default:
+                    break;
+            }
+        }
+        return null;
+    }
+}
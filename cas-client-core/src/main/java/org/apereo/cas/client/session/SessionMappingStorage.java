@@ -51,4 +51,22 @@ public interface SessionMappingStorage {
      */
     void addSessionById(String mappingId, HttpSession session);
 
+    /**
+     * Whether all mappings are recorded on this node.  Storages that resolve logouts for sessions held elsewhere, i.e.
+     * through a cluster wide index, return false.
+     *
+     * @return true if a logout for a ticket not recorded on this node can never find a session.
+     */
+    default boolean isLocal() {
+        return true;
+    }
+
+    /**
+     * Releases the resources of the storage, such as background threads or connections, and those of the storages it
+     * delegates to.  Called by {@link SingleSignOutHandler#destroy()}; does nothing by default.
+     */
+    default void destroy() {
+        // nothing to release
+    }
+
 }
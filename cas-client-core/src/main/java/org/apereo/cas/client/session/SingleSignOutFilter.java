@@ -49,6 +49,17 @@ public final class SingleSignOutFilter extends AbstractConfigurationFilter {
         return HANDLER;
     }
 
+    /**
+     * @return the index of sessions by principal, or null if it is not enabled.
+     */
+    public static PrincipalSessionIndex getPrincipalSessionIndex() {
+        return HANDLER.getPrincipalSessionIndex();
+    }
+
+    public void setPrincipalSessionIndex(final PrincipalSessionIndex principalSessionIndex) {
+        HANDLER.setPrincipalSessionIndex(principalSessionIndex);
+    }
+
     @Override
     public void init(final FilterConfig filterConfig) throws ServletException {
         super.init(filterConfig);
@@ -59,15 +70,30 @@ public final class SingleSignOutFilter extends AbstractConfigurationFilter {
             setLogoutCallbackPath(getString(ConfigurationKeys.LOGOUT_CALLBACK_PATH));
             HANDLER.setArtifactParameterOverPost(getBoolean(ConfigurationKeys.ARTIFACT_PARAMETER_OVER_POST));
             HANDLER.setEagerlyCreateSessions(getBoolean(ConfigurationKeys.EAGERLY_CREATE_SESSIONS));
+            HANDLER.setLogoutQueueCapacity(getInt(ConfigurationKeys.LOGOUT_QUEUE_CAPACITY));
+            HANDLER.setLogoutWorkerThreads(getInt(ConfigurationKeys.LOGOUT_WORKER_THREADS));
+            HANDLER.setBulkLogoutPath(getString(ConfigurationKeys.BULK_LOGOUT_PATH));
+            HANDLER.setBulkLogoutToken(getString(ConfigurationKeys.BULK_LOGOUT_TOKEN));
+            if (getBoolean(ConfigurationKeys.PRINCIPAL_SESSION_INDEX) && HANDLER.getPrincipalSessionIndex() == null) {
+                HANDLER.setPrincipalSessionIndex(PrincipalSessionIndex.of(filterConfig.getServletContext()));
+            }
         }
         HANDLER.init();
         handlerInitialized.set(true);
     }
 
+    public String getArtifactParameterName() {
+        return HANDLER.getArtifactParameterName();
+    }
+
     public void setArtifactParameterName(final String name) {
         HANDLER.setArtifactParameterName(name);
     }
 
+    public String getLogoutParameterName() {
+        return HANDLER.getLogoutParameterName();
+    }
+
     public void setLogoutParameterName(final String name) {
         HANDLER.setLogoutParameterName(name);
     }
@@ -105,6 +131,6 @@ public final class SingleSignOutFilter extends AbstractConfigurationFilter {
 
     @Override
     public void destroy() {
-        // nothing to do
+        HANDLER.destroy();
     }
 }
@@ -20,8 +20,8 @@ package org.apereo.cas.client.session;
 
 import org.apereo.cas.client.Protocol;
 import org.apereo.cas.client.configuration.ConfigurationKeys;
+import org.apereo.cas.client.engine.CasClient;
 import org.apereo.cas.client.util.CommonUtils;
-import org.apereo.cas.client.util.XmlUtils;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -30,11 +30,13 @@ import jakarta.servlet.http.HttpSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Arrays;
-import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
-import java.util.zip.Inflater;
 
 /**
  * Performs CAS single sign-out operations in an API-agnostic fashion.
@@ -46,15 +48,13 @@ import java.util.zip.Inflater;
  */
 public final class SingleSignOutHandler {
 
-    private final static int DECOMPRESSION_FACTOR = 10;
-
     /** Logger instance */
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     private final LogoutStrategy logoutStrategy = isServlet30() ? new Servlet30LogoutStrategy() : new Servlet25LogoutStrategy();
 
     /** Mapping of token IDs and session IDs to HTTP sessions */
-    private SessionMappingStorage sessionMappingStorage = new HashMapBackedSessionMappingStorage();
+    private SessionMappingStorage sessionMappingStorage = new ConcurrentHashMapBackedSessionMappingStorage();
 
     /** The name of the artifact parameter.  This is used to capture the session identifier. */
     private String artifactParameterName = Protocol.CAS2.getArtifactParameterName();
@@ -72,6 +72,22 @@ public final class SingleSignOutHandler {
 
     private boolean eagerlyCreateSessions = true;
 
+    /** Capacity of the asynchronous logout queue; 0 destroys sessions while handling the logout request */
+    private int logoutQueueCapacity = ConfigurationKeys.LOGOUT_QUEUE_CAPACITY.getDefaultValue();
+
+    private int logoutWorkerThreads = ConfigurationKeys.LOGOUT_WORKER_THREADS.getDefaultValue();
+
+    /** The path accepting a bulk list of session indexes to log out, if enabled */
+    private String bulkLogoutPath;
+
+    /** The bearer token required for bulk logout requests */
+    private String bulkLogoutToken;
+
+    private volatile AsyncLogoutProcessor asyncLogoutProcessor;
+
+    /** Index of sessions by principal name, if enabled */
+    private volatile PrincipalSessionIndex principalSessionIndex;
+
     private List<String> safeParameters;
 
     private static boolean isServlet30() {
@@ -94,6 +110,10 @@ public final class SingleSignOutHandler {
         this.sessionMappingStorage = storage;
     }
 
+    public String getArtifactParameterName() {
+        return this.artifactParameterName;
+    }
+
     /**
      * @param name Name of the authentication token parameter.
      */
@@ -101,6 +121,10 @@ public final class SingleSignOutHandler {
         this.artifactParameterName = name;
     }
 
+    public String getLogoutParameterName() {
+        return this.logoutParameterName;
+    }
+
     /**
      * @param name Name of parameter containing CAS logout request message for SLO.
      */
@@ -126,6 +150,54 @@ public final class SingleSignOutHandler {
         this.eagerlyCreateSessions = eagerlyCreateSessions;
     }
 
+    /**
+     * @param logoutQueueCapacity The number of logouts that can be queued for asynchronous processing, or 0 to destroy
+     *                            sessions while handling the logout request.
+     */
+    public void setLogoutQueueCapacity(final int logoutQueueCapacity) {
+        this.logoutQueueCapacity = logoutQueueCapacity;
+    }
+
+    /**
+     * @param logoutWorkerThreads The number of threads destroying sessions when logouts are processed asynchronously.
+     */
+    public void setLogoutWorkerThreads(final int logoutWorkerThreads) {
+        this.logoutWorkerThreads = logoutWorkerThreads;
+    }
+
+    /**
+     * @param bulkLogoutPath The path accepting a POSTed list of session indexes, one per line, to log out.
+     */
+    public void setBulkLogoutPath(final String bulkLogoutPath) {
+        this.bulkLogoutPath = bulkLogoutPath;
+    }
+
+    /**
+     * @param bulkLogoutToken The bearer token bulk logout requests must present.
+     */
+    public void setBulkLogoutToken(final String bulkLogoutToken) {
+        this.bulkLogoutToken = bulkLogoutToken;
+    }
+
+    public PrincipalSessionIndex getPrincipalSessionIndex() {
+        return this.principalSessionIndex;
+    }
+
+    /**
+     * @param principalSessionIndex The index of sessions by principal name, or null to disable it.  Sessions are
+     *                              recorded in it by the ticket validation filter, which runs after this handler.
+     */
+    public void setPrincipalSessionIndex(final PrincipalSessionIndex principalSessionIndex) {
+        this.principalSessionIndex = principalSessionIndex;
+    }
+
+    /**
+     * @return the processor destroying sessions asynchronously, or null if logouts are processed synchronously.
+     */
+    public AsyncLogoutProcessor getAsyncLogoutProcessor() {
+        return this.asyncLogoutProcessor;
+    }
+
     /**
      * Initializes the component for use.
      */
@@ -135,6 +207,9 @@ public final class SingleSignOutHandler {
             CommonUtils.assertNotNull(this.logoutParameterName, "logoutParameterName cannot be null.");
             CommonUtils.assertNotNull(this.sessionMappingStorage, "sessionMappingStorage cannot be null.");
             CommonUtils.assertNotNull(this.relayStateParameterName, "relayStateParameterName cannot be null.");
+            CommonUtils.assertTrue(this.logoutQueueCapacity >= 0, "logoutQueueCapacity cannot be negative.");
+            CommonUtils.assertTrue(CommonUtils.isBlank(this.bulkLogoutPath) || CommonUtils.isNotBlank(this.bulkLogoutToken),
+                "bulkLogoutToken is required when bulkLogoutPath is set.");
 
             if (this.artifactParameterOverPost) {
                 this.safeParameters = Arrays.asList(this.logoutParameterName, this.artifactParameterName);
@@ -142,6 +217,10 @@ public final class SingleSignOutHandler {
                 this.safeParameters = Collections.singletonList(this.logoutParameterName);
             }
         }
+        if (this.logoutQueueCapacity > 0 && this.asyncLogoutProcessor == null) {
+            this.asyncLogoutProcessor = new AsyncLogoutProcessor(this::destroySessionByToken, this.logoutQueueCapacity,
+                this.logoutWorkerThreads);
+        }
     }
 
     /**
@@ -158,6 +237,12 @@ public final class SingleSignOutHandler {
             return true;
         }
 
+        if (isBulkLogoutRequest(request)) {
+            logger.trace("Received a bulk logout request");
+            destroySessions(request, response);
+            return false;
+        }
+
         if (isLogoutRequest(request)) {
             logger.trace("Received a logout request");
             destroySession(request);
@@ -228,6 +313,11 @@ public final class SingleSignOutHandler {
         return false;
     }
 
+    private boolean isBulkLogoutRequest(final HttpServletRequest request) {
+        return this.bulkLogoutPath != null && "POST".equalsIgnoreCase(request.getMethod())
+               && this.bulkLogoutPath.equals(getPath(request));
+    }
+
     private boolean pathEligibleForLogout(final HttpServletRequest request) {
         return logoutCallbackPath == null || logoutCallbackPath.equals(getPath(request));
     }
@@ -262,33 +352,22 @@ public final class SingleSignOutHandler {
     }
 
     /**
-     * Uncompress a logout message (base64 + deflate).
+     * Destroys all HTTP sessions authenticated as the given principal.  Requires the principal session index to be
+     * enabled.
      *
-     * @param originalMessage the original logout message.
-     * @return the uncompressed logout message.
+     * @param principal the principal name.
+     * @return the IDs of the destroyed sessions.
      */
-    private String uncompressLogoutMessage(final String originalMessage) {
-        final byte[] binaryMessage = Base64.getDecoder().decode(originalMessage);
+    public List<String> destroySessionsOfPrincipal(final String principal) {
+        final PrincipalSessionIndex principalSessionIndex = this.principalSessionIndex;
+        CommonUtils.assertNotNull(principalSessionIndex, "principalSessionIndex is not enabled.");
 
-        Inflater decompresser = null;
-        try {
-            // decompress the bytes
-            decompresser = new Inflater();
-            decompresser.setInput(binaryMessage);
-            final byte[] result = new byte[binaryMessage.length * DECOMPRESSION_FACTOR];
-
-            final int resultLength = decompresser.inflate(result);
-
-            // decode the bytes into a String
-            return new String(result, 0, resultLength, "UTF-8");
-        } catch (final Exception e) {
-            logger.error("Unable to decompress logout message", e);
-            throw new RuntimeException(e);
-        } finally {
-            if (decompresser != null) {
-                decompresser.end();
-            }
+        final List<String> sessionIds = principalSessionIndex.invalidateSessions(principal);
+        for (final String sessionId : sessionIds) {
+            this.sessionMappingStorage.removeBySessionById(sessionId);
         }
+        logger.debug("Destroyed {} sessions of principal [{}]", sessionIds.size(), principal);
+        return sessionIds;
     }
 
     /**
@@ -297,33 +376,106 @@ public final class SingleSignOutHandler {
      * @param request HTTP request containing a CAS logout message.
      */
     private void destroySession(final HttpServletRequest request) {
-        String logoutMessage = CommonUtils.safeGetParameter(request, this.logoutParameterName, this.safeParameters);
+        final String logoutMessage = CommonUtils.safeGetParameter(request, this.logoutParameterName, this.safeParameters);
         if (CommonUtils.isBlank(logoutMessage)) {
             logger.error("Could not locate logout message of the request from {}", this.logoutParameterName);
             return;
         }
 
-        if (!logoutMessage.contains("SessionIndex")) {
-            logoutMessage = uncompressLogoutMessage(logoutMessage);
+        final String token = CasClient.extractSessionIndex(logoutMessage);
+        if (CommonUtils.isNotBlank(token)) {
+            if (this.asyncLogoutProcessor != null) {
+                this.asyncLogoutProcessor.submit(token);
+            } else if (destroySessionByToken(token)) {
+                this.logoutStrategy.logout(request);
+            }
         }
+    }
 
-        logger.trace("Logout request:\n{}", logoutMessage);
-        final String token = XmlUtils.getTextForElement(logoutMessage, "SessionIndex");
-        if (CommonUtils.isNotBlank(token)) {
-            final HttpSession session = this.sessionMappingStorage.removeSessionByMappingId(token);
+    /**
+     * Destroys the HTTP session mapped to the given token.
+     *
+     * @param token the SessionIndex of a CAS logout message.
+     * @return true if a session was found.
+     */
+    private boolean destroySessionByToken(final String token) {
+        final HttpSession session = this.sessionMappingStorage.removeSessionByMappingId(token);
+
+        if (session == null) {
+            return false;
+        }
+        logger.debug("Invalidating session [{}] for token [{}]", session.getId(), token);
+
+        final PrincipalSessionIndex principalSessionIndex = this.principalSessionIndex;
+        if (principalSessionIndex != null) {
+            principalSessionIndex.removeSession(session.getId());
+        }
+
+        try {
+            session.invalidate();
+        } catch (final IllegalStateException e) {
+            logger.debug("Error invalidating session.", e);
+        }
+        return true;
+    }
 
-            if (session != null) {
-                final String sessionID = session.getId();
-                logger.debug("Invalidating session [{}] for token [{}]", sessionID, token);
+    /**
+     * Destroys the HTTP sessions for the session indexes, one per line, in the body of a bulk logout request.
+     *
+     * @param request HTTP request containing session indexes.
+     * @param response HTTP response.
+     */
+    private void destroySessions(final HttpServletRequest request, final HttpServletResponse response) {
+        if (!isBulkLogoutAuthorized(request)) {
+            logger.warn("Rejecting unauthorized bulk logout request from {}", request.getRemoteAddr());
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
 
-                try {
-                    session.invalidate();
-                } catch (final IllegalStateException e) {
-                    logger.debug("Error invalidating session.", e);
+        int count = 0;
+        try {
+            final BufferedReader reader = request.getReader();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String token = line.trim();
+                if (token.isEmpty()) {
+                    continue;
                 }
-                this.logoutStrategy.logout(request);
+                if (this.asyncLogoutProcessor != null) {
+                    this.asyncLogoutProcessor.submit(token);
+                } else {
+                    destroySessionByToken(token);
+                }
+                count++;
             }
+        } catch (final IOException e) {
+            logger.warn("Error reading bulk logout request after {} session indexes: {}", count, e.getMessage());
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        logger.debug("Accepted bulk logout of {} session indexes", count);
+        response.setStatus(HttpServletResponse.SC_ACCEPTED);
+    }
+
+    private boolean isBulkLogoutAuthorized(final HttpServletRequest request) {
+        final String authorization = request.getHeader("Authorization");
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return false;
+        }
+        return MessageDigest.isEqual(authorization.substring(7).trim().getBytes(StandardCharsets.UTF_8),
+            this.bulkLogoutToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Stops asynchronous logout processing, destroying the sessions of logouts still queued, and destroys the
+     * {@link SessionMappingStorage}.
+     */
+    public synchronized void destroy() {
+        if (this.asyncLogoutProcessor != null) {
+            this.asyncLogoutProcessor.destroy();
+            this.asyncLogoutProcessor = null;
         }
+        this.sessionMappingStorage.destroy();
     }
 
     private boolean isMultipartRequest(final HttpServletRequest request) {
@@ -58,5 +58,15 @@ public final class SingleSignOutHttpSessionListener implements HttpSessionListen
         }
         final HttpSession session = event.getSession();
         sessionMappingStorage.removeBySessionById(session.getId());
+
+        // the validation filter records sessions in the index of the web application, which may be its only user
+        final PrincipalSessionIndex principalSessionIndex = PrincipalSessionIndex.find(session.getServletContext());
+        if (principalSessionIndex != null) {
+            principalSessionIndex.removeSession(session.getId());
+        }
+        final PrincipalSessionIndex handlerIndex = SingleSignOutFilter.getPrincipalSessionIndex();
+        if (handlerIndex != null && handlerIndex != principalSessionIndex) {
+            handlerIndex.removeSession(session.getId());
+        }
     }
 }
@@ -0,0 +1,313 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SessionMappingStorage that only holds weak references to the sessions it maps, so that invalidated sessions and their
+ * attributes can be garbage collected even when {@link SingleSignOutHttpSessionListener} is not registered.
+ * <p>
+ * Entries are removed when either
+ * <ul>
+ * <li>the session has been garbage collected (detected through a {@link ReferenceQueue}), or</li>
+ * <li>the session has been idle for longer than its {@link HttpSession#getMaxInactiveInterval()}, or has been
+ * invalidated.</li>
+ * </ul>
+ * Idle expiry is driven by a hashed timing wheel advanced by a single daemon thread, so the cost of expiring an entry is
+ * constant and no full scan over all mappings is ever performed.  An entry whose deadline arrives while its session is
+ * still in use is simply rescheduled to the session's new deadline.
+ * <p>
+ * Only use this storage when the container hands out the same {@link HttpSession} object for the whole life of a
+ * session, as servlet containers managing their own sessions do.  Session repositories such as Spring Session wrap the
+ * session in a new object on every request; that wrapper becomes unreachable once the request that logged in ends, so
+ * its mapping is purged and the session can no longer be logged out.  Use
+ * {@link ConcurrentHashMapBackedSessionMappingStorage} with {@link SingleSignOutHttpSessionListener} instead.
+ * <p>
+ * {@link #destroy()} stops the expiry thread; {@link SingleSignOutFilter#destroy()} calls it for the storage of its
+ * handler.
+ *
+ * @since 4.0.0
+ */
+public final class WeakReferenceSessionMappingStorage implements SessionMappingStorage {
+
+    /**
+     * Default tick duration of the timing wheel in milliseconds.
+     */
+    public static final long DEFAULT_TICK_DURATION = 1000;
+
+    /**
+     * Default number of buckets in the timing wheel.
+     */
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Maps the ID from the CAS server to the Session.
+     */
+    private final ConcurrentMap<String, SessionReference> managedSessions = new ConcurrentHashMap<String, SessionReference>();
+
+    /**
+     * Maps the Session ID to the key from the CAS Server.
+     */
+    private final ConcurrentMap<String, String> idToSessionKeyMapping = new ConcurrentHashMap<String, String>();
+
+    private final ReferenceQueue<HttpSession> collectedSessions = new ReferenceQueue<HttpSession>();
+
+    private final Queue<SessionReference>[] wheel;
+
+    private final long tickDuration;
+
+    private final long startTime = System.currentTimeMillis();
+
+    private final ScheduledExecutorService executor;
+
+    private volatile long currentTick;
+
+    public WeakReferenceSessionMappingStorage() {
+        this(DEFAULT_TICK_DURATION, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * @param tickDuration the resolution, in milliseconds, of idle expiry.
+     * @param wheelSize the number of buckets in the timing wheel.
+     */
+    @SuppressWarnings("unchecked")
+    public WeakReferenceSessionMappingStorage(final long tickDuration, final int wheelSize) {
+        CommonUtils.assertTrue(tickDuration > 0, "tickDuration must be greater than zero.");
+        CommonUtils.assertTrue(wheelSize > 0, "wheelSize must be greater than zero.");
+        this.tickDuration = tickDuration;
+        this.wheel = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            this.wheel[i] = new ConcurrentLinkedQueue<SessionReference>();
+        }
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, "cas-session-mapping-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::tick, tickDuration, tickDuration, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public HttpSession removeSessionByMappingId(final String mappingId) {
+        while (true) {
+            final SessionReference reference = this.managedSessions.get(mappingId);
+
+            if (reference == null) {
+                return null;
+            }
+
+            if (remove(reference)) {
+                return reference.get();
+            }
+        }
+    }
+
+    @Override
+    public void removeBySessionById(final String sessionId) {
+        logger.debug("Attempting to remove Session=[{}]", sessionId);
+
+        final boolean[] found = new boolean[1];
+
+        this.idToSessionKeyMapping.computeIfPresent(sessionId, (id, key) -> {
+            found[0] = true;
+            this.managedSessions.computeIfPresent(key, (k, reference) -> reference.sessionId.equals(id) ? null : reference);
+            return null;
+        });
+
+        if (found[0]) {
+            logger.debug("Found mapping for session.  Session Removed.");
+        } else {
+            logger.debug("No mapping for session found.  Ignoring.");
+        }
+    }
+
+    @Override
+    public void addSessionById(final String mappingId, final HttpSession session) {
+        final SessionReference reference = new SessionReference(mappingId, session, this.collectedSessions);
+        final SessionReference[] replaced = new SessionReference[1];
+
+        this.idToSessionKeyMapping.compute(reference.sessionId, (id, previousKey) -> {
+            if (previousKey != null && !previousKey.equals(mappingId)) {
+                this.managedSessions.computeIfPresent(previousKey, (k, r) -> r.sessionId.equals(id) ? null : r);
+            }
+            replaced[0] = this.managedSessions.put(mappingId, reference);
+            return mappingId;
+        });
+
+        // the ticket was previously mapped to another session; that session no longer owns it
+        if (replaced[0] != null && !replaced[0].sessionId.equals(reference.sessionId)) {
+            this.idToSessionKeyMapping.computeIfPresent(replaced[0].sessionId,
+                (id, key) -> key.equals(mappingId) && !isMappedTo(mappingId, id) ? null : key);
+        }
+
+        final int maxInactiveInterval = session.getMaxInactiveInterval();
+        if (maxInactiveInterval > 0) {
+            schedule(reference, System.currentTimeMillis() + maxInactiveInterval * 1000L);
+        }
+    }
+
+    private boolean isMappedTo(final String mappingId, final String sessionId) {
+        final SessionReference reference = this.managedSessions.get(mappingId);
+        return reference != null && reference.sessionId.equals(sessionId);
+    }
+
+    /**
+     * @return the number of tickets currently mapped to a session.
+     */
+    public int getMappingCount() {
+        return this.managedSessions.size();
+    }
+
+    /**
+     * @return the number of sessions currently mapped to a ticket.
+     */
+    public int getSessionCount() {
+        return this.idToSessionKeyMapping.size();
+    }
+
+    /**
+     * Stops the expiry thread.  Mappings are no longer expired afterwards.
+     */
+    @Override
+    public void destroy() {
+        this.executor.shutdownNow();
+    }
+
+    private void schedule(final SessionReference reference, final long deadline) {
+        final long tick = Math.max((deadline - this.startTime) / this.tickDuration, this.currentTick + 1);
+        reference.deadlineTick = tick;
+        this.wheel[(int) (tick % this.wheel.length)].offer(reference);
+    }
+
+    /**
+     * Advances the wheel by one tick, expiring idle mappings in the current bucket and purging collected sessions.
+     */
+    void tick() {
+        try {
+            purgeCollectedSessions();
+
+            final long tick = (System.currentTimeMillis() - this.startTime) / this.tickDuration;
+            while (this.currentTick < tick) {
+                this.currentTick++;
+                expireBucket(this.wheel[(int) (this.currentTick % this.wheel.length)]);
+            }
+        } catch (final RuntimeException e) {
+            logger.warn("Error expiring session mappings: {}", e.getMessage(), e);
+        }
+    }
+
+    private void expireBucket(final Queue<SessionReference> bucket) {
+        final int size = bucket.size();
+        for (int i = 0; i < size; i++) {
+            final SessionReference reference = bucket.poll();
+            if (reference == null) {
+                return;
+            }
+            if (this.managedSessions.get(reference.mappingId) != reference) {
+                continue;
+            }
+            if (reference.deadlineTick > this.currentTick) {
+                bucket.offer(reference);
+                continue;
+            }
+            final long deadline = nextDeadline(reference.get());
+            if (deadline > System.currentTimeMillis()) {
+                schedule(reference, deadline);
+            } else {
+                logger.debug("Expiring idle mapping for session [{}]", reference.sessionId);
+                remove(reference);
+            }
+        }
+    }
+
+    /**
+     * @return the time at which the session will become idle, or 0 if it is gone or already invalid.
+     */
+    private static long nextDeadline(final HttpSession session) {
+        if (session == null) {
+            return 0;
+        }
+        try {
+            final int maxInactiveInterval = session.getMaxInactiveInterval();
+            return maxInactiveInterval > 0 ? session.getLastAccessedTime() + maxInactiveInterval * 1000L : Long.MAX_VALUE;
+        } catch (final IllegalStateException e) {
+            // session has been invalidated
+            return 0;
+        }
+    }
+
+    private void purgeCollectedSessions() {
+        Reference<? extends HttpSession> reference;
+        while ((reference = this.collectedSessions.poll()) != null) {
+            final SessionReference sessionReference = (SessionReference) reference;
+            logger.debug("Removing mapping for garbage collected session [{}]", sessionReference.sessionId);
+            remove(sessionReference);
+        }
+    }
+
+    /**
+     * Removes the mapping if it is still current, from within a <code>compute</code> on its session ID so that it
+     * cannot race an update of the same session.
+     *
+     * @return true if the mapping was removed.
+     */
+    private boolean remove(final SessionReference reference) {
+        final boolean[] removed = new boolean[1];
+
+        this.idToSessionKeyMapping.computeIfPresent(reference.sessionId, (id, key) -> {
+            removed[0] = this.managedSessions.remove(reference.mappingId, reference);
+            return removed[0] && key.equals(reference.mappingId) ? null : key;
+        });
+
+        return removed[0] || this.managedSessions.remove(reference.mappingId, reference);
+    }
+
+    private static final class SessionReference extends WeakReference<HttpSession> {
+
+        private final String mappingId;
+
+        private final String sessionId;
+
+        private volatile long deadlineTick;
+
+        SessionReference(final String mappingId, final HttpSession session, final ReferenceQueue<HttpSession> queue) {
+            super(session, queue);
+            this.mappingId = mappingId;
+            this.sessionId = session.getId();
+        }
+    }
+}
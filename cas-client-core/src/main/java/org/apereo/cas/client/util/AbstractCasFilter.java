@@ -20,14 +20,14 @@ package org.apereo.cas.client.util;
 
 import org.apereo.cas.client.Protocol;
 import org.apereo.cas.client.configuration.ConfigurationKeys;
+import org.apereo.cas.client.engine.CasClient;
+import org.apereo.cas.client.validation.AssertionCookieCodec;
 
 import jakarta.servlet.FilterConfig;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
-import java.util.Arrays;
-
 /**
  *  Abstract filter that contains code that is common to all CAS filters.
  *  <p>
@@ -35,8 +35,10 @@ import java.util.Arrays;
  * <ul>
  * <li><code>serverName</code> - the name of the CAS client server, in the format: localhost:8080 or localhost:8443 or localhost or https://localhost:8443</li>
  * <li><code>service</code> - the completely qualified service url, i.e. https://localhost/cas-client/app</li>
+ * <li><code>assertionCookieKeys</code> - enables the stateless assertion cookie, see {@link AssertionCookieCodec}.</li>
  * </ul>
  * <p>Please note that one of the two above parameters must be set.</p>
+ * <p>The logic itself lives in the framework neutral {@link CasClient}; the filters adapt the servlet API to it.</p>
  *
  * @author Scott Battaglia
  * @author Misagh Moayyed
@@ -45,23 +47,17 @@ import java.util.Arrays;
 public abstract class AbstractCasFilter extends AbstractConfigurationFilter {
 
     /** Represents the constant for where the assertion will be located in memory. */
-    public static final String CONST_CAS_ASSERTION = "_const_cas_assertion_";
+    public static final String CONST_CAS_ASSERTION = CasClient.CONST_CAS_ASSERTION;
 
     private final Protocol protocol;
 
-    /** Sets where response.encodeUrl should be called on service urls when constructed. */
-    private boolean encodeServiceUrl = true;
-
-    /**
-     * The name of the server.  Should be in the following format: {protocol}:{hostName}:{port}.
-     * Standard ports can be excluded. */
-    private String serverName;
+    private final CasClient casClient;
 
-    /** The exact url of the service. */
-    private String service;
+    private AssertionCookieCodec assertionCookieCodec;
 
     protected AbstractCasFilter(final Protocol protocol) {
         this.protocol = protocol;
+        this.casClient = new CasClient(protocol);
     }
 
     @Override
@@ -71,6 +67,7 @@ public abstract class AbstractCasFilter extends AbstractConfigurationFilter {
             setServerName(getString(ConfigurationKeys.SERVER_NAME));
             setService(getString(ConfigurationKeys.SERVICE));
             setEncodeServiceUrl(getBoolean(ConfigurationKeys.ENCODE_SERVICE_URL));
+            setAssertionCookieCodec(newAssertionCookieCodec());
 
             initInternal(filterConfig);
         }
@@ -82,9 +79,11 @@ public abstract class AbstractCasFilter extends AbstractConfigurationFilter {
      * afterPropertiesSet();
      */
     public void init() {
-        CommonUtils.assertTrue(CommonUtils.isNotEmpty(this.serverName) || CommonUtils.isNotEmpty(this.service),
+        final String serverName = this.casClient.getServerName();
+        final String service = this.casClient.getService();
+        CommonUtils.assertTrue(CommonUtils.isNotEmpty(serverName) || CommonUtils.isNotEmpty(service),
             "serverName or service must be set.");
-        CommonUtils.assertTrue(CommonUtils.isBlank(this.serverName) || CommonUtils.isBlank(this.service),
+        CommonUtils.assertTrue(CommonUtils.isBlank(serverName) || CommonUtils.isBlank(service),
             "serverName and service cannot both be set.  You MUST ONLY set one.");
     }
 
@@ -102,19 +101,27 @@ public abstract class AbstractCasFilter extends AbstractConfigurationFilter {
      */
     public final void setServerName(final String serverName) {
         if (serverName != null && serverName.endsWith("/")) {
-            this.serverName = serverName.substring(0, serverName.length() - 1);
-            logger.info("Eliminated extra slash from serverName [{}].  It is now [{}]", serverName, this.serverName);
+            this.casClient.setServerName(serverName.substring(0, serverName.length() - 1));
+            logger.info("Eliminated extra slash from serverName [{}].  It is now [{}]", serverName,
+                this.casClient.getServerName());
         } else {
-            this.serverName = serverName;
+            this.casClient.setServerName(serverName);
         }
     }
 
     public final void setService(final String service) {
-        this.service = service;
+        this.casClient.setService(service);
     }
 
     public final void setEncodeServiceUrl(final boolean encodeServiceUrl) {
-        this.encodeServiceUrl = encodeServiceUrl;
+        this.casClient.setEncodeServiceUrl(encodeServiceUrl);
+    }
+
+    /**
+     * @param assertionCookieCodec the codec of the stateless assertion cookie, null to disable it.
+     */
+    public final void setAssertionCookieCodec(final AssertionCookieCodec assertionCookieCodec) {
+        this.assertionCookieCodec = assertionCookieCodec;
     }
 
     /** Controls the ordering of filter initialization and checking by defining a method that runs before the init.
@@ -127,15 +134,34 @@ public abstract class AbstractCasFilter extends AbstractConfigurationFilter {
     }
 
     protected final String constructServiceUrl(final HttpServletRequest request, final HttpServletResponse response) {
-        return CommonUtils.constructServiceUrl(request, response, this.service, this.serverName,
-            this.protocol.getServiceParameterName(),
-            this.protocol.getArtifactParameterName(), this.encodeServiceUrl);
+        return this.casClient.constructServiceUrl(new ServletCasRequest(request), new ServletCasResponse(response));
     }
 
     protected Protocol getProtocol() {
         return this.protocol;
     }
 
+    /**
+     * @return the name of the request parameter carrying the ticket.
+     */
+    public final String getArtifactParameterName() {
+        return this.protocol.getArtifactParameterName();
+    }
+
+    /**
+     * @return the engine holding the configuration and logic shared by the CAS filters.
+     */
+    protected final CasClient getCasClient() {
+        return this.casClient;
+    }
+
+    /**
+     * @return the codec of the stateless assertion cookie, or null if it is not enabled.
+     */
+    protected final AssertionCookieCodec getAssertionCookieCodec() {
+        return this.assertionCookieCodec;
+    }
+
     /**
      * Template method to allow you to change how you retrieve the ticket.
      *
@@ -143,7 +169,6 @@ public abstract class AbstractCasFilter extends AbstractConfigurationFilter {
      * @return the ticket if its found, null otherwise.
      */
     protected String retrieveTicketFromRequest(final HttpServletRequest request) {
-        return CommonUtils.safeGetParameter(request, this.protocol.getArtifactParameterName(),
-            Arrays.asList(this.protocol.getArtifactParameterName()));
+        return this.casClient.retrieveTicket(new ServletCasRequest(request));
     }
 }
@@ -19,8 +19,10 @@
 package org.apereo.cas.client.util;
 
 import org.apereo.cas.client.configuration.ConfigurationKey;
+import org.apereo.cas.client.configuration.ConfigurationKeys;
 import org.apereo.cas.client.configuration.ConfigurationStrategy;
 import org.apereo.cas.client.configuration.ConfigurationStrategyName;
+import org.apereo.cas.client.validation.AssertionCookieCodec;
 
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterConfig;
@@ -72,6 +74,24 @@ public abstract class AbstractConfigurationFilter implements Filter {
         return this.configurationStrategy.getClass(configurationKey);
     }
 
+    /**
+     * Builds the codec of the stateless assertion cookie from the <code>assertionCookie*</code> parameters.
+     *
+     * @return the codec, or null if no <code>assertionCookieKeys</code> are configured.
+     */
+    protected final AssertionCookieCodec newAssertionCookieCodec() {
+        final String keys = getString(ConfigurationKeys.ASSERTION_COOKIE_KEYS);
+        if (CommonUtils.isBlank(keys)) {
+            return null;
+        }
+        final AssertionCookieCodec codec = new AssertionCookieCodec(keys);
+        codec.setCookieName(getString(ConfigurationKeys.ASSERTION_COOKIE_NAME));
+        codec.setMaxAge(getInt(ConfigurationKeys.ASSERTION_COOKIE_MAX_AGE));
+        codec.setMaxSize(getInt(ConfigurationKeys.ASSERTION_COOKIE_MAX_SIZE));
+        codec.setAttributeNames(getString(ConfigurationKeys.ASSERTION_COOKIE_ATTRIBUTES));
+        return codec;
+    }
+
     protected final boolean isIgnoreInitConfiguration() {
         return this.ignoreInitConfiguration;
     }
@@ -20,8 +20,19 @@ package org.apereo.cas.client.util;
 
 import org.apereo.cas.client.validation.Assertion;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
 /**
  * Static holder that places Assertion in a ThreadLocal.
+ * <p>
+ * The assertion is only visible to the thread that set it.  Work handed to other threads (executors, asynchronous
+ * servlet processing, {@link CompletableFuture} stages or virtual threads) can carry it along by wrapping the task with
+ * {@link #wrap(Runnable)} or {@link #wrap(Callable)}, or by submitting to an executor wrapped with
+ * {@link #wrap(Executor)}.  Wrapped tasks restore whatever assertion the executing thread held before once they
+ * complete, so pooled threads never retain an assertion.
  *
  * @author Scott Battaglia
  * @since 3.0
@@ -55,6 +66,123 @@ public class AssertionHolder {
      * Clear the ThreadLocal.
      */
     public static void clear() {
-        threadLocal.set(null);
+        threadLocal.remove();
+    }
+
+    /**
+     * Runs the task with the given assertion bound to the current thread, restoring the previous one afterwards.
+     *
+     * @param assertion the assertion to bind, may be null.
+     * @param task the task to run.
+     */
+    public static void runWith(final Assertion assertion, final Runnable task) {
+        final Assertion previous = threadLocal.get();
+        bind(assertion);
+        try {
+            task.run();
+        } finally {
+            bind(previous);
+        }
+    }
+
+    /**
+     * Calls the task with the given assertion bound to the current thread, restoring the previous one afterwards.
+     *
+     * @param assertion the assertion to bind, may be null.
+     * @param task the task to call.
+     * @param <T> the result type.
+     * @return the result of the task.
+     * @throws Exception if the task fails.
+     */
+    public static <T> T callWith(final Assertion assertion, final Callable<T> task) throws Exception {
+        final Assertion previous = threadLocal.get();
+        bind(assertion);
+        try {
+            return task.call();
+        } finally {
+            bind(previous);
+        }
+    }
+
+    /**
+     * Captures the assertion of the current thread so that the returned task runs with it on whichever thread
+     * executes it.
+     *
+     * @param task the task to wrap.
+     * @return the wrapped task.
+     */
+    public static Runnable wrap(final Runnable task) {
+        CommonUtils.assertNotNull(task, "task cannot be null.");
+        final Assertion assertion = threadLocal.get();
+        return () -> runWith(assertion, task);
+    }
+
+    /**
+     * Captures the assertion of the current thread so that the returned task runs with it on whichever thread
+     * executes it.
+     *
+     * @param task the task to wrap.
+     * @param <T> the result type.
+     * @return the wrapped task.
+     */
+    public static <T> Callable<T> wrap(final Callable<T> task) {
+        CommonUtils.assertNotNull(task, "task cannot be null.");
+        final Assertion assertion = threadLocal.get();
+        return () -> callWith(assertion, task);
+    }
+
+    /**
+     * Returns an executor that propagates the assertion of the submitting thread to every task it executes.  Passing
+     * it to the <code>*Async</code> methods of {@link CompletableFuture} carries the assertion across stages.
+     *
+     * @param executor the executor to delegate to.
+     * @return the propagating executor.
+     */
+    public static Executor wrap(final Executor executor) {
+        CommonUtils.assertNotNull(executor, "executor cannot be null.");
+        return task -> executor.execute(wrap(task));
+    }
+
+    /**
+     * Same as {@link CompletableFuture#supplyAsync(Supplier, Executor)}, with the assertion of the current thread
+     * bound while the supplier runs.
+     *
+     * @param supplier the supplier computing the result.
+     * @param executor the executor to run the supplier on.
+     * @param <T> the result type.
+     * @return the new CompletableFuture.
+     */
+    public static <T> CompletableFuture<T> supplyAsync(final Supplier<T> supplier, final Executor executor) {
+        CommonUtils.assertNotNull(supplier, "supplier cannot be null.");
+        final Assertion assertion = threadLocal.get();
+        return CompletableFuture.supplyAsync(() -> {
+            final Assertion previous = threadLocal.get();
+            bind(assertion);
+            try {
+                return supplier.get();
+            } finally {
+                bind(previous);
+            }
+        }, executor);
+    }
+
+    /**
+     * Same as {@link CompletableFuture#runAsync(Runnable, Executor)}, with the assertion of the current thread bound
+     * while the task runs.
+     *
+     * @param task the task to run.
+     * @param executor the executor to run the task on.
+     * @return the new CompletableFuture.
+     */
+    public static CompletableFuture<Void> runAsync(final Runnable task, final Executor executor) {
+        return CompletableFuture.runAsync(wrap(task), executor);
+    }
+
+    private static void bind(final Assertion assertion) {
+        if (assertion == null) {
+            threadLocal.remove();
+        } else {
+            threadLocal.set(assertion);
+        }
     }
 }
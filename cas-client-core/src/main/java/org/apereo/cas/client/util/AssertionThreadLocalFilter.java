@@ -49,9 +49,10 @@ public final class AssertionThreadLocalFilter implements Filter {
                          final FilterChain filterChain) throws IOException, ServletException {
         final HttpServletRequest request = (HttpServletRequest) servletRequest;
         final HttpSession session = request.getSession(false);
-        final Assertion assertion = (Assertion) (session == null ? request
-            .getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION) : session
-            .getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION));
+        Assertion assertion = session == null ? null : (Assertion) session.getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION);
+        if (assertion == null) {
+            assertion = (Assertion) request.getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION);
+        }
 
         try {
             AssertionHolder.setAssertion(assertion);
@@ -19,6 +19,7 @@
 package org.apereo.cas.client.util;
 
 import org.apereo.cas.client.Protocol;
+import org.apereo.cas.client.engine.CasClient;
 import org.apereo.cas.client.proxy.ProxyGrantingTicketStorage;
 import org.apereo.cas.client.ssl.HttpURLConnectionFactory;
 import org.apereo.cas.client.ssl.HttpsURLConnectionFactory;
@@ -251,36 +252,7 @@ public final class CommonUtils {
     }
 
     protected static String findMatchingServerName(final HttpServletRequest request, final String serverName) {
-        final String[] serverNames = serverName.split(" ");
-
-        if (serverNames.length == 0 || serverNames.length == 1) {
-            return serverName;
-        }
-
-        final String host = request.getHeader("Host");
-        final String xHost = request.getHeader("X-Forwarded-Host");
-
-        final String comparisonHost;
-        comparisonHost = (xHost != null) ? xHost : host;
-
-        if (comparisonHost == null) {
-            return serverName;
-        }
-
-        for (final String server : serverNames) {
-            final String lowerCaseServer = server.toLowerCase();
-
-            if (lowerCaseServer.contains(comparisonHost)) {
-                return server;
-            }
-        }
-
-        return serverNames[0];
-    }
-
-    private static boolean requestIsOnStandardPort(final HttpServletRequest request) {
-        final int serverPort = request.getServerPort();
-        return serverPort == 80 || serverPort == 443;
+        return CasClient.findMatchingServerName(new ServletCasRequest(request), serverName);
     }
 
     /**
@@ -326,53 +298,8 @@ public final class CommonUtils {
     public static String constructServiceUrl(final HttpServletRequest request, final HttpServletResponse response,
                                              final String service, final String serverNames, final String serviceParameterName,
                                              final String artifactParameterName, final boolean encode) {
-        if (CommonUtils.isNotBlank(service)) {
-            return encode ? response.encodeURL(service) : service;
-        }
-
-        final String serverName = findMatchingServerName(request, serverNames);
-        final URIBuilder originalRequestUrl = new URIBuilder(request.getRequestURL().toString(), encode);
-        originalRequestUrl.setParameters(request.getQueryString());
-
-        final URIBuilder builder;
-        if (!serverName.startsWith("https://") && !serverName.startsWith("http://")) {
-            final String scheme = request.isSecure() ? "https://" : "http://";
-            builder = new URIBuilder(scheme + serverName, encode);
-        } else {
-            builder = new URIBuilder(serverName, encode);
-        }
-
-        if (builder.getPort() == -1 && !requestIsOnStandardPort(request)) {
-            builder.setPort(request.getServerPort());
-        }
-
-        builder.setEncodedPath(builder.getEncodedPath() + request.getRequestURI());
-
-        final List<String> serviceParameterNames = Arrays.asList(serviceParameterName.split(","));
-        if (!serviceParameterNames.isEmpty() && !originalRequestUrl.getQueryParams().isEmpty()) {
-            for (final URIBuilder.BasicNameValuePair pair : originalRequestUrl.getQueryParams()) {
-                final String name = pair.getName();
-                if (!name.equals(artifactParameterName) && !serviceParameterNames.contains(name)) {
-                    if (name.contains("&") || name.contains("=")) {
-                        final URIBuilder encodedParamBuilder = new URIBuilder();
-                        encodedParamBuilder.setParameters(name);
-                        for (final URIBuilder.BasicNameValuePair pair2 : encodedParamBuilder.getQueryParams()) {
-                            final String name2 = pair2.getName();
-                            if (!name2.equals(artifactParameterName) && !serviceParameterNames.contains(name2)) {
-                                builder.addParameter(name2, pair2.getValue());
-                            }
-                        }
-                    } else {
-                        builder.addParameter(name, pair.getValue());
-                    }
-                }
-            }
-        }
-
-        final String result = builder.toString();
-        final String returnValue = encode ? response.encodeURL(result) : result;
-        LOGGER.debug("serviceUrl generated: {}", returnValue);
-        return returnValue;
+        return CasClient.constructServiceUrl(new ServletCasRequest(request), new ServletCasResponse(response), service,
+            serverNames, serviceParameterName, artifactParameterName, encode);
     }
 
     /**
@@ -386,6 +313,9 @@ public final class CommonUtils {
      * <p>
      *     Note, that as of 3.3.0, we've made it more generic.
      * </p>
+     * <p>
+     * The query string is tokenized once per request; see {@link QueryParameters}.
+     * </p>
      *
      * @param request the request to check.
      * @param parameter the parameter to look for.
@@ -397,8 +327,7 @@ public final class CommonUtils {
             LOGGER.debug("safeGetParameter called on a POST HttpServletRequest for Restricted Parameters.  Cannot complete check safely.  Reverting to standard behavior for this Parameter");
             return request.getParameter(parameter);
         }
-        return request.getQueryString() == null || !request.getQueryString().contains(parameter) ? null : request
-            .getParameter(parameter);
+        return QueryParameters.of(request).contains(parameter) ? request.getParameter(parameter) : null;
     }
 
     public static String safeGetParameter(final HttpServletRequest request, final String parameter) {
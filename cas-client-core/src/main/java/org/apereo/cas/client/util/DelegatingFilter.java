@@ -29,18 +29,42 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
 
 /**
  * A Delegating Filter looks up a parameter in the request object and matches
  * (either exact or using Regular Expressions) the value. If there is a match,
  * the associated filter is executed. Otherwise, the normal chain is executed.
+ * <p>
+ * The delegators are compiled once: exact keys into a hash table, regular expressions into patterns tried in the
+ * iteration order of the map.  The outcome for the most recent parameter values is remembered, so regular expressions
+ * are only evaluated for values that have not been seen lately.
  *
  * @author Scott Battaglia
  * @since 3.0
  */
 public final class DelegatingFilter implements Filter {
 
+    /**
+     * Number of parameter values whose outcome is remembered when matching regular expressions.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    /**
+     * Longest parameter value whose outcome is remembered.
+     */
+    private static final int MAX_CACHED_VALUE_LENGTH = 256;
+
+    /**
+     * Remembered outcome of values that matched none of the delegators; never invoked.
+     */
+    private static final Filter NO_MATCH = (request, response, filterChain) -> filterChain.doFilter(request, response);
+
     /**
      * Instance of Commons Logging.
      */
@@ -52,20 +76,29 @@ public final class DelegatingFilter implements Filter {
     private final String requestParameterName;
 
     /**
-     * The map of filters to delegate to and the criteria (as key).
+     * The filters to delegate to by exact value, or null if keys are regular expressions.
      */
-    private final Map<String, Filter> delegators;
+    private final Map<String, Filter> exactDelegators;
 
     /**
-     * The default filter to use if there is no match.
+     * The compiled keys, in the iteration order of the delegators map, if keys are regular expressions.
      */
-    private final Filter defaultFilter;
+    private final Pattern[] patterns;
+
+    /**
+     * The filters matching {@link #patterns}.
+     */
+    private final Filter[] patternDelegators;
 
     /**
-     * Whether the key in the delegators map is an exact match or a regular
-     * expression.
+     * Outcome of matching recent parameter values against {@link #patterns}.
      */
-    private final boolean exactMatch;
+    private final ConcurrentMap<String, Filter> matches = new ConcurrentHashMap<String, Filter>();
+
+    /**
+     * The default filter to use if there is no match.
+     */
+    private final Filter defaultFilter;
 
     public DelegatingFilter(final String requestParameterName, final Map<String, Filter> delegators,
                             final boolean exactMatch) {
@@ -78,9 +111,23 @@ public final class DelegatingFilter implements Filter {
         CommonUtils.assertTrue(!delegators.isEmpty(), "delegators cannot be empty.");
 
         this.requestParameterName = requestParameterName;
-        this.delegators = delegators;
         this.defaultFilter = defaultFilter;
-        this.exactMatch = exactMatch;
+
+        if (exactMatch) {
+            this.exactDelegators = new HashMap<String, Filter>(delegators);
+            this.patterns = null;
+            this.patternDelegators = null;
+        } else {
+            this.exactDelegators = null;
+            this.patterns = new Pattern[delegators.size()];
+            this.patternDelegators = new Filter[delegators.size()];
+            int i = 0;
+            for (final Map.Entry<String, Filter> entry : delegators.entrySet()) {
+                this.patterns[i] = Pattern.compile(entry.getKey());
+                this.patternDelegators[i] = entry.getValue();
+                i++;
+            }
+        }
     }
 
     @Override
@@ -95,14 +142,12 @@ public final class DelegatingFilter implements Filter {
         final String parameter = CommonUtils.safeGetParameter((HttpServletRequest) request, this.requestParameterName);
 
         if (CommonUtils.isNotEmpty(parameter)) {
-            for (final String key : this.delegators.keySet()) {
-                if ((parameter.equals(key) && this.exactMatch) || (parameter.matches(key) && !this.exactMatch)) {
-                    final Filter filter = this.delegators.get(key);
-                    logger.debug("Match found for parameter [{}] with value [{}]. Delegating to filter [{}]",
-                        this.requestParameterName, parameter, filter.getClass().getName());
-                    filter.doFilter(request, response, filterChain);
-                    return;
-                }
+            final Filter filter = findDelegator(parameter);
+            if (filter != null) {
+                logger.debug("Match found for parameter [{}] with value [{}]. Delegating to filter [{}]",
+                    this.requestParameterName, parameter, filter.getClass().getName());
+                filter.doFilter(request, response, filterChain);
+                return;
             }
         }
 
@@ -119,4 +164,39 @@ public final class DelegatingFilter implements Filter {
     public void destroy() {
         // nothing to do here
     }
+
+    /**
+     * @param parameter the value of the request parameter.
+     * @return the filter to delegate to, or null if none matches.
+     */
+    private Filter findDelegator(final String parameter) {
+        if (this.exactDelegators != null) {
+            return this.exactDelegators.get(parameter);
+        }
+
+        final Filter cached = this.matches.get(parameter);
+        if (cached != null) {
+            return cached == NO_MATCH ? null : cached;
+        }
+
+        Filter filter = NO_MATCH;
+        for (int i = 0; i < this.patterns.length; i++) {
+            if (this.patterns[i].matcher(parameter).matches()) {
+                filter = this.patternDelegators[i];
+                break;
+            }
+        }
+        if (parameter.length() > MAX_CACHED_VALUE_LENGTH) {
+            return filter == NO_MATCH ? null : filter;
+        }
+        if (this.matches.size() >= DEFAULT_CACHE_SIZE) {
+            // evict an arbitrary entry; values are cheap to match again
+            final Iterator<String> iterator = this.matches.keySet().iterator();
+            if (iterator.hasNext()) {
+                this.matches.remove(iterator.next());
+            }
+        }
+        this.matches.put(parameter, filter);
+        return filter == NO_MATCH ? null : filter;
+    }
 }
@@ -21,6 +21,7 @@ package org.apereo.cas.client.util;
 import org.apereo.cas.client.authentication.AttributePrincipal;
 import org.apereo.cas.client.configuration.ConfigurationKeys;
 import org.apereo.cas.client.validation.Assertion;
+import org.apereo.cas.client.validation.AssertionCookieCodec;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.FilterConfig;
@@ -32,8 +33,13 @@ import jakarta.servlet.http.HttpServletRequestWrapper;
 import jakarta.servlet.http.HttpSession;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.security.Principal;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
 
 /**
  * Implementation of a filter that wraps the normal HttpServletRequest with a
@@ -47,6 +53,12 @@ import java.util.Collection;
  * <p/>
  * This filter needs to be configured in the chain so that it executes after
  * both the authentication and the validation filters.
+ * <p/>
+ * The roles of a principal are computed once, on the first role check, and kept next to the assertion (in the session,
+ * or in the request if there is none) until the principal changes, so that subsequent checks are a single set lookup.
+ * <p/>
+ * With <code>assertionCookieKeys</code> configured, requests without an assertion are authenticated from the stateless
+ * assertion cookie, see {@link AssertionCookieCodec}.
  *
  * @author Scott Battaglia
  * @author Marvin S. Addison
@@ -54,12 +66,18 @@ import java.util.Collection;
  */
 public final class HttpServletRequestWrapperFilter extends AbstractConfigurationFilter {
 
+    /** Name of the session (or request) attribute holding the cached role set */
+    public static final String CONST_CAS_ROLES = "_const_cas_roles_";
+
     /** Name of the attribute used to answer role membership queries */
     private String roleAttribute;
 
     /** Whether or not to ignore case in role membership queries */
     private boolean ignoreCase;
 
+    /** Codec of the stateless assertion cookie, null if it is not enabled */
+    private AssertionCookieCodec assertionCookieCodec;
+
     /**
      * Wraps the HttpServletRequest in a wrapper class that delegates
      * <code>request.getRemoteUser</code> to the underlying Assertion object
@@ -70,8 +88,18 @@ public final class HttpServletRequestWrapperFilter extends AbstractConfiguration
                          final FilterChain filterChain) throws IOException, ServletException {
         final AttributePrincipal principal = retrievePrincipalFromSessionOrRequest(servletRequest);
 
-        filterChain.doFilter(new CasHttpServletRequestWrapper((HttpServletRequest) servletRequest, principal),
-            servletResponse);
+        filterChain.doFilter(wrap((HttpServletRequest) servletRequest, principal), servletResponse);
+    }
+
+    /**
+     * Wraps the request for a principal that has already been looked up, i.e. by a filter that has the assertion at hand.
+     *
+     * @param request the current request.
+     * @param principal the principal of the request, null if the user has not been authenticated.
+     * @return the wrapped request.
+     */
+    public HttpServletRequest wrap(final HttpServletRequest request, final AttributePrincipal principal) {
+        return new CasHttpServletRequestWrapper(request, principal);
     }
 
     @Override
@@ -84,22 +112,75 @@ public final class HttpServletRequestWrapperFilter extends AbstractConfiguration
         super.init(filterConfig);
         this.roleAttribute = getString(ConfigurationKeys.ROLE_ATTRIBUTE);
         this.ignoreCase = getBoolean(ConfigurationKeys.IGNORE_CASE);
+        this.assertionCookieCodec = newAssertionCookieCodec();
     }
 
     protected AttributePrincipal retrievePrincipalFromSessionOrRequest(final ServletRequest servletRequest) {
         final HttpServletRequest request = (HttpServletRequest) servletRequest;
         final HttpSession session = request.getSession(false);
-        final Assertion assertion = (Assertion) (session == null ? request
-            .getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION) : session
-            .getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION));
+        Assertion assertion = session == null ? null : (Assertion) session.getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION);
+        if (assertion == null) {
+            assertion = this.assertionCookieCodec == null
+                ? (Assertion) request.getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION)
+                : this.assertionCookieCodec.retrieveAssertion(request);
+        }
 
         return assertion == null ? null : assertion.getPrincipal();
     }
 
+    /**
+     * Returns the roles of the principal, computing them if the cached set belongs to a different principal.
+     *
+     * @param request the current request.
+     * @param principal the principal of the current request.  CANNOT be NULL.
+     * @return the immutable set of roles, lower cased if case is ignored.
+     */
+    private Set<String> getRoles(final HttpServletRequest request, final AttributePrincipal principal) {
+        final HttpSession session = request.getSession(false);
+        final Object cached = session == null ? request.getAttribute(CONST_CAS_ROLES) : session.getAttribute(CONST_CAS_ROLES);
+        if (cached instanceof RoleSet && ((RoleSet) cached).isFor(principal, roleAttribute, ignoreCase)) {
+            return ((RoleSet) cached).roles;
+        }
+
+        final RoleSet roleSet = new RoleSet(principal, roleAttribute, ignoreCase, computeRoles(principal));
+        logger.debug("Computed roles {} for user [{}]", roleSet.roles, principal.getName());
+        if (session == null) {
+            request.setAttribute(CONST_CAS_ROLES, roleSet);
+        } else {
+            session.setAttribute(CONST_CAS_ROLES, roleSet);
+        }
+        return roleSet.roles;
+    }
+
+    private Set<String> computeRoles(final AttributePrincipal principal) {
+        final Object value = principal.getAttributes().get(roleAttribute);
+        final Set<String> roles = new HashSet<String>();
+        if (value instanceof Collection<?>) {
+            for (final Object o : (Collection<?>) value) {
+                addRole(roles, o);
+            }
+        } else {
+            addRole(roles, value);
+        }
+        return roles.isEmpty() ? Collections.<String>emptySet() : Collections.unmodifiableSet(roles);
+    }
+
+    private void addRole(final Set<String> roles, final Object candidate) {
+        if (ignoreCase) {
+            if (candidate != null) {
+                roles.add(candidate.toString().toLowerCase(Locale.ROOT));
+            }
+        } else if (candidate instanceof String) {
+            roles.add((String) candidate);
+        }
+    }
+
     final class CasHttpServletRequestWrapper extends HttpServletRequestWrapper {
 
         private final AttributePrincipal principal;
 
+        private Set<String> roles;
+
         CasHttpServletRequestWrapper(final HttpServletRequest request, final AttributePrincipal principal) {
             super(request);
             this.principal = principal;
@@ -127,38 +208,44 @@ public final class HttpServletRequestWrapperFilter extends AbstractConfiguration
                 return false;
             }
 
-            final Object value = this.principal.getAttributes().get(roleAttribute);
-
-            if (value instanceof Collection<?>) {
-                for (final Object o : (Collection<?>) value) {
-                    if (rolesEqual(role, o)) {
-                        logger.debug("User [{}] is in role [{}]: true", getRemoteUser(), role);
-                        return true;
-                    }
-                }
+            if (this.roles == null) {
+                this.roles = getRoles((HttpServletRequest) getRequest(), this.principal);
             }
-
-            final boolean isMember = rolesEqual(role, value);
-            logger.debug("User [{}] is in role [{}]: {}", getRemoteUser(), role, isMember);
-            return isMember;
+            return this.roles.contains(ignoreCase ? role.toLowerCase(Locale.ROOT) : role);
         }
 
         @Override
         public Principal getUserPrincipal() {
             return this.principal;
         }
+    }
+
+    /**
+     * Role set cached alongside the assertion.  The principal is not serialized, so the roles are simply recomputed
+     * after the session has been restored.
+     */
+    private static final class RoleSet implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient AttributePrincipal principal;
+
+        private final String roleAttribute;
+
+        private final boolean ignoreCase;
+
+        private final Set<String> roles;
+
+        RoleSet(final AttributePrincipal principal, final String roleAttribute, final boolean ignoreCase,
+                final Set<String> roles) {
+            this.principal = principal;
+            this.roleAttribute = roleAttribute;
+            this.ignoreCase = ignoreCase;
+            this.roles = roles;
+        }
 
-        /**
-         * Determines whether the given role is equal to the candidate
-         * role attribute taking into account case sensitivity.
-         *
-         * @param given  Role under consideration.
-         * @param candidate Role that the current user possesses.
-         *
-         * @return True if roles are equal, false otherwise.
-         */
-        private boolean rolesEqual(final String given, final Object candidate) {
-            return ignoreCase ? given.equalsIgnoreCase(candidate.toString()) : given.equals(candidate);
+        boolean isFor(final AttributePrincipal principal, final String roleAttribute, final boolean ignoreCase) {
+            return this.principal == principal && this.ignoreCase == ignoreCase && this.roleAttribute.equals(roleAttribute);
         }
     }
 }
@@ -0,0 +1,172 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Thread safe XPath expression backed by a bounded pool of compiled expressions.
+ * <p>
+ * Compiled {@link XPathExpression}s are not thread safe.  Rather than keeping one per thread, which grows without bound
+ * with virtual threads or large container pools, an expression is borrowed for the duration of a single evaluation
+ * and returned afterwards.  When the pool is empty a new expression is compiled; when it is full the expression is
+ * discarded, so at most {@code poolSize} idle expressions are ever retained.
+ *
+ * @since 4.0.0
+ */
+public class PooledXPathExpression implements XPathExpression {
+
+    /**
+     * Default maximum number of idle compiled expressions kept for reuse.
+     */
+    public static final int DEFAULT_POOL_SIZE = 16;
+
+    /** XPath expression */
+    private final String expression;
+
+    /** Namespace context. */
+    private final NamespaceContext context;
+
+    private final BlockingQueue<XPathExpression> pool;
+
+    /**
+     * Creates a new instance from an XPath expression and namespace context.
+     *
+     * @param xPath XPath expression.
+     * @param context Namespace context for handling namespace prefix to URI mappings.
+     */
+    public PooledXPathExpression(final String xPath, final NamespaceContext context) {
+        this(xPath, context, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * Creates a new instance from an XPath expression and namespace context.  The expression is compiled once up front
+     * so that invalid expressions are rejected immediately.
+     *
+     * @param xPath XPath expression.
+     * @param context Namespace context for handling namespace prefix to URI mappings.
+     * @param poolSize the maximum number of idle compiled expressions kept for reuse.
+     */
+    public PooledXPathExpression(final String xPath, final NamespaceContext context, final int poolSize) {
+        CommonUtils.assertTrue(poolSize > 0, "poolSize must be greater than zero.");
+        this.expression = xPath;
+        this.context = context;
+        this.pool = new ArrayBlockingQueue<XPathExpression>(poolSize);
+        this.pool.offer(compile());
+    }
+
+    @Override
+    public Object evaluate(final Object o, final QName qName) throws XPathExpressionException {
+        final XPathExpression compiled = borrow();
+        try {
+            return compiled.evaluate(o, qName);
+        } finally {
+            this.pool.offer(compiled);
+        }
+    }
+
+    @Override
+    public String evaluate(final Object o) throws XPathExpressionException {
+        final XPathExpression compiled = borrow();
+        try {
+            return compiled.evaluate(o);
+        } finally {
+            this.pool.offer(compiled);
+        }
+    }
+
+    @Override
+    public Object evaluate(final InputSource inputSource, final QName qName) throws XPathExpressionException {
+        final XPathExpression compiled = borrow();
+        try {
+            return compiled.evaluate(inputSource, qName);
+        } finally {
+            this.pool.offer(compiled);
+        }
+    }
+
+    @Override
+    public String evaluate(final InputSource inputSource) throws XPathExpressionException {
+        final XPathExpression compiled = borrow();
+        try {
+            return compiled.evaluate(inputSource);
+        } finally {
+            this.pool.offer(compiled);
+        }
+    }
+
+    /**
+     * Evaluates the XPath expression and returns the result coerced to a string.
+     *
+     * @param o Object on which to evaluate the expression; typically a DOM node.
+     *
+     * @return Evaluation result as a string.
+     *
+     * @throws XPathExpressionException On XPath evaluation errors.
+     */
+    public String evaluateAsString(final Object o) throws XPathExpressionException {
+        return (String) evaluate(o, XPathConstants.STRING);
+    }
+
+    /**
+     * Evaluates the XPath expression and returns the result coerced to a node list.
+     *
+     * @param o Object on which to evaluate the expression; typically a DOM node.
+     *
+     * @return Evaluation result as a node list.
+     *
+     * @throws XPathExpressionException On XPath evaluation errors.
+     */
+    public NodeList evaluateAsNodeList(final Object o) throws XPathExpressionException {
+        return (NodeList) evaluate(o, XPathConstants.NODESET);
+    }
+
+    /**
+     * @return the number of idle compiled expressions in the pool.
+     */
+    int getIdleCount() {
+        return this.pool.size();
+    }
+
+    private XPathExpression borrow() {
+        final XPathExpression compiled = this.pool.poll();
+        return compiled != null ? compiled : compile();
+    }
+
+    private XPathExpression compile() {
+        try {
+            final XPath xPath = XPathFactory.newInstance().newXPath();
+            xPath.setNamespaceContext(this.context);
+            return xPath.compile(this.expression);
+        } catch (final XPathExpressionException e) {
+            throw new IllegalArgumentException("Invalid XPath expression");
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The names of the query string parameters of a request, tokenized once and shared by all CAS filters handling the
+ * request through a request attribute.
+ * <p>
+ * Only the names are kept: values are still read through {@link HttpServletRequest#getParameter(String)} so that they are
+ * decoded by the container.  The view is rebuilt if the query string of the request changes, i.e. on a forward.
+ *
+ * @since 4.0.0
+ */
+public final class QueryParameters {
+
+    /** Name of the request attribute holding the parsed view. */
+    public static final String CONST_CAS_QUERY_PARAMETERS = "_const_cas_query_parameters_";
+
+    private static final QueryParameters EMPTY = new QueryParameters(null, new String[0]);
+
+    private final String queryString;
+
+    private final String[] names;
+
+    private QueryParameters(final String queryString, final String[] names) {
+        this.queryString = queryString;
+        this.names = names;
+    }
+
+    /**
+     * Returns the parsed query parameters of the request, parsing the query string on first use.
+     *
+     * @param request the current request.
+     * @return the parsed view, never null.
+     */
+    public static QueryParameters of(final HttpServletRequest request) {
+        final String queryString = request.getQueryString();
+        if (queryString == null) {
+            return EMPTY;
+        }
+        final Object cached = request.getAttribute(CONST_CAS_QUERY_PARAMETERS);
+        if (cached instanceof QueryParameters && queryString.equals(((QueryParameters) cached).queryString)) {
+            return (QueryParameters) cached;
+        }
+        final QueryParameters parameters = parse(queryString);
+        request.setAttribute(CONST_CAS_QUERY_PARAMETERS, parameters);
+        return parameters;
+    }
+
+    /**
+     * Tokenizes a raw query string.
+     *
+     * @param queryString the raw query string, may be null.
+     * @return the parsed view.
+     */
+    public static QueryParameters parse(final String queryString) {
+        if (CommonUtils.isEmpty(queryString)) {
+            return EMPTY;
+        }
+        int count = 1;
+        for (int i = 0; i < queryString.length(); i++) {
+            if (queryString.charAt(i) == '&') {
+                count++;
+            }
+        }
+        final String[] names = new String[count];
+        int size = 0;
+        int start = 0;
+        while (start <= queryString.length()) {
+            int end = queryString.indexOf('&', start);
+            if (end < 0) {
+                end = queryString.length();
+            }
+            int nameEnd = queryString.indexOf('=', start);
+            if (nameEnd < 0 || nameEnd > end) {
+                nameEnd = end;
+            }
+            if (nameEnd > start) {
+                names[size++] = decode(queryString.substring(start, nameEnd));
+            }
+            start = end + 1;
+        }
+        if (size < count) {
+            final String[] trimmed = new String[size];
+            System.arraycopy(names, 0, trimmed, 0, size);
+            return new QueryParameters(queryString, trimmed);
+        }
+        return new QueryParameters(queryString, names);
+    }
+
+    /**
+     * @param name the parameter name.
+     * @return true if the query string holds the parameter.
+     */
+    public boolean contains(final String name) {
+        for (final String candidate : this.names) {
+            if (candidate.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of parameters in the query string, counting repeated names once per occurrence.
+     */
+    public int size() {
+        return this.names.length;
+    }
+
+    private static String decode(final String name) {
+        if (name.indexOf('%') < 0 && name.indexOf('+') < 0) {
+            return name;
+        }
+        try {
+            return URLDecoder.decode(name, StandardCharsets.UTF_8);
+        } catch (final IllegalArgumentException e) {
+            return name;
+        }
+    }
+}
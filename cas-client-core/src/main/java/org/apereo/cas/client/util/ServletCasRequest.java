@@ -0,0 +1,91 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.apereo.cas.client.engine.CasRequest;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * {@link CasRequest} backed by an {@link HttpServletRequest}.
+ *
+ * @since 4.0.0
+ */
+public final class ServletCasRequest implements CasRequest {
+
+    private final HttpServletRequest request;
+
+    public ServletCasRequest(final HttpServletRequest request) {
+        this.request = request;
+    }
+
+    @Override
+    public String getMethod() {
+        return this.request.getMethod();
+    }
+
+    @Override
+    public String getScheme() {
+        return this.request.getScheme();
+    }
+
+    @Override
+    public boolean isSecure() {
+        return this.request.isSecure();
+    }
+
+    @Override
+    public int getServerPort() {
+        return this.request.getServerPort();
+    }
+
+    @Override
+    public String getRequestURI() {
+        return this.request.getRequestURI();
+    }
+
+    @Override
+    public String getQueryString() {
+        return this.request.getQueryString();
+    }
+
+    @Override
+    public boolean hasQueryParameter(final String name) {
+        return QueryParameters.of(this.request).contains(name);
+    }
+
+    @Override
+    public String getHeader(final String name) {
+        return this.request.getHeader(name);
+    }
+
+    @Override
+    public String getParameter(final String name) {
+        return this.request.getParameter(name);
+    }
+
+    @Override
+    public void setAttribute(final String name, final Object value) {
+        this.request.setAttribute(name, value);
+    }
+
+    public HttpServletRequest getRequest() {
+        return this.request;
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.apereo.cas.client.engine.CasResponse;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * {@link CasResponse} backed by an {@link HttpServletResponse}.
+ *
+ * @since 4.0.0
+ */
+public final class ServletCasResponse implements CasResponse {
+
+    private final HttpServletResponse response;
+
+    public ServletCasResponse(final HttpServletResponse response) {
+        this.response = response;
+    }
+
+    @Override
+    public String encodeURL(final String url) {
+        return this.response.encodeURL(url);
+    }
+
+    @Override
+    public void sendRedirect(final String url) throws IOException {
+        this.response.sendRedirect(url);
+    }
+
+    @Override
+    public void sendError(final int status, final String message) throws IOException {
+        this.response.sendError(status, message);
+    }
+
+    public HttpServletResponse getResponse() {
+        return this.response;
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.apereo.cas.client.engine.CasSession;
+
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * {@link CasSession} backed by an {@link HttpSession}.
+ *
+ * @since 4.0.0
+ */
+public final class ServletCasSession implements CasSession {
+
+    private final HttpSession session;
+
+    public ServletCasSession(final HttpSession session) {
+        this.session = session;
+    }
+
+    /**
+     * @param session the session, may be null.
+     * @return the adapter, or null if there is no session.
+     */
+    public static ServletCasSession of(final HttpSession session) {
+        return session != null ? new ServletCasSession(session) : null;
+    }
+
+    @Override
+    public String getId() {
+        return this.session.getId();
+    }
+
+    @Override
+    public Object getAttribute(final String name) {
+        return this.session.getAttribute(name);
+    }
+
+    @Override
+    public void setAttribute(final String name, final Object value) {
+        this.session.setAttribute(name, value);
+    }
+
+    @Override
+    public void invalidate() {
+        this.session.invalidate();
+    }
+
+    public HttpSession getSession() {
+        return this.session;
+    }
+}
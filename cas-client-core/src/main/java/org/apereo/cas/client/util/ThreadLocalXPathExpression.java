@@ -34,7 +34,10 @@ import javax.xml.xpath.XPathFactory;
  *
  * @author Marvin S. Addison
  * @since 3.4
+ * @deprecated keeps one compiled expression per thread, which grows without bound on virtual threads.  Use
+ * {@link PooledXPathExpression} instead.
  */
+@Deprecated
 public class ThreadLocalXPathExpression extends ThreadLocal<XPathExpression> implements XPathExpression {
 
     /** XPath expression */
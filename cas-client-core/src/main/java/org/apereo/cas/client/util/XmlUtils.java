@@ -31,6 +31,7 @@ import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParserFactory;
+import java.io.Reader;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -167,6 +168,19 @@ public final class XmlUtils {
      * @return the text value of the element.
      */
     public static String getTextForElement(final String xmlAsString, final String element) {
+        return getTextForElement(new StringReader(xmlAsString), element);
+    }
+
+    /**
+     * Retrieve the text for a specific element (when we know there is only
+     * one) from a document that is read as it is parsed.
+     *
+     * @param xml     the reader providing the xml response
+     * @param element the element to look for
+     * @return the text value of the element, or null if the document could not be parsed.
+     * @since 4.0.0
+     */
+    public static String getTextForElement(final Reader xml, final String element) {
         final XMLReader reader = getXmlReader();
         final StringBuilder builder = new StringBuilder();
 
@@ -201,7 +215,7 @@ public final class XmlUtils {
         reader.setErrorHandler(handler);
 
         try {
-            reader.parse(new InputSource(new StringReader(xmlAsString)));
+            reader.parse(new InputSource(xml));
         } catch (final Exception e) {
             LOGGER.error(e.getMessage(), e);
             return null;
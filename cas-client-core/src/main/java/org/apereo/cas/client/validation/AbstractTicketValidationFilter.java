@@ -20,9 +20,13 @@ package org.apereo.cas.client.validation;
 
 import org.apereo.cas.client.Protocol;
 import org.apereo.cas.client.configuration.ConfigurationKeys;
+import org.apereo.cas.client.session.PrincipalSessionIndex;
 import org.apereo.cas.client.util.AbstractCasFilter;
 import org.apereo.cas.client.util.CommonUtils;
 import org.apereo.cas.client.util.ReflectUtils;
+import org.apereo.cas.client.util.ServletCasRequest;
+import org.apereo.cas.client.util.ServletCasResponse;
+import org.apereo.cas.client.util.ServletCasSession;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.FilterConfig;
@@ -31,6 +35,7 @@ import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
 
 import javax.net.ssl.HostnameVerifier;
 import java.io.FileInputStream;
@@ -47,6 +52,14 @@ import java.util.Properties;
  * <li><code>exceptionOnValidationFailure</code> - throw an exception if the validation fails.  Otherwise, continue
  *  processing. (default: true)</li>
  * <li><code>useSession</code> - store any of the useful information in a session attribute. (default: true)</li>
+ * <li><code>principalSessionIndex</code> - record the session in the {@link PrincipalSessionIndex} shared with the
+ * single sign out filter. (default: false)</li>
+ * <li><code>assertionCookieKeys</code> - issue a stateless {@link AssertionCookieCodec assertion cookie} after a
+ * successful validation, which allows <code>redirectAfterValidation</code> without sessions.</li>
+ * <li><code>ticketPrefixes</code>, <code>ticketMinLength</code>, <code>ticketMaxLength</code> - refuse malformed
+ * tickets without contacting the CAS server, see {@link TicketPreValidator}.</li>
+ * <li><code>rejectedTicketCacheSize</code>, <code>rejectedTicketCacheTimeToLive</code> - remember rejected and consumed
+ * tickets for a short time to refuse their replays without contacting the CAS server. (default: 0, disabled)</li>
  * <li><code>hostnameVerifier</code> - name of class implementing a {@link HostnameVerifier}.</li>
  * <li><code>hostnameVerifierConfig</code> - name of configuration class (constructor argument of verifier).</li>
  * </ul>
@@ -57,9 +70,6 @@ import java.util.Properties;
  */
 public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
 
-    /** The TicketValidator we will use to validate tickets. */
-    private TicketValidator ticketValidator;
-
     /**
      * Specify whether the filter should redirect the user agent after a
      * successful validation to remove the ticket parameter from the query
@@ -76,6 +86,12 @@ public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
      */
     private boolean useSession = true;
 
+    /** Index of sessions by principal name, null if disabled. */
+    private PrincipalSessionIndex principalSessionIndex;
+
+    /** Refuses malformed and replayed tickets locally, null if disabled. */
+    private TicketPreValidator ticketPreValidator;
+
     protected AbstractTicketValidationFilter(final Protocol protocol) {
         super(protocol);
     }
@@ -83,7 +99,7 @@ public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
     @Override
     public void init() {
         super.init();
-        CommonUtils.assertNotNull(this.ticketValidator, "ticketValidator cannot be null.");
+        CommonUtils.assertNotNull(getCasClient().getTicketValidator(), "ticketValidator cannot be null.");
     }
 
     @Override
@@ -92,11 +108,27 @@ public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
         setRedirectAfterValidation(getBoolean(ConfigurationKeys.REDIRECT_AFTER_VALIDATION));
         setUseSession(getBoolean(ConfigurationKeys.USE_SESSION));
 
-        if (!this.useSession && this.redirectAfterValidation) {
+        if (!this.useSession && this.redirectAfterValidation && getAssertionCookieCodec() == null) {
             logger.warn("redirectAfterValidation parameter may not be true when useSession parameter is false. Resetting it to false in order to prevent infinite redirects.");
             setRedirectAfterValidation(false);
         }
 
+        if (getBoolean(ConfigurationKeys.PRINCIPAL_SESSION_INDEX) && this.principalSessionIndex == null) {
+            setPrincipalSessionIndex(PrincipalSessionIndex.of(filterConfig.getServletContext()));
+        }
+
+        final String ticketPrefixes = getString(ConfigurationKeys.TICKET_PREFIXES);
+        final int rejectedTicketCacheSize = getInt(ConfigurationKeys.REJECTED_TICKET_CACHE_SIZE);
+        if (ticketPrefixes != null || rejectedTicketCacheSize > 0) {
+            final TicketPreValidator preValidator = new TicketPreValidator();
+            preValidator.setPrefixes(ticketPrefixes);
+            preValidator.setMinLength(getInt(ConfigurationKeys.TICKET_MIN_LENGTH));
+            preValidator.setMaxLength(getInt(ConfigurationKeys.TICKET_MAX_LENGTH));
+            preValidator.setCacheSize(rejectedTicketCacheSize);
+            preValidator.setCacheTimeToLive(getInt(ConfigurationKeys.REJECTED_TICKET_CACHE_TIME_TO_LIVE));
+            setTicketPreValidator(preValidator);
+        }
+
         setTicketValidator(getTicketValidator(filterConfig));
         super.initInternal(filterConfig);
     }
@@ -114,18 +146,29 @@ public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
         final String ticket = retrieveTicketFromRequest(request);
 
         if (CommonUtils.isNotBlank(ticket)) {
-            logger.debug("Attempting to validate ticket: {}", ticket);
-
             try {
-                final Assertion assertion = this.ticketValidator.validate(ticket,
-                    constructServiceUrl(request, response));
+                if (this.ticketPreValidator != null && !this.ticketPreValidator.isAcceptable(ticket)) {
+                    throw new TicketValidationException("Ticket '" + ticket + "' refused without contacting the CAS server.");
+                }
 
-                logger.debug("Successfully authenticated user: {}", assertion.getPrincipal().getName());
+                final Assertion assertion = getCasClient().validate(new ServletCasRequest(request),
+                    new ServletCasResponse(response), ticket);
 
-                request.setAttribute(CONST_CAS_ASSERTION, assertion);
+                final AssertionCookieCodec assertionCookieCodec = getAssertionCookieCodec();
+                final boolean cookieIssued = assertionCookieCodec != null
+                    && assertionCookieCodec.addCookie(request, response, assertion);
 
-                if (this.useSession) {
-                    request.getSession().setAttribute(CONST_CAS_ASSERTION, assertion);
+                // an assertion too large for its cookie falls back to the session
+                if (this.useSession || assertionCookieCodec != null && !cookieIssued) {
+                    final HttpSession session = request.getSession();
+                    getCasClient().storeAssertion(new ServletCasSession(session), assertion);
+
+                    if (this.principalSessionIndex != null) {
+                        this.principalSessionIndex.addSession(assertion.getPrincipal().getName(), session);
+                    }
+                }
+                if (this.ticketPreValidator != null) {
+                    this.ticketPreValidator.reject(ticket);
                 }
                 onSuccessfulValidation(request, response, assertion);
 
@@ -137,6 +180,10 @@ public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
             } catch (final TicketValidationException e) {
                 logger.debug(e.getMessage(), e);
 
+                // only a rejection by the CAS server is certain to recur; a missing or garbled response may not
+                if (this.ticketPreValidator != null && e instanceof InvalidTicketValidationException) {
+                    this.ticketPreValidator.reject(ticket);
+                }
                 onFailedValidation(request, response);
 
                 if (this.exceptionOnValidationFailure) {
@@ -154,7 +201,7 @@ public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
     }
 
     public final void setTicketValidator(final TicketValidator ticketValidator) {
-        this.ticketValidator = ticketValidator;
+        getCasClient().setTicketValidator(ticketValidator);
     }
 
     public final void setRedirectAfterValidation(final boolean redirectAfterValidation) {
@@ -169,6 +216,26 @@ public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
         this.useSession = useSession;
     }
 
+    /**
+     * @param principalSessionIndex the index recording the sessions of each principal, the same as the one of the
+     * single sign out handler; null to disable it.
+     */
+    public final void setPrincipalSessionIndex(final PrincipalSessionIndex principalSessionIndex) {
+        this.principalSessionIndex = principalSessionIndex;
+    }
+
+    public final void setTicketPreValidator(final TicketPreValidator ticketPreValidator) {
+        this.ticketPreValidator = ticketPreValidator;
+    }
+
+    /**
+     * @return the pre-validator refusing malformed and replayed tickets, whose counters can be monitored, or null if
+     * it is disabled.
+     */
+    public final TicketPreValidator getTicketPreValidator() {
+        return this.ticketPreValidator;
+    }
+
     /**
      * Template method to return the appropriate validator.
      *
@@ -176,7 +243,7 @@ public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
      * @return the ticket validator.
      */
     protected TicketValidator getTicketValidator(final FilterConfig filterConfig) {
-        return this.ticketValidator;
+        return getCasClient().getTicketValidator();
     }
 
     /**
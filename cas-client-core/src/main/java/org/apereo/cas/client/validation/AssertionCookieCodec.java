@@ -0,0 +1,419 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.authentication.AttributePrincipal;
+import org.apereo.cas.client.authentication.AttributePrincipalImpl;
+import org.apereo.cas.client.util.AbstractCasFilter;
+import org.apereo.cas.client.util.CommonUtils;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encodes an {@link Assertion} into a compact, encrypted and authenticated cookie, so that requests following a
+ * successful ticket validation can be authenticated locally without an HTTP session.
+ * <p>
+ * The cookie carries the principal name, the configured subset of its attributes and an expiry time, sealed with
+ * AES-GCM.  It is only as revocable as its lifetime: single sign out cannot reach it, so <code>maxAge</code> should be
+ * kept short.
+ * <p>
+ * Keys are base64 encoded random bytes, at least {@value #MIN_KEY_LENGTH} of them (128 bits), as generated by
+ * <code>openssl rand -base64 32</code>.  They are not stretched, so passwords or other guessable secrets are refused.
+ * Several keys may be configured to rotate them without logging users out: the first key seals new cookies while all
+ * of them are accepted.  A retired key should stay in the list for at least <code>maxAge</code> seconds.
+ * <p>
+ * Browsers reject cookies larger than about 4KB.  When the sealed assertion exceeds <code>maxSize</code> characters its
+ * attributes are left out; if it still does not fit no cookie is issued at all.
+ * <p>
+ * Only string representations of attribute values are kept, and single valued collections come back as lists.
+ *
+ * @since 4.0.0
+ */
+public final class AssertionCookieCodec {
+
+    /** Default name of the assertion cookie. */
+    public static final String DEFAULT_COOKIE_NAME = "CASASSERTION";
+
+    /** Default lifetime of the assertion cookie in seconds. */
+    public static final int DEFAULT_MAX_AGE = 3600;
+
+    /** Default maximum length of the cookie value, leaving room for the other cookie attributes within 4096 bytes. */
+    public static final int DEFAULT_MAX_SIZE = 3800;
+
+    private static final String CIPHER_ALGORITHM = "AES/GCM/NoPadding";
+
+    private static final int MIN_KEY_LENGTH = 16;
+
+    private static final byte VERSION = 1;
+
+    private static final int KEY_ID_LENGTH = 4;
+
+    private static final int IV_LENGTH = 12;
+
+    private static final int TAG_LENGTH = 16;
+
+    private static final int HEADER_LENGTH = 1 + KEY_ID_LENGTH + IV_LENGTH;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final SecretKeySpec[] keys;
+
+    private final byte[][] keyIds;
+
+    private String cookieName = DEFAULT_COOKIE_NAME;
+
+    private int maxAge = DEFAULT_MAX_AGE;
+
+    private int maxSize = DEFAULT_MAX_SIZE;
+
+    private Set<String> attributeNames = Collections.emptySet();
+
+    /**
+     * @param secretKeys comma or whitespace separated base64 encoded keys of at least 16 bytes; the first one seals new
+     *                   cookies.  CANNOT be blank.
+     */
+    public AssertionCookieCodec(final String secretKeys) {
+        CommonUtils.assertTrue(CommonUtils.isNotBlank(secretKeys), "secretKeys cannot be blank.");
+        final String[] secrets = secretKeys.trim().split("[\\s,]+");
+        this.keys = new SecretKeySpec[secrets.length];
+        this.keyIds = new byte[secrets.length][];
+        for (int i = 0; i < secrets.length; i++) {
+            final byte[] key = sha256(decodeKey(secrets[i]));
+            this.keys[i] = new SecretKeySpec(key, "AES");
+            this.keyIds[i] = Arrays.copyOf(sha256(key), KEY_ID_LENGTH);
+        }
+    }
+
+    public void setCookieName(final String cookieName) {
+        CommonUtils.assertTrue(CommonUtils.isNotBlank(cookieName), "cookieName cannot be blank.");
+        this.cookieName = cookieName;
+    }
+
+    /**
+     * @param maxAge the number of seconds an assertion cookie is accepted.
+     */
+    public void setMaxAge(final int maxAge) {
+        CommonUtils.assertTrue(maxAge > 0, "maxAge must be greater than zero.");
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * @param maxSize the maximum length of the cookie value in characters.
+     */
+    public void setMaxSize(final int maxSize) {
+        CommonUtils.assertTrue(maxSize > 0, "maxSize must be greater than zero.");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param attributeNames comma or whitespace separated names of the principal attributes to keep in the cookie.
+     */
+    public void setAttributeNames(final String attributeNames) {
+        if (CommonUtils.isBlank(attributeNames)) {
+            this.attributeNames = Collections.emptySet();
+            return;
+        }
+        this.attributeNames = Collections.unmodifiableSet(
+            new LinkedHashSet<String>(Arrays.asList(attributeNames.trim().split("[\\s,]+"))));
+    }
+
+    public String getCookieName() {
+        return this.cookieName;
+    }
+
+    /**
+     * Issues the assertion cookie.
+     *
+     * @param request the current request.
+     * @param response the current response.
+     * @param assertion the validated assertion.
+     * @return true if the cookie has been added to the response, false if the assertion is too large.
+     */
+    public boolean addCookie(final HttpServletRequest request, final HttpServletResponse response, final Assertion assertion) {
+        final long now = System.currentTimeMillis();
+        final String value = encode(assertion, now);
+        if (value == null) {
+            return false;
+        }
+        final long expires = expires(assertion, now);
+        final Cookie cookie = new Cookie(this.cookieName, value);
+        cookie.setMaxAge((int) Math.max((expires - now) / 1000, 1));
+        cookie.setHttpOnly(true);
+        cookie.setSecure(request.isSecure());
+        cookie.setPath(CommonUtils.isEmpty(request.getContextPath()) ? "/" : request.getContextPath());
+        cookie.setAttribute("SameSite", "Lax");
+        response.addCookie(cookie);
+        return true;
+    }
+
+    /**
+     * Returns the assertion of the request, decoding it from the cookie at most once per request.
+     *
+     * @param request the current request.
+     * @return the assertion, or null if the request carries no valid, unexpired assertion cookie.
+     */
+    public Assertion retrieveAssertion(final HttpServletRequest request) {
+        final Object current = request.getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION);
+        if (current instanceof Assertion) {
+            return (Assertion) current;
+        }
+        final Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (final Cookie cookie : cookies) {
+            if (this.cookieName.equals(cookie.getName())) {
+                final Assertion assertion = decode(cookie.getValue());
+                if (assertion != null) {
+                    request.setAttribute(AbstractCasFilter.CONST_CAS_ASSERTION, assertion);
+                    return assertion;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param assertion the assertion to seal.  CANNOT be NULL.
+     * @return the cookie value, or null if the assertion does not fit into <code>maxSize</code> characters.
+     */
+    public String encode(final Assertion assertion) {
+        return encode(assertion, System.currentTimeMillis());
+    }
+
+    /**
+     * @param value the cookie value.
+     * @return the assertion, or null if the value has been tampered with, was sealed with an unknown key or has expired.
+     */
+    public Assertion decode(final String value) {
+        if (CommonUtils.isBlank(value)) {
+            return null;
+        }
+        final byte[] sealed;
+        try {
+            sealed = Base64.getUrlDecoder().decode(value);
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+        if (sealed.length < HEADER_LENGTH + TAG_LENGTH || sealed[0] != VERSION) {
+            return null;
+        }
+        final SecretKeySpec key = findKey(sealed);
+        if (key == null) {
+            logger.debug("Assertion cookie was sealed with an unknown key");
+            return null;
+        }
+        try {
+            final Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH * 8, sealed, 1 + KEY_ID_LENGTH, IV_LENGTH));
+            cipher.updateAAD(sealed, 0, HEADER_LENGTH);
+            return deserialize(cipher.doFinal(sealed, HEADER_LENGTH, sealed.length - HEADER_LENGTH));
+        } catch (final GeneralSecurityException e) {
+            logger.debug("Rejecting assertion cookie: {}", e.getMessage());
+            return null;
+        } catch (final IOException e) {
+            logger.debug("Malformed assertion cookie: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private String encode(final Assertion assertion, final long now) {
+        final AttributePrincipal principal = assertion.getPrincipal();
+        final long expires = expires(assertion, now);
+        final Date authenticationDate = assertion.getAuthenticationDate();
+        final long authenticated = authenticationDate == null ? now : authenticationDate.getTime();
+
+        final Map<String, Object> attributes = selectAttributes(principal);
+        String value = seal(serialize(principal.getName(), now, expires, authenticated, attributes));
+        if (value.length() > this.maxSize && !attributes.isEmpty()) {
+            logger.warn("Assertion cookie for [{}] exceeds {} characters; leaving out its attributes.",
+                principal.getName(), this.maxSize);
+            value = seal(serialize(principal.getName(), now, expires, authenticated, Collections.<String, Object>emptyMap()));
+        }
+        if (value.length() > this.maxSize) {
+            logger.warn("Assertion cookie for [{}] exceeds {} characters; not issuing it.", principal.getName(), this.maxSize);
+            return null;
+        }
+        return value;
+    }
+
+    private long expires(final Assertion assertion, final long now) {
+        final long expires = now + this.maxAge * 1000L;
+        final Date validUntil = assertion.getValidUntilDate();
+        return validUntil == null ? expires : Math.min(expires, validUntil.getTime());
+    }
+
+    private Map<String, Object> selectAttributes(final AttributePrincipal principal) {
+        final Map<String, Object> principalAttributes = principal.getAttributes();
+        if (this.attributeNames.isEmpty() || principalAttributes == null) {
+            return Collections.emptyMap();
+        }
+        final Map<String, Object> attributes = new LinkedHashMap<String, Object>();
+        for (final String name : this.attributeNames) {
+            final Object value = principalAttributes.get(name);
+            if (value != null) {
+                attributes.put(name, value);
+            }
+        }
+        return attributes;
+    }
+
+    private String seal(final byte[] payload) {
+        final byte[] sealed = new byte[HEADER_LENGTH + payload.length + TAG_LENGTH];
+        sealed[0] = VERSION;
+        System.arraycopy(this.keyIds[0], 0, sealed, 1, KEY_ID_LENGTH);
+        final byte[] iv = new byte[IV_LENGTH];
+        this.random.nextBytes(iv);
+        System.arraycopy(iv, 0, sealed, 1 + KEY_ID_LENGTH, IV_LENGTH);
+        try {
+            final Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
+            cipher.init(Cipher.ENCRYPT_MODE, this.keys[0], new GCMParameterSpec(TAG_LENGTH * 8, iv));
+            cipher.updateAAD(sealed, 0, HEADER_LENGTH);
+            cipher.doFinal(payload, 0, payload.length, sealed, HEADER_LENGTH);
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sealed);
+    }
+
+    private SecretKeySpec findKey(final byte[] sealed) {
+        for (int i = 0; i < this.keys.length; i++) {
+            if (Arrays.equals(this.keyIds[i], 0, KEY_ID_LENGTH, sealed, 1, 1 + KEY_ID_LENGTH)) {
+                return this.keys[i];
+            }
+        }
+        return null;
+    }
+
+    private static byte[] serialize(final String name, final long issued, final long expires, final long authenticated,
+                                    final Map<String, Object> attributes) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(issued);
+            out.writeLong(expires);
+            out.writeLong(authenticated);
+            out.writeUTF(name);
+            out.writeShort(attributes.size());
+            for (final Map.Entry<String, Object> entry : attributes.entrySet()) {
+                out.writeUTF(entry.getKey());
+                if (entry.getValue() instanceof Collection<?>) {
+                    final Collection<?> values = (Collection<?>) entry.getValue();
+                    out.writeBoolean(true);
+                    out.writeShort(values.size());
+                    for (final Object value : values) {
+                        out.writeUTF(String.valueOf(value));
+                    }
+                } else {
+                    out.writeBoolean(false);
+                    out.writeUTF(String.valueOf(entry.getValue()));
+                }
+            }
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Assertion deserialize(final byte[] payload) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        final long issued = in.readLong();
+        final long expires = in.readLong();
+        final long authenticated = in.readLong();
+        if (expires <= System.currentTimeMillis()) {
+            return null;
+        }
+        final String name = in.readUTF();
+        final int attributeCount = in.readUnsignedShort();
+        final Map<String, Object> attributes = new LinkedHashMap<String, Object>(attributeCount * 2);
+        for (int i = 0; i < attributeCount; i++) {
+            final String attributeName = in.readUTF();
+            if (in.readBoolean()) {
+                final int valueCount = in.readUnsignedShort();
+                final List<Object> values = new ArrayList<Object>(valueCount);
+                for (int j = 0; j < valueCount; j++) {
+                    values.add(in.readUTF());
+                }
+                attributes.put(attributeName, values);
+            } else {
+                attributes.put(attributeName, in.readUTF());
+            }
+        }
+        return new AssertionImpl(new AttributePrincipalImpl(name, attributes), new Date(issued), new Date(expires),
+            new Date(authenticated), Collections.<String, Object>emptyMap());
+    }
+
+    /**
+     * Decodes a key in either the standard or the URL safe base64 alphabet.  Its bytes are hashed into the AES key,
+     * which spreads but does not add entropy, hence the minimum length.
+     */
+    private static byte[] decodeKey(final String secret) {
+        byte[] key;
+        try {
+            key = Base64.getDecoder().decode(secret);
+        } catch (final IllegalArgumentException e) {
+            try {
+                key = Base64.getUrlDecoder().decode(secret);
+            } catch (final IllegalArgumentException urlSafe) {
+                throw new IllegalArgumentException("assertion cookie keys must be base64 encoded.", e);
+            }
+        }
+        CommonUtils.assertTrue(key.length >= MIN_KEY_LENGTH,
+            "assertion cookie keys must be at least " + MIN_KEY_LENGTH + " bytes (128 bits) of random data.");
+        return key;
+    }
+
+    private static byte[] sha256(final byte[] value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
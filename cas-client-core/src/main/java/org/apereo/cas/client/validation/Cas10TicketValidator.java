@@ -42,8 +42,11 @@ public final class Cas10TicketValidator extends AbstractCasProtocolUrlBasedTicke
 
     @Override
     protected Assertion parseResponseFromServer(final String response) throws TicketValidationException {
+        if (response.startsWith("no")) {
+            throw new InvalidTicketValidationException("CAS Server could not validate ticket.");
+        }
         if (!response.startsWith("yes")) {
-            throw new TicketValidationException("CAS Server could not validate ticket.");
+            throw new TicketValidationException("Unable to parse response.");
         }
 
         try {
@@ -23,8 +23,10 @@ import org.apereo.cas.client.configuration.ConfigurationKeys;
 import org.apereo.cas.client.proxy.AbstractEncryptedProxyGrantingTicketStorageImpl;
 import org.apereo.cas.client.proxy.Cas20ProxyRetriever;
 import org.apereo.cas.client.proxy.CleanUpTimerTask;
+import org.apereo.cas.client.proxy.PrefetchingProxyRetriever;
 import org.apereo.cas.client.proxy.ProxyGrantingTicketStorage;
 import org.apereo.cas.client.proxy.ProxyGrantingTicketStorageImpl;
+import org.apereo.cas.client.proxy.ProxyRetriever;
 import org.apereo.cas.client.ssl.HttpURLConnectionFactory;
 import org.apereo.cas.client.ssl.HttpsURLConnectionFactory;
 import org.apereo.cas.client.util.CommonUtils;
@@ -77,7 +79,8 @@ public class Cas20ProxyReceivingTicketValidationFilter extends AbstractTicketVal
             ConfigurationKeys.PROXY_GRANTING_TICKET_STORAGE_CLASS.getName(), ConfigurationKeys.MILLIS_BETWEEN_CLEAN_UPS.getName(), ConfigurationKeys.ACCEPT_ANY_PROXY.getName(),
             ConfigurationKeys.ALLOWED_PROXY_CHAINS.getName(), ConfigurationKeys.TICKET_VALIDATOR_CLASS.getName(),
             ConfigurationKeys.PROXY_CALLBACK_URL.getName(), ConfigurationKeys.RELAY_STATE_PARAMETER_NAME.getName(), ConfigurationKeys.METHOD.getName(),
-            ConfigurationKeys.PRIVATE_KEY_PATH.getName(), ConfigurationKeys.PRIVATE_KEY_ALGORITHM.getName()
+            ConfigurationKeys.PRIVATE_KEY_PATH.getName(), ConfigurationKeys.PRIVATE_KEY_ALGORITHM.getName(),
+            ConfigurationKeys.PROXY_TICKET_PREFETCH_SIZE.getName()
         };
 
     protected Class<? extends Cas20ServiceTicketValidator> defaultServiceTicketValidatorClass;
@@ -97,6 +100,11 @@ public class Cas20ProxyReceivingTicketValidationFilter extends AbstractTicketVal
 
     private PrivateKey privateKey;
 
+    /**
+     * Retriever that prefetches proxy tickets, if enabled via {@link ConfigurationKeys#PROXY_TICKET_PREFETCH_SIZE}.
+     */
+    private PrefetchingProxyRetriever prefetchingProxyRetriever;
+
     /**
      * Storage location of ProxyGrantingTickets and Proxy Ticket IOUs.
      */
@@ -197,7 +205,14 @@ public class Cas20ProxyReceivingTicketValidationFilter extends AbstractTicketVal
             getSSLConfig());
         validator.setURLConnectionFactory(factory);
 
-        validator.setProxyRetriever(new Cas20ProxyRetriever(casServerUrlPrefix, getString(ConfigurationKeys.ENCODING), factory));
+        final ProxyRetriever proxyRetriever = new Cas20ProxyRetriever(casServerUrlPrefix, getString(ConfigurationKeys.ENCODING), factory);
+        final int prefetchSize = getInt(ConfigurationKeys.PROXY_TICKET_PREFETCH_SIZE);
+        if (prefetchSize > 0) {
+            this.prefetchingProxyRetriever = new PrefetchingProxyRetriever(proxyRetriever, prefetchSize);
+            validator.setProxyRetriever(this.prefetchingProxyRetriever);
+        } else {
+            validator.setProxyRetriever(proxyRetriever);
+        }
         validator.setRenew(getBoolean(ConfigurationKeys.RENEW));
         validator.setEncoding(getString(ConfigurationKeys.ENCODING));
 
@@ -246,6 +261,9 @@ public class Cas20ProxyReceivingTicketValidationFilter extends AbstractTicketVal
     public void destroy() {
         super.destroy();
         this.timer.cancel();
+        if (this.prefetchingProxyRetriever != null) {
+            this.prefetchingProxyRetriever.destroy();
+        }
     }
 
     public final void setProxyReceptorUrl(final String proxyReceptorUrl) {
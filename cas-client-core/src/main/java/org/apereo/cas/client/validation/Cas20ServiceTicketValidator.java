@@ -107,7 +107,7 @@ public class Cas20ServiceTicketValidator extends AbstractCasProtocolUrlBasedTick
         final String error = parseAuthenticationFailureFromResponse(response);
 
         if (CommonUtils.isNotBlank(error)) {
-            throw new TicketValidationException(error);
+            throw new InvalidTicketValidationException(error);
         }
 
         final String principal = parsePrincipalFromResponse(response);
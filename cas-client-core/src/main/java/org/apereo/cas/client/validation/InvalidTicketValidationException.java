@@ -0,0 +1,42 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+/**
+ * Exception denoting that the CAS server itself rejected the ticket, i.e. answered with an authentication failure such
+ * as <code>INVALID_TICKET</code>.  Unlike other validation failures, such as a missing or unparsable response, asking
+ * the CAS server again cannot succeed.
+ *
+ * @since 4.0.0
+ */
+public final class InvalidTicketValidationException extends TicketValidationException {
+
+    /**
+     * Unique Id for Serialization
+     */
+    private static final long serialVersionUID = 3571296620473315410L;
+
+    /**
+     * Constructs an exception with the supplied message.
+     * @param string the supplied message.
+     */
+    public InvalidTicketValidationException(final String string) {
+        super(string);
+    }
+}
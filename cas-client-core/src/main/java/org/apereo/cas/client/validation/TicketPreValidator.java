@@ -0,0 +1,252 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Refuses tickets locally that the CAS server would reject anyway, so that scanners replaying garbage or already used
+ * tickets do not cause a validation round-trip each.
+ * <p>
+ * A ticket is refused if
+ * <ul>
+ * <li>it is malformed: shorter than <code>minLength</code>, longer than <code>maxLength</code>, containing characters
+ * other than letters, digits and <code>-._~+/=</code>, or not starting with one of the configured prefixes, or</li>
+ * <li>it has been rejected by the CAS server, as signalled by an {@link InvalidTicketValidationException}, or already
+ * consumed, within the last <code>cacheTimeToLive</code> seconds.  Service and proxy tickets are single use, so neither
+ * can succeed again.  Failures to reach the CAS server or to understand its response are not remembered.</li>
+ * </ul>
+ * The cache of rejected tickets holds at most <code>cacheSize</code> entries.  All entries live equally long, so the
+ * insertion order is also the expiry order, and expired or excess entries are dropped from its head whenever a ticket is
+ * added.
+ *
+ * @since 4.0.0
+ */
+public final class TicketPreValidator {
+
+    /** Default minimum length of a ticket. */
+    public static final int DEFAULT_MIN_LENGTH = 1;
+
+    /** Default maximum length of a ticket. */
+    public static final int DEFAULT_MAX_LENGTH = 256;
+
+    /** Default time in seconds a rejected ticket is remembered. */
+    public static final int DEFAULT_CACHE_TIME_TO_LIVE = 60;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final ConcurrentMap<String, Entry> rejected = new ConcurrentHashMap<String, Entry>();
+
+    /**
+     * Entries in insertion order, used for expiry and eviction.  May contain entries that have already been removed.
+     */
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<Entry>();
+
+    private final AtomicLong malformed = new AtomicLong();
+
+    private final AtomicLong replayed = new AtomicLong();
+
+    private final AtomicLong recorded = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private String[] prefixes = new String[0];
+
+    private int minLength = DEFAULT_MIN_LENGTH;
+
+    private int maxLength = DEFAULT_MAX_LENGTH;
+
+    private volatile int cacheSize;
+
+    private volatile long cacheTimeToLive = TimeUnit.SECONDS.toMillis(DEFAULT_CACHE_TIME_TO_LIVE);
+
+    /**
+     * @param prefixes comma or whitespace separated prefixes a ticket must start with, i.e. <code>ST-,PT-</code>.  Blank
+     * to accept any prefix.
+     */
+    public void setPrefixes(final String prefixes) {
+        this.prefixes = CommonUtils.isBlank(prefixes) ? new String[0] : prefixes.trim().split("[\\s,]+");
+    }
+
+    public void setMinLength(final int minLength) {
+        CommonUtils.assertTrue(minLength > 0, "minLength must be greater than zero.");
+        this.minLength = minLength;
+    }
+
+    public void setMaxLength(final int maxLength) {
+        CommonUtils.assertTrue(maxLength > 0, "maxLength must be greater than zero.");
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * @param cacheSize the maximum number of rejected tickets remembered, 0 to remember none.
+     */
+    public void setCacheSize(final int cacheSize) {
+        CommonUtils.assertTrue(cacheSize >= 0, "cacheSize cannot be negative.");
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * @param cacheTimeToLive the number of seconds a rejected ticket is remembered.
+     */
+    public void setCacheTimeToLive(final int cacheTimeToLive) {
+        CommonUtils.assertTrue(cacheTimeToLive > 0, "cacheTimeToLive must be greater than zero.");
+        this.cacheTimeToLive = TimeUnit.SECONDS.toMillis(cacheTimeToLive);
+    }
+
+    /**
+     * @param ticket the ticket of the current request.
+     * @return true if the ticket is worth validating with the CAS server, false if it is malformed or known to fail.
+     */
+    public boolean isAcceptable(final String ticket) {
+        if (!isWellFormed(ticket)) {
+            this.malformed.incrementAndGet();
+            logger.debug("Refusing malformed ticket [{}]", ticket);
+            return false;
+        }
+        final Entry entry = this.rejected.get(ticket);
+        if (entry == null) {
+            return true;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            this.rejected.remove(ticket, entry);
+            return true;
+        }
+        this.replayed.incrementAndGet();
+        logger.debug("Refusing ticket [{}] which has already been rejected or consumed", ticket);
+        return false;
+    }
+
+    /**
+     * Remembers a ticket that has been rejected by the CAS server or consumed.  Malformed tickets are not remembered, as
+     * they are refused anyway, and remembering a ticket again does not extend its lifetime.
+     *
+     * @param ticket the ticket.
+     */
+    public void reject(final String ticket) {
+        if (this.cacheSize == 0 || !isWellFormed(ticket)) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        final Entry entry = new Entry(ticket, now + this.cacheTimeToLive);
+        if (this.rejected.putIfAbsent(ticket, entry) == null) {
+            this.insertionOrder.offer(entry);
+            this.recorded.incrementAndGet();
+            removeExpiredAndExcess(now);
+        }
+    }
+
+    public int size() {
+        return this.rejected.size();
+    }
+
+    /**
+     * @return the number of tickets refused because they are malformed.
+     */
+    public long getMalformedCount() {
+        return this.malformed.get();
+    }
+
+    /**
+     * @return the number of tickets refused because they have already been rejected or consumed.
+     */
+    public long getReplayedCount() {
+        return this.replayed.get();
+    }
+
+    /**
+     * @return the number of tickets remembered as rejected or consumed.
+     */
+    public long getRejectedCount() {
+        return this.recorded.get();
+    }
+
+    /**
+     * @return the number of remembered tickets dropped before they expired because the cache was full.
+     */
+    public long getEvictionCount() {
+        return this.evictions.get();
+    }
+
+    private boolean isWellFormed(final String ticket) {
+        final int length = ticket.length();
+        if (length < this.minLength || length > this.maxLength) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (!isTicketCharacter(ticket.charAt(i))) {
+                return false;
+            }
+        }
+        if (this.prefixes.length == 0) {
+            return true;
+        }
+        for (final String prefix : this.prefixes) {
+            if (ticket.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ticket ids are made of letters, digits and dashes, possibly followed by a host name suffix; SAML artifacts are
+     * base64 encoded.
+     */
+    private static boolean isTicketCharacter(final char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+            || c == '-' || c == '.' || c == '_' || c == '~' || c == '+' || c == '/' || c == '=';
+    }
+
+    private void removeExpiredAndExcess(final long now) {
+        Entry head;
+        while ((head = this.insertionOrder.peek()) != null
+            && (head.isExpired(now) || this.rejected.size() > this.cacheSize)) {
+            if (this.insertionOrder.remove(head) && this.rejected.remove(head.ticket, head) && !head.isExpired(now)) {
+                this.evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final String ticket;
+
+        private final long expiresAt;
+
+        Entry(final String ticket, final long expiresAt) {
+            this.ticket = ticket;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(final long now) {
+            return now >= this.expiresAt;
+        }
+    }
+}
@@ -19,6 +19,7 @@
 package org.apereo.cas.client.validation.json;
 
 import org.apereo.cas.client.util.CommonUtils;
+import org.apereo.cas.client.validation.InvalidTicketValidationException;
 import org.apereo.cas.client.validation.TicketValidationException;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -55,7 +56,7 @@ final class JsonValidationResponseParser {
         if (serviceResponse.getAuthenticationFailure() != null) {
             final String error = json.getServiceResponse().getAuthenticationFailure().getCode()
                                  + " - " + serviceResponse.getAuthenticationFailure().getDescription();
-            throw new TicketValidationException(error);
+            throw new InvalidTicketValidationException(error);
         }
 
         final String principal = json.getServiceResponse().getAuthenticationSuccess().getUser();
@@ -18,6 +18,7 @@
  */
 package org.apereo.cas.client.authentication;
 
+import org.apereo.cas.client.engine.CasClient;
 import org.apereo.cas.client.util.AbstractCasFilter;
 import org.apereo.cas.client.validation.AssertionImpl;
 
@@ -211,9 +212,9 @@ public final class AuthenticationFilterTests {
         context.addInitParameter("service", CAS_SERVICE_URL);
         context.addInitParameter("renew", "true");
         f.init(new MockFilterConfig(context));
-        final Field renewField = AuthenticationFilter.class.getDeclaredField("renew");
-        renewField.setAccessible(true);
-        assertTrue((Boolean) renewField.get(f));
+        final Field casClientField = AbstractCasFilter.class.getDeclaredField("casClient");
+        casClientField.setAccessible(true);
+        assertTrue(((CasClient) casClientField.get(f)).isRenew());
     }
 
     @Test
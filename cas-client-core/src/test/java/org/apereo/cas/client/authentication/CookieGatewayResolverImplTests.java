@@ -0,0 +1,144 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.authentication;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link CookieGatewayResolverImpl}.
+ *
+ * @since 4.0.0
+ */
+public class CookieGatewayResolverImplTests {
+
+    private static final String SERVICE = "https://localhost:8443/service";
+
+    private static final String SECRET_KEY = "74u+lwHqNUAxQOVa3AQoptBSf6oqDsgGLV5syh/dJnM=";
+
+    private final CookieGatewayResolverImpl resolver = new CookieGatewayResolverImpl();
+
+    @Test
+    public void recordsGatewayInSignedCookie() {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        request.setSecure(true);
+
+        assertFalse(this.resolver.hasGatewayedAlready(request, SERVICE));
+        assertEquals(SERVICE, this.resolver.storeGatewayInformation(request, response, SERVICE));
+
+        final Cookie cookie = response.getCookie(CookieGatewayResolverImpl.DEFAULT_COOKIE_NAME);
+        assertNotNull(cookie);
+        assertTrue(cookie.isHttpOnly());
+        assertTrue(cookie.getSecure());
+        assertEquals(CookieGatewayResolverImpl.DEFAULT_MAX_AGE, cookie.getMaxAge());
+        assertNull(request.getSession(false));
+
+        final MockHttpServletRequest next = new MockHttpServletRequest();
+        next.setCookies(cookie);
+        assertTrue(this.resolver.hasGatewayedAlready(next, SERVICE));
+    }
+
+    @Test
+    public void rejectsTamperedOrForeignCookies() {
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        this.resolver.storeGatewayInformation(new MockHttpServletRequest(), response, SERVICE);
+        final String value = response.getCookie(CookieGatewayResolverImpl.DEFAULT_COOKIE_NAME).getValue();
+        final String signature = value.substring(value.indexOf('.'));
+
+        final MockHttpServletRequest tampered = new MockHttpServletRequest();
+        tampered.setCookies(new Cookie(CookieGatewayResolverImpl.DEFAULT_COOKIE_NAME, Long.MAX_VALUE + signature));
+        assertFalse(this.resolver.hasGatewayedAlready(tampered, SERVICE));
+
+        final CookieGatewayResolverImpl other = new CookieGatewayResolverImpl();
+        final MockHttpServletRequest foreign = new MockHttpServletRequest();
+        foreign.setCookies(new Cookie(CookieGatewayResolverImpl.DEFAULT_COOKIE_NAME, value));
+        assertFalse(other.hasGatewayedAlready(foreign, SERVICE));
+
+        other.setSecretKey(SECRET_KEY);
+        this.resolver.setSecretKey(SECRET_KEY);
+        final MockHttpServletResponse shared = new MockHttpServletResponse();
+        this.resolver.storeGatewayInformation(new MockHttpServletRequest(), shared, SERVICE);
+        final MockHttpServletRequest clustered = new MockHttpServletRequest();
+        clustered.setCookies(shared.getCookie(CookieGatewayResolverImpl.DEFAULT_COOKIE_NAME));
+        assertTrue(other.hasGatewayedAlready(clustered, SERVICE));
+    }
+
+    @Test
+    public void rejectsWeakSecretKeys() {
+        for (final String secretKey : new String[] {"a", "secret", "c2hvcnQta2V5"}) {
+            try {
+                this.resolver.setSecretKey(secretKey);
+                fail("IllegalArgumentException expected.");
+            } catch (final IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void recordsGatewayInServiceUrlWithoutResponse() {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+
+        final String serviceUrl = this.resolver.storeGatewayInformation(request, SERVICE + "?page=1");
+        assertTrue(serviceUrl.startsWith(SERVICE + "?page=1&" + CookieGatewayResolverImpl.DEFAULT_COOKIE_NAME + "="));
+        assertNull(request.getSession(false));
+
+        final String query = serviceUrl.substring(serviceUrl.indexOf('?') + 1);
+        final MockHttpServletRequest back = new MockHttpServletRequest("GET", "/service");
+        back.setQueryString(query);
+        back.addParameter("page", "1");
+        back.addParameter(CookieGatewayResolverImpl.DEFAULT_COOKIE_NAME,
+            query.substring(query.indexOf('=', query.indexOf('&')) + 1));
+        assertTrue(this.resolver.hasGatewayedAlready(back, serviceUrl));
+        assertFalse(new CookieGatewayResolverImpl().hasGatewayedAlready(back, serviceUrl));
+    }
+
+    @Test
+    public void gatewaysWithoutCreatingSession() throws Exception {
+        final AuthenticationFilter filter = new AuthenticationFilter();
+        final MockFilterConfig config = new MockFilterConfig();
+        config.addInitParameter("casServerLoginUrl", "https://cas.example.com/login");
+        config.addInitParameter("service", SERVICE);
+        config.addInitParameter("gateway", "true");
+        config.addInitParameter("gatewayStorageClass", CookieGatewayResolverImpl.class.getName());
+        config.addInitParameter("gatewaySecretKey", SECRET_KEY);
+        filter.init(config);
+
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        assertNotNull(response.getRedirectedUrl());
+        assertTrue(response.getRedirectedUrl().contains("gateway=true"));
+
+        final MockHttpServletRequest back = new MockHttpServletRequest();
+        back.setCookies(response.getCookies());
+        final MockHttpServletResponse response2 = new MockHttpServletResponse();
+        filter.doFilter(back, response2, new MockFilterChain());
+        assertNull(response2.getRedirectedUrl());
+        assertNull(request.getSession(false));
+        assertNull(back.getSession(false));
+    }
+}
@@ -21,6 +21,7 @@ package org.apereo.cas.client.authentication;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockHttpSession;
 
 import static org.junit.Assert.*;
@@ -67,4 +68,11 @@ public class DefaultGatewayResolverImplTests {
         assertTrue(this.resolver.hasGatewayedAlready(request2, "def"));
 
     }
+
+    @Test
+    public void testResponseAwareStoreFallsBackToRequestOnlyStore() throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        assertEquals("foo", this.resolver.storeGatewayInformation(request, new MockHttpServletResponse(), "foo"));
+        assertTrue(this.resolver.hasGatewayedAlready(request, "foo"));
+    }
 }
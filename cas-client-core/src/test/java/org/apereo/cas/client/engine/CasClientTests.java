@@ -0,0 +1,235 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.engine;
+
+import org.apereo.cas.client.Protocol;
+import org.apereo.cas.client.session.LogoutMessageGenerator;
+import org.apereo.cas.client.validation.Assertion;
+import org.apereo.cas.client.validation.AssertionImpl;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link CasClient}.
+ *
+ * @since 4.0.0
+ */
+public class CasClientTests {
+
+    private final CasClient client = new CasClient(Protocol.CAS2);
+
+    @Test
+    public void constructsServiceUrlFromServerName() {
+        this.client.setServerName("www.example.com");
+        final SimpleRequest request = new SimpleRequest("GET", "/app/page", "ticket=ST-1&a=b");
+        request.port = 8443;
+
+        assertEquals("https://www.example.com:8443/app/page?a=b",
+            this.client.constructServiceUrl(request, new SimpleResponse()));
+    }
+
+    @Test
+    public void prefersConfiguredService() {
+        this.client.setService("https://www.example.com/app");
+        final SimpleRequest request = new SimpleRequest("GET", "/other", "ticket=ST-1");
+
+        assertEquals("https://www.example.com/app", this.client.constructServiceUrl(request, new SimpleResponse()));
+    }
+
+    @Test
+    public void picksServerNameMatchingForwardedHost() {
+        final SimpleRequest request = new SimpleRequest("GET", "/app", null);
+        request.headers.put("Host", "internal.example.com");
+        request.headers.put("X-Forwarded-Host", "b.example.com");
+
+        assertEquals("https://b.example.com",
+            CasClient.findMatchingServerName(request, "https://a.example.com https://b.example.com"));
+    }
+
+    @Test
+    public void retrievesTicketFromQueryStringOnly() {
+        final SimpleRequest get = new SimpleRequest("GET", "/app", "a=b");
+        get.parameters.put("ticket", "ST-1");
+        assertNull(this.client.retrieveTicket(get));
+
+        final SimpleRequest post = new SimpleRequest("POST", "/app", null);
+        post.parameters.put("ticket", "ST-1");
+        assertEquals("ST-1", this.client.retrieveTicket(post));
+    }
+
+    @Test
+    public void decidesLoginRedirect() {
+        assertTrue(this.client.requiresLoginRedirect(null, null, false));
+        assertFalse(this.client.requiresLoginRedirect(new AssertionImpl("alice"), null, false));
+        assertFalse(this.client.requiresLoginRedirect(null, "ST-1", false));
+        assertTrue(this.client.requiresLoginRedirect(null, null, true));
+
+        this.client.setGateway(true);
+        assertFalse(this.client.requiresLoginRedirect(null, null, true));
+    }
+
+    @Test
+    public void constructsLoginUrl() {
+        this.client.setCasServerLoginUrl("https://cas.example.com/login");
+        this.client.setRenew(true);
+
+        assertEquals("https://cas.example.com/login?service=https%3A%2F%2Fwww.example.com%2Fapp&renew=true",
+            this.client.constructLoginUrl("https://www.example.com/app"));
+    }
+
+    @Test
+    public void validatesTicketAgainstServiceUrl() throws Exception {
+        this.client.setServerName("www.example.com");
+        this.client.setTicketValidator((ticket, service) -> {
+            assertEquals("ST-1", ticket);
+            assertEquals("https://www.example.com/app", service);
+            return new AssertionImpl("alice");
+        });
+        final SimpleRequest request = new SimpleRequest("GET", "/app", "ticket=ST-1");
+        final SimpleSession session = new SimpleSession();
+
+        final Assertion assertion = this.client.validate(request, new SimpleResponse(), "ST-1");
+        this.client.storeAssertion(session, assertion);
+
+        assertSame(assertion, request.attributes.get(CasClient.CONST_CAS_ASSERTION));
+        assertSame(assertion, this.client.getAssertion(session));
+        assertNull(this.client.getAssertion(null));
+    }
+
+    @Test
+    public void extractsSessionIndexFromLogoutMessages() {
+        assertEquals("ST-1", CasClient.extractSessionIndex(LogoutMessageGenerator.generateBackChannelLogoutMessage("ST-1")));
+        assertEquals("ST-2", CasClient.extractSessionIndex(LogoutMessageGenerator.generateFrontChannelLogoutMessage("ST-2")));
+        assertNull(CasClient.extractSessionIndex("not base64!"));
+    }
+
+    private static final class SimpleRequest implements CasRequest {
+
+        private final String method;
+
+        private final String requestUri;
+
+        private final String queryString;
+
+        private final Map<String, String> headers = new HashMap<String, String>();
+
+        private final Map<String, String> parameters = new HashMap<String, String>();
+
+        private final Map<String, Object> attributes = new HashMap<String, Object>();
+
+        private int port = 443;
+
+        SimpleRequest(final String method, final String requestUri, final String queryString) {
+            this.method = method;
+            this.requestUri = requestUri;
+            this.queryString = queryString;
+        }
+
+        @Override
+        public String getMethod() {
+            return this.method;
+        }
+
+        @Override
+        public String getScheme() {
+            return "https";
+        }
+
+        @Override
+        public boolean isSecure() {
+            return true;
+        }
+
+        @Override
+        public int getServerPort() {
+            return this.port;
+        }
+
+        @Override
+        public String getRequestURI() {
+            return this.requestUri;
+        }
+
+        @Override
+        public String getQueryString() {
+            return this.queryString;
+        }
+
+        @Override
+        public String getHeader(final String name) {
+            return this.headers.get(name);
+        }
+
+        @Override
+        public String getParameter(final String name) {
+            return this.parameters.get(name);
+        }
+
+        @Override
+        public void setAttribute(final String name, final Object value) {
+            this.attributes.put(name, value);
+        }
+    }
+
+    private static final class SimpleResponse implements CasResponse {
+
+        @Override
+        public String encodeURL(final String url) {
+            return url;
+        }
+
+        @Override
+        public void sendRedirect(final String url) {
+        }
+
+        @Override
+        public void sendError(final int status, final String message) {
+        }
+    }
+
+    private static final class SimpleSession implements CasSession {
+
+        private final Map<String, Object> attributes = new HashMap<String, Object>();
+
+        @Override
+        public String getId() {
+            return "1";
+        }
+
+        @Override
+        public Object getAttribute(final String name) {
+            return this.attributes.get(name);
+        }
+
+        @Override
+        public void setAttribute(final String name, final Object value) {
+            this.attributes.put(name, value);
+        }
+
+        @Override
+        public void invalidate() {
+            this.attributes.clear();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.jaas;
+
+import org.apereo.cas.client.authentication.AttributePrincipalImpl;
+import org.apereo.cas.client.validation.Assertion;
+import org.apereo.cas.client.validation.AssertionImpl;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 4.0.0
+ */
+public final class AssertionCacheTests {
+
+    private final AssertionCache cache = new AssertionCache(3);
+
+    @Test
+    public void hitsAndMissesAreCounted() {
+        final Assertion assertion = new AssertionImpl("alice");
+        this.cache.put(new TicketCredential("ST-1"), assertion, 1, TimeUnit.MINUTES);
+
+        assertSame(assertion, this.cache.get(new TicketCredential("ST-1")));
+        assertNull(this.cache.get(new TicketCredential("ST-2")));
+        assertEquals(1, this.cache.getHitCount());
+        assertEquals(1, this.cache.getMissCount());
+    }
+
+    @Test
+    public void expiredAssertionIsNeverReturned() {
+        this.cache.put(new TicketCredential("ST-1"), assertionValidFrom(System.currentTimeMillis() - 2000), 1, TimeUnit.SECONDS);
+
+        assertNull(this.cache.get(new TicketCredential("ST-1")));
+        assertEquals(1, this.cache.getExpirationCount());
+        assertEquals(0, this.cache.size());
+    }
+
+    @Test
+    public void backgroundCleanupRemovesExpiredEntries() {
+        this.cache.put(new TicketCredential("ST-1"), assertionValidFrom(System.currentTimeMillis() - 2000), 1, TimeUnit.SECONDS);
+        this.cache.put(new TicketCredential("ST-2"), new AssertionImpl("bob"), 1, TimeUnit.MINUTES);
+        this.cache.removeExpired();
+
+        assertEquals(1, this.cache.size());
+        assertEquals(1, this.cache.getExpirationCount());
+    }
+
+    @Test
+    public void oldestEntriesAreEvicted() {
+        for (int i = 1; i <= 5; i++) {
+            this.cache.put(new TicketCredential("ST-" + i), new AssertionImpl("user" + i), 1, TimeUnit.MINUTES);
+        }
+
+        assertEquals(3, this.cache.size());
+        assertEquals(2, this.cache.getEvictionCount());
+        assertNull(this.cache.get(new TicketCredential("ST-1")));
+        assertNotNull(this.cache.get(new TicketCredential("ST-5")));
+    }
+
+    @Test
+    public void cachingSameAssertionAgainKeepsItsLifetime() {
+        final Assertion assertion = new AssertionImpl("alice");
+        final TicketCredential ticket = new TicketCredential("ST-1");
+        for (int i = 0; i < 10; i++) {
+            this.cache.put(ticket, assertion, 1, TimeUnit.MINUTES);
+        }
+
+        assertEquals(1, this.cache.size());
+        assertEquals(0, this.cache.getEvictionCount());
+    }
+
+    @Test
+    public void mapViewReadsAndWritesCache() {
+        final Map<TicketCredential, Assertion> map = this.cache.asMap(1, TimeUnit.SECONDS);
+        final Assertion alice = new AssertionImpl("alice");
+        map.put(new TicketCredential("ST-1"), alice);
+        this.cache.put(new TicketCredential("ST-2"), assertionValidFrom(System.currentTimeMillis() - 2000), 1, TimeUnit.SECONDS);
+
+        assertSame(alice, this.cache.get(new TicketCredential("ST-1")));
+        assertSame(alice, map.get(new TicketCredential("ST-1")));
+        assertFalse(map.containsKey(new TicketCredential("ST-2")));
+        assertEquals(1, map.entrySet().size());
+
+        final Iterator<Map.Entry<TicketCredential, Assertion>> iterator = map.entrySet().iterator();
+        assertEquals(new TicketCredential("ST-1"), iterator.next().getKey());
+        iterator.remove();
+        assertFalse(iterator.hasNext());
+        assertNull(this.cache.get(new TicketCredential("ST-1")));
+    }
+
+    private static Assertion assertionValidFrom(final long validFrom) {
+        return new AssertionImpl(new AttributePrincipalImpl("alice"), new Date(validFrom), null, new Date(validFrom),
+            Collections.<String, Object>emptyMap());
+    }
+}
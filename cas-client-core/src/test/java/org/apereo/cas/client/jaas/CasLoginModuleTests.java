@@ -21,6 +21,7 @@ package org.apereo.cas.client.jaas;
 import org.apereo.cas.client.PublicTestHttpServer;
 import org.apereo.cas.client.validation.Cas20ServiceTicketValidator;
 import org.apereo.cas.client.validation.TicketValidationException;
+import org.apereo.cas.client.validation.TicketValidator;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -32,6 +33,7 @@ import java.security.Principal;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import static org.junit.Assert.*;
 
@@ -240,6 +242,23 @@ public class CasLoginModuleTests {
         }
     }
 
+    @Test
+    public void testTicketValidatorIsReusedForSameOptions() throws Exception {
+        module.initialize(subject, new ServiceAndTicketCallbackHandler("https://example.com/service", "ST-1"),
+            new HashMap<String, Object>(), options);
+        final TicketValidator validator = module.ticketValidator;
+
+        final CasLoginModule other = new CasLoginModule();
+        other.initialize(new Subject(), new ServiceAndTicketCallbackHandler("https://example.com/service", "ST-2"),
+            new HashMap<String, Object>(), new TreeMap<String, String>(options));
+        assertSame(validator, other.ticketValidator);
+
+        options.put("renew", "false");
+        other.initialize(new Subject(), new ServiceAndTicketCallbackHandler("https://example.com/service", "ST-3"),
+            new HashMap<String, Object>(), options);
+        assertNotSame(validator, other.ticketValidator);
+    }
+
     private boolean hasPrincipalName(final Subject subject, final Class<? extends Principal> principalClass,
                                      final String name) {
         final Set<? extends Principal> principals = subject.getPrincipals(principalClass);
@@ -0,0 +1,104 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.proxy;
+
+import org.apereo.cas.client.PublicTestHttpServer;
+import org.apereo.cas.client.authentication.AttributePrincipal;
+import org.apereo.cas.client.authentication.AttributePrincipalImpl;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for the batch retrieval of proxy tickets.
+ *
+ * @since 4.0.0
+ */
+public final class Cas20ProxyRetrieverTests {
+
+    private static final PublicTestHttpServer server = PublicTestHttpServer.instance(8093);
+
+    private static final String SUCCESS = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>"
+                                          + "<cas:proxySuccess><cas:proxyTicket>PT-1</cas:proxyTicket></cas:proxySuccess>"
+                                          + "</cas:serviceResponse>";
+
+    private static final String FAILURE = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>"
+                                          + "<cas:proxyFailure code=\"UNAUTHORIZED_SERVICE\">"
+                                          + " Service https://a may not be proxied </cas:proxyFailure>"
+                                          + "</cas:serviceResponse>";
+
+    @AfterClass
+    public static void cleanUp() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void batchRetrievalReturnsTicketPerService() throws Exception {
+        server.content = SUCCESS.getBytes(server.encoding);
+        final ProxyRetriever retriever = new Cas20ProxyRetriever("http://localhost:8093/cas", "UTF-8", null);
+
+        final Map<String, ProxyTicketResult> results = retriever.getProxyTicketIdsFor("PGT-1",
+            Arrays.asList("https://a", "https://b", "https://c"));
+
+        assertEquals(Arrays.asList("https://a", "https://b", "https://c"), Arrays.asList(results.keySet().toArray()));
+        for (final ProxyTicketResult result : results.values()) {
+            assertTrue(result.isSuccessful());
+            assertEquals("PT-1", result.getProxyTicket());
+        }
+    }
+
+    @Test
+    public void batchRetrievalKeepsProxyFailureReason() throws Exception {
+        server.content = FAILURE.getBytes(server.encoding);
+        final Cas20ProxyRetriever retriever = new Cas20ProxyRetriever("http://localhost:8093/cas", "UTF-8", null);
+
+        final ProxyTicketResult result = retriever.getProxyTicketIdsFor("PGT-1",
+            Collections.singletonList("https://a")).get("https://a");
+
+        assertFalse(result.isSuccessful());
+        assertNull(result.getException());
+        assertEquals("UNAUTHORIZED_SERVICE", result.getFailureCode());
+        assertEquals("Service https://a may not be proxied", result.getFailureMessage());
+        assertNull(retriever.getProxyTicketIdFor("PGT-1", "https://a"));
+    }
+
+    @Test
+    public void failuresAreReportedPerService() {
+        final ProxyRetriever retriever = (pgt, service) -> {
+            if (service.equals("https://broken")) {
+                throw new IllegalStateException("unreachable");
+            }
+            return "PT-" + service;
+        };
+        final AttributePrincipal principal = new AttributePrincipalImpl("alice", Collections.<String, Object>emptyMap(),
+            "PGT-1", retriever);
+
+        final Map<String, ProxyTicketResult> results = principal.getProxyTicketsFor(Arrays.asList("https://ok", "https://broken"));
+
+        assertEquals("PT-https://ok", results.get("https://ok").getProxyTicket());
+        assertFalse(results.get("https://broken").isSuccessful());
+        assertTrue(results.get("https://broken").getException() instanceof IllegalStateException);
+    }
+}
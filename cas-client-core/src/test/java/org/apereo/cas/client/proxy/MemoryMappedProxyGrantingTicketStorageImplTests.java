@@ -0,0 +1,150 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.proxy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link MemoryMappedProxyGrantingTicketStorageImpl}.
+ *
+ * @since 4.0.0
+ */
+public class MemoryMappedProxyGrantingTicketStorageImplTests {
+
+    private static final int TIME_OUT = 250;
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        this.file = File.createTempFile("cas-pgt", ".map");
+        this.file.delete();
+    }
+
+    @After
+    public void tearDown() {
+        this.file.delete();
+    }
+
+    @Test
+    public void ticketIsSharedBetweenInstancesAndRetrievedOnce() {
+        final ProxyGrantingTicketStorage first = new MemoryMappedProxyGrantingTicketStorageImpl(this.file.getPath(), 1024, TIME_OUT);
+        final ProxyGrantingTicketStorage second = new MemoryMappedProxyGrantingTicketStorageImpl(this.file.getPath(), 1024, TIME_OUT);
+
+        first.save("proxyGrantingTicketIou", "proxyGrantingTicket");
+
+        assertEquals("proxyGrantingTicket", second.retrieve("proxyGrantingTicketIou"));
+        assertNull(first.retrieve("proxyGrantingTicketIou"));
+    }
+
+    @Test
+    public void expiredTicketIsNotReturned() throws Exception {
+        final ProxyGrantingTicketStorage storage = new MemoryMappedProxyGrantingTicketStorageImpl(this.file.getPath(), 1024, TIME_OUT);
+        storage.save("proxyGrantingTicketIou", "proxyGrantingTicket");
+
+        Thread.sleep(TIME_OUT * 2);
+        storage.cleanUp();
+
+        assertNull(storage.retrieve("proxyGrantingTicketIou"));
+    }
+
+    @Test
+    public void nullPGTIOU() {
+        final ProxyGrantingTicketStorage storage = new MemoryMappedProxyGrantingTicketStorageImpl(this.file.getPath(), 16, TIME_OUT);
+        assertNull(storage.retrieve(null));
+    }
+
+    @Test
+    public void concurrentWritersDoNotLoseTickets() throws Exception {
+        final ProxyGrantingTicketStorage storage = new MemoryMappedProxyGrantingTicketStorageImpl(this.file.getPath(), 4096, 60000);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            final int thread = t;
+            executor.submit(() -> {
+                for (int i = 0; i < 100; i++) {
+                    storage.save("PGTIOU-" + thread + "-" + i, "PGT-" + thread + "-" + i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        for (int t = 0; t < 8; t++) {
+            for (int i = 0; i < 100; i++) {
+                assertEquals("PGT-" + t + "-" + i, storage.retrieve("PGTIOU-" + t + "-" + i));
+            }
+        }
+    }
+
+    @Test
+    public void slotAbandonedWhileBusyIsReclaimed() throws Exception {
+        final MemoryMappedProxyGrantingTicketStorageImpl storage =
+            new MemoryMappedProxyGrantingTicketStorageImpl(this.file.getPath(), 1, TIME_OUT);
+
+        claimOnlySlot(System.currentTimeMillis());
+        storage.save("proxyGrantingTicketIou", "proxyGrantingTicket");
+        assertNull(storage.retrieve("proxyGrantingTicketIou"));
+
+        claimOnlySlot(System.currentTimeMillis() - 60000);
+        storage.save("proxyGrantingTicketIou", "proxyGrantingTicket");
+        assertEquals("proxyGrantingTicket", storage.retrieve("proxyGrantingTicketIou"));
+        storage.destroy();
+    }
+
+    @Test
+    public void destroyedStorageNoLongerStoresTickets() {
+        final MemoryMappedProxyGrantingTicketStorageImpl storage =
+            new MemoryMappedProxyGrantingTicketStorageImpl(this.file.getPath(), 16, TIME_OUT);
+        storage.save("proxyGrantingTicketIou", "proxyGrantingTicket");
+
+        storage.destroy();
+        storage.destroy();
+
+        assertNull(storage.retrieve("proxyGrantingTicketIou"));
+        storage.save("other", "proxyGrantingTicket");
+        storage.cleanUp();
+        assertEquals("proxyGrantingTicket",
+            new MemoryMappedProxyGrantingTicketStorageImpl(this.file.getPath(), 16, TIME_OUT).retrieve("proxyGrantingTicketIou"));
+    }
+
+    /**
+     * Marks the single slot of the table as claimed at the given time, as a process dying while writing it would
+     * leave it.  The slot follows the 64 byte header and starts with its state word.
+     */
+    private void claimOnlySlot(final long claimed) throws Exception {
+        try (final FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.WRITE)) {
+            final ByteBuffer word = ByteBuffer.allocate(8).order(ByteOrder.nativeOrder());
+            word.putLong(0, claimed << 8 | 1);
+            channel.write(word, 64);
+        }
+    }
+}
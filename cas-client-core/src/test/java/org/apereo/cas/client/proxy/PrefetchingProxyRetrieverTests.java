@@ -0,0 +1,114 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.proxy;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link PrefetchingProxyRetriever}.
+ *
+ * @since 4.0.0
+ */
+public class PrefetchingProxyRetrieverTests {
+
+    private final AtomicInteger issued = new AtomicInteger();
+
+    private final ProxyRetriever delegate = (pgt, service) -> "PT-" + issued.incrementAndGet() + "-" + service;
+
+    private PrefetchingProxyRetriever retriever;
+
+    @After
+    public void tearDown() {
+        this.retriever.destroy();
+    }
+
+    @Test
+    public void repeatedRequestIsServedFromPool() throws Exception {
+        this.retriever = new PrefetchingProxyRetriever(this.delegate, 2, 5000, 100, 1);
+
+        assertEquals("PT-1-https://service", this.retriever.getProxyTicketIdFor("PGT-1", "https://service"));
+        assertEquals("PT-2-https://service", this.retriever.getProxyTicketIdFor("PGT-1", "https://service"));
+        waitForIssued(4);
+
+        assertEquals("PT-3-https://service", this.retriever.getProxyTicketIdFor("PGT-1", "https://service"));
+    }
+
+    @Test
+    public void singleRequestIsNotPrefetched() throws Exception {
+        this.retriever = new PrefetchingProxyRetriever(this.delegate, 2, 5000, 100, 1);
+
+        this.retriever.getProxyTicketIdFor("PGT-1", "https://service");
+        Thread.sleep(200);
+
+        assertEquals(1, this.issued.get());
+    }
+
+    @Test
+    public void prefetchStopsWhenDemandDropsToOnePerWindow() throws Exception {
+        this.retriever = new PrefetchingProxyRetriever(this.delegate, 2, 200, 100, 1);
+
+        this.retriever.getProxyTicketIdFor("PGT-1", "https://service");
+        this.retriever.getProxyTicketIdFor("PGT-1", "https://service");
+        waitForIssued(4);
+        Thread.sleep(300);
+
+        this.retriever.getProxyTicketIdFor("PGT-1", "https://service");
+        waitForIssued(7);
+        Thread.sleep(300);
+
+        this.retriever.getProxyTicketIdFor("PGT-1", "https://service");
+        Thread.sleep(200);
+        assertEquals(8, this.issued.get());
+    }
+
+    @Test
+    public void expiredTicketIsNeverReturned() throws Exception {
+        this.retriever = new PrefetchingProxyRetriever(this.delegate, 1, 100, 100, 1);
+
+        this.retriever.getProxyTicketIdFor("PGT-1", "https://service");
+        this.retriever.getProxyTicketIdFor("PGT-1", "https://service");
+        waitForIssued(3);
+        Thread.sleep(250);
+
+        assertNotEquals("PT-3-https://service", this.retriever.getProxyTicketIdFor("PGT-1", "https://service"));
+    }
+
+    @Test
+    public void targetsArePooledSeparately() throws Exception {
+        this.retriever = new PrefetchingProxyRetriever(this.delegate, 1, 5000, 100, 1);
+
+        this.retriever.getProxyTicketIdFor("PGT-1", "https://a");
+        this.retriever.getProxyTicketIdFor("PGT-1", "https://a");
+        waitForIssued(3);
+
+        assertTrue(this.retriever.getProxyTicketIdFor("PGT-1", "https://b").endsWith("https://b"));
+    }
+
+    private void waitForIssued(final int count) throws InterruptedException {
+        for (int i = 0; i < 100 && this.issued.get() < count; i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(this.issued.get() >= count);
+    }
+}
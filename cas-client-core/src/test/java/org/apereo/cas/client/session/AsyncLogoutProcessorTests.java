@@ -0,0 +1,115 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 4.0.0
+ */
+public final class AsyncLogoutProcessorTests {
+
+    @Test
+    public void processesAllSubmittedIndexes() throws Exception {
+        final List<String> loggedOut = new CopyOnWriteArrayList<String>();
+        final AsyncLogoutProcessor processor = new AsyncLogoutProcessor(loggedOut::add, 100, 2);
+        try {
+            for (int i = 0; i < 50; i++) {
+                processor.submit("ST-" + i);
+            }
+            waitFor(processor, 50);
+            assertEquals(50, loggedOut.size());
+            assertEquals(0, processor.getQueueDepth());
+            assertEquals(50, processor.getSubmittedCount());
+            assertTrue(processor.getBatchCount() > 0);
+        } finally {
+            processor.destroy();
+        }
+    }
+
+    @Test
+    public void fullQueueRunsOnCallingThread() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> callers = new CopyOnWriteArrayList<String>();
+        final AsyncLogoutProcessor processor = new AsyncLogoutProcessor(index -> {
+            if ("ST-1".equals(index)) {
+                blocked.countDown();
+                awaitQuietly(release);
+            }
+            callers.add(Thread.currentThread().getName());
+        }, 1, 1, 10, 10);
+        try {
+            processor.submit("ST-1");
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+            processor.submit("ST-2");
+            processor.submit("ST-3");
+
+            assertEquals(1, processor.getCallerRunsCount());
+            assertEquals(1, processor.getQueueDepth());
+            assertEquals(Thread.currentThread().getName(), callers.get(0));
+
+            release.countDown();
+            waitFor(processor, 3);
+        } finally {
+            processor.destroy();
+        }
+    }
+
+    @Test
+    public void failuresAreCounted() throws Exception {
+        final AsyncLogoutProcessor processor = new AsyncLogoutProcessor(index -> {
+            throw new IllegalStateException("fail");
+        }, 10, 1);
+        try {
+            processor.submit("ST-1");
+            final long deadline = System.currentTimeMillis() + 5000;
+            while (processor.getFailedCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, processor.getFailedCount());
+            assertEquals(0, processor.getProcessedCount());
+        } finally {
+            processor.destroy();
+        }
+    }
+
+    private static void waitFor(final AsyncLogoutProcessor processor, final long processed) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (processor.getProcessedCount() < processed && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(processed, processor.getProcessedCount());
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
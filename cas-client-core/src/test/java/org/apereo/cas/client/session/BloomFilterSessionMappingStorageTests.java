@@ -0,0 +1,148 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import jakarta.servlet.http.HttpSession;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 4.0.0
+ */
+public final class BloomFilterSessionMappingStorageTests {
+
+    private final AtomicInteger delegateLookups = new AtomicInteger();
+
+    private final ConcurrentHashMapBackedSessionMappingStorage backing = new ConcurrentHashMapBackedSessionMappingStorage();
+
+    private final SessionMappingStorage delegate = new SessionMappingStorage() {
+        @Override
+        public HttpSession removeSessionByMappingId(final String mappingId) {
+            delegateLookups.incrementAndGet();
+            return backing.removeSessionByMappingId(mappingId);
+        }
+
+        @Override
+        public void removeBySessionById(final String sessionId) {
+            backing.removeBySessionById(sessionId);
+        }
+
+        @Override
+        public void addSessionById(final String mappingId, final HttpSession session) {
+            backing.addSessionById(mappingId, session);
+        }
+    };
+
+    private final BloomFilterSessionMappingStorage storage = new BloomFilterSessionMappingStorage(this.delegate, 1000, 0.01, 0);
+
+    @After
+    public void tearDown() {
+        this.storage.destroy();
+    }
+
+    @Test
+    public void unknownTicketSkipsDelegate() {
+        assertNull(this.storage.removeSessionByMappingId("ST-unknown"));
+        assertEquals(0, this.delegateLookups.get());
+        assertEquals(1, this.storage.getSkippedLookups());
+    }
+
+    @Test
+    public void recordedTicketReachesDelegate() {
+        final MockHttpSession session = new MockHttpSession();
+        this.storage.addSessionById("ST-1", session);
+
+        assertSame(session, this.storage.removeSessionByMappingId("ST-1"));
+        assertEquals(1, this.delegateLookups.get());
+        assertNull(this.storage.removeSessionByMappingId("ST-1"));
+        assertEquals(1, this.delegateLookups.get());
+    }
+
+    @Test
+    public void destroyedSessionLeavesFilter() {
+        final MockHttpSession session = new MockHttpSession();
+        this.storage.addSessionById("ST-1", session);
+        this.storage.removeBySessionById(session.getId());
+
+        assertNull(this.storage.removeSessionByMappingId("ST-1"));
+        assertEquals(0, this.delegateLookups.get());
+    }
+
+    @Test
+    public void noFalseNegativesAcrossRebuild() {
+        final MockHttpSession[] sessions = new MockHttpSession[500];
+        for (int i = 0; i < sessions.length; i++) {
+            sessions[i] = new MockHttpSession();
+            this.storage.addSessionById("ST-" + i, sessions[i]);
+        }
+        for (int i = 0; i < sessions.length; i += 2) {
+            this.storage.removeBySessionById(sessions[i].getId());
+        }
+        this.storage.rebuild();
+
+        for (int i = 1; i < sessions.length; i += 2) {
+            assertSame(sessions[i], this.storage.removeSessionByMappingId("ST-" + i));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsStorageThatIsNotLocal() {
+        new BloomFilterSessionMappingStorage(new SessionMappingStorage() {
+            @Override
+            public HttpSession removeSessionByMappingId(final String mappingId) {
+                return null;
+            }
+
+            @Override
+            public void removeBySessionById(final String sessionId) {
+            }
+
+            @Override
+            public void addSessionById(final String mappingId, final HttpSession session) {
+            }
+
+            @Override
+            public boolean isLocal() {
+                return false;
+            }
+        });
+    }
+
+    @Test
+    public void falsePositiveRateIsHonored() {
+        final BloomFilterSessionMappingStorage.CountingBloomFilter filter =
+            new BloomFilterSessionMappingStorage.CountingBloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.add("ST-" + i + "-cas.example.org");
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain("ST-unknown-" + i + "-cas.example.org")) {
+                falsePositives++;
+            }
+        }
+        assertTrue("false positives: " + falsePositives, falsePositives < 2000);
+        assertEquals(7, filter.getHashFunctions());
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 4.0.0
+ */
+public final class ConcurrentHashMapBackedSessionMappingStorageTests {
+
+    private final ConcurrentHashMapBackedSessionMappingStorage storage = new ConcurrentHashMapBackedSessionMappingStorage();
+
+    @Test
+    public void addAndRemoveByMappingId() {
+        final MockHttpSession session = new MockHttpSession();
+        this.storage.addSessionById("ST-1", session);
+
+        assertSame(session, this.storage.removeSessionByMappingId("ST-1"));
+        assertNull(this.storage.removeSessionByMappingId("ST-1"));
+        assertEquals(0, this.storage.getMappingCount());
+        assertEquals(0, this.storage.getSessionCount());
+    }
+
+    @Test
+    public void removeBySessionIdRemovesTicketMapping() {
+        final MockHttpSession session = new MockHttpSession();
+        this.storage.addSessionById("ST-1", session);
+        this.storage.removeBySessionById(session.getId());
+
+        assertNull(this.storage.removeSessionByMappingId("ST-1"));
+    }
+
+    @Test
+    public void newTicketForSameSessionReplacesOldMapping() {
+        final MockHttpSession session = new MockHttpSession();
+        this.storage.addSessionById("ST-1", session);
+        this.storage.addSessionById("ST-2", session);
+
+        assertNull(this.storage.removeSessionByMappingId("ST-1"));
+        assertSame(session, this.storage.removeSessionByMappingId("ST-2"));
+        assertEquals(0, this.storage.getSessionCount());
+    }
+
+    @Test
+    public void mappingsStayConsistentUnderConcurrentUse() throws Exception {
+        final int threads = 8;
+        final int iterations = 2000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> futures = new ArrayList<Future<?>>();
+
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < iterations; i++) {
+                    final MockHttpSession session = new MockHttpSession();
+                    final String ticket = "ST-" + thread + "-" + i;
+                    this.storage.addSessionById(ticket, session);
+                    if (i % 2 == 0) {
+                        assertSame(session, this.storage.removeSessionByMappingId(ticket));
+                    } else {
+                        this.storage.removeBySessionById(session.getId());
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (final Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(0, this.storage.getMappingCount());
+        assertEquals(0, this.storage.getSessionCount());
+    }
+
+    @Test
+    public void mappingsAgreeAfterConcurrentUseOfSameTicketsAndSessions() throws Exception {
+        final int threads = 8;
+        final int iterations = 20000;
+        final MockHttpSession[] sessions = new MockHttpSession[4];
+        final String[] tickets = new String[4];
+        for (int i = 0; i < sessions.length; i++) {
+            sessions[i] = new MockHttpSession();
+            tickets[i] = "ST-" + i;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> futures = new ArrayList<Future<?>>();
+
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                final ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < iterations; i++) {
+                    final String ticket = tickets[random.nextInt(tickets.length)];
+                    final MockHttpSession session = sessions[random.nextInt(sessions.length)];
+                    switch (random.nextInt(3)) {
+                        case 0:
+                            this.storage.addSessionById(ticket, session);
+                            break;
+                        case 1:
+                            this.storage.removeSessionByMappingId(ticket);
+                            break;
+                        default:
+                            this.storage.removeBySessionById(session.getId());
+                            break;
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (final Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // removing a ticket only clears its session's entry if that entry maps back to the ticket
+        assertEquals(this.storage.getMappingCount(), this.storage.getSessionCount());
+        for (final String ticket : tickets) {
+            this.storage.removeSessionByMappingId(ticket);
+        }
+        assertEquals(0, this.storage.getMappingCount());
+        assertEquals(0, this.storage.getSessionCount());
+    }
+}
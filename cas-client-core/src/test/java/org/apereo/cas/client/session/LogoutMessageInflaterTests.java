@@ -0,0 +1,101 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.util.XmlUtils;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 4.0.0
+ */
+public final class LogoutMessageInflaterTests {
+
+    private final LogoutMessageInflater inflater = new LogoutMessageInflater(64 * 1024, 2);
+
+    @Test
+    public void highlyCompressedMessageIsNotTruncated() throws Exception {
+        final String padding = " ".repeat(20000);
+        final String message = LogoutMessageGenerator.generateBackChannelLogoutMessage("ST-1")
+            .replace("<samlp:SessionIndex>", padding + "<samlp:SessionIndex>");
+
+        try (Reader reader = this.inflater.newReader(compress(message.getBytes(StandardCharsets.UTF_8)))) {
+            assertEquals("ST-1", XmlUtils.getTextForElement(reader, "SessionIndex"));
+        }
+    }
+
+    @Test
+    public void oversizedMessageIsRejected() throws Exception {
+        final String bomb = compress(new byte[1024 * 1024]);
+
+        try (Reader reader = this.inflater.newReader(bomb)) {
+            final char[] buffer = new char[4096];
+            while (reader.read(buffer) != -1) {
+                // keep reading
+            }
+            fail("IOException expected");
+        } catch (final IOException e) {
+            assertTrue(e.getMessage().contains("maximum size"));
+        }
+    }
+
+    @Test
+    public void invalidMessageYieldsNoSessionIndex() throws Exception {
+        try (Reader reader = this.inflater.newReader("bm90IGRlZmxhdGVk")) {
+            assertNull(XmlUtils.getTextForElement(reader, "SessionIndex"));
+        }
+    }
+
+    @Test
+    public void inflatersAreReturnedToThePool() throws Exception {
+        final String message = LogoutMessageGenerator.generateFrontChannelLogoutMessage("ST-1");
+        for (int i = 0; i < 5; i++) {
+            try (Reader reader = this.inflater.newReader(message)) {
+                assertEquals("ST-1", XmlUtils.getTextForElement(reader, "SessionIndex"));
+            }
+        }
+        assertEquals(1, this.inflater.getIdleCount());
+
+        final Reader first = this.inflater.newReader(message);
+        final Reader second = this.inflater.newReader(message);
+        final Reader third = this.inflater.newReader(message);
+        first.close();
+        second.close();
+        third.close();
+        third.close();
+        assertEquals(2, this.inflater.getIdleCount());
+    }
+
+    private static String compress(final byte[] data) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out)) {
+            deflater.write(data);
+        }
+        return Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+}
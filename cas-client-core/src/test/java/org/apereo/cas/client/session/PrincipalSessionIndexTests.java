@@ -0,0 +1,164 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import jakarta.servlet.http.HttpSessionEvent;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.mock.web.MockServletContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 4.0.0
+ */
+public final class PrincipalSessionIndexTests {
+
+    private final PrincipalSessionIndex index = new PrincipalSessionIndex();
+
+    @Test
+    public void invalidatesAllSessionsOfPrincipal() {
+        final MockHttpSession first = new MockHttpSession();
+        final MockHttpSession second = new MockHttpSession();
+        final MockHttpSession other = new MockHttpSession();
+        this.index.addSession("alice", first);
+        this.index.addSession("alice", second);
+        this.index.addSession("bob", other);
+
+        assertEquals(new HashSet<String>(Arrays.asList(first.getId(), second.getId())),
+            new HashSet<String>(this.index.invalidateSessions("alice")));
+        assertTrue(first.isInvalid());
+        assertTrue(second.isInvalid());
+        assertFalse(other.isInvalid());
+        assertEquals(1, this.index.getSessionCount());
+        assertEquals(1, this.index.getPrincipalCount());
+    }
+
+    @Test
+    public void removedSessionIsNotInvalidated() {
+        final MockHttpSession first = new MockHttpSession();
+        final MockHttpSession second = new MockHttpSession();
+        this.index.addSession("alice", first);
+        this.index.addSession("alice", second);
+        this.index.removeSession(first.getId());
+
+        assertEquals(Collections.singletonList(second.getId()), this.index.getSessionIds("alice"));
+        this.index.removeSession(second.getId());
+        assertEquals(0, this.index.getPrincipalCount());
+        assertTrue(this.index.invalidateSessions("alice").isEmpty());
+    }
+
+    @Test
+    public void sessionMovesToNewPrincipal() {
+        final MockHttpSession session = new MockHttpSession();
+        this.index.addSession("alice", session);
+        this.index.addSession("alice", session);
+        this.index.addSession("bob", session);
+
+        assertTrue(this.index.getSessionIds("alice").isEmpty());
+        assertEquals(Collections.singletonList(session.getId()), this.index.getSessionIds("bob"));
+        assertEquals(1, this.index.getSessionCount());
+    }
+
+    @Test
+    public void concurrentUpdatesOfSameSessionsKeepMapsConsistent() throws Exception {
+        final String[] principals = {"alice", "bob"};
+        final MockHttpSession[] sessions = new MockHttpSession[4];
+        for (int i = 0; i < sessions.length; i++) {
+            sessions[i] = new MockHttpSession();
+        }
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            final int seed = t;
+            final Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (final InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 20000; i++) {
+                    final MockHttpSession session = sessions[(i + seed) % sessions.length];
+                    if ((i + seed) % 3 == 0) {
+                        this.index.removeSession(session.getId());
+                    } else {
+                        this.index.addSession(principals[(i / 7 + seed) % principals.length], session);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        int indexed = 0;
+        for (final String principal : principals) {
+            indexed += this.index.getSessionIds(principal).size();
+        }
+        assertEquals(this.index.getSessionCount(), indexed);
+        for (final MockHttpSession session : sessions) {
+            int owners = 0;
+            for (final String principal : principals) {
+                owners += this.index.getSessionIds(principal).contains(session.getId()) ? 1 : 0;
+            }
+            assertTrue(owners <= 1);
+        }
+    }
+
+    @Test
+    public void filtersOfWebApplicationShareIndex() {
+        final MockServletContext context = new MockServletContext();
+        final PrincipalSessionIndex shared = PrincipalSessionIndex.of(context);
+
+        assertSame(shared, PrincipalSessionIndex.of(context));
+        assertNotSame(shared, PrincipalSessionIndex.of(new MockServletContext()));
+    }
+
+    @Test
+    public void findDoesNotCreateIndex() {
+        final MockServletContext context = new MockServletContext();
+
+        assertNull(PrincipalSessionIndex.find(context));
+        assertNull(context.getAttribute(PrincipalSessionIndex.CONTEXT_ATTRIBUTE));
+        assertSame(PrincipalSessionIndex.of(context), PrincipalSessionIndex.find(context));
+    }
+
+    @Test
+    public void destroyedSessionLeavesIndexOfItsContext() {
+        final MockServletContext context = new MockServletContext();
+        final PrincipalSessionIndex shared = PrincipalSessionIndex.of(context);
+        final MockHttpSession session = new MockHttpSession(context);
+        shared.addSession("alice", session);
+
+        new SingleSignOutHttpSessionListener().sessionDestroyed(new HttpSessionEvent(session));
+
+        assertTrue(shared.getSessionIds("alice").isEmpty());
+        assertEquals(0, shared.getSessionCount());
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.junit.Test;
+
+import java.io.Reader;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 4.0.0
+ */
+public final class SessionIndexExtractorTests {
+
+    private final SessionIndexExtractor extractor = new SessionIndexExtractor();
+
+    @Test
+    public void extractsSessionIndex() {
+        assertEquals("ST-1", this.extractor.extract(LogoutMessageGenerator.generateBackChannelLogoutMessage("ST-1")));
+    }
+
+    @Test
+    public void extractsFromCompressedMessage() throws Exception {
+        final String message = LogoutMessageGenerator.generateFrontChannelLogoutMessage("ST-1");
+        try (Reader reader = new LogoutMessageInflater().newReader(message)) {
+            assertEquals("ST-1", this.extractor.extract(reader));
+        }
+    }
+
+    @Test
+    public void stopsAtFirstSessionIndex() {
+        assertEquals("ST-1", this.extractor.extract("<r><SessionIndex>ST-1</SessionIndex><SessionIndex>ST-2</SessionIndex><broken"));
+    }
+
+    @Test
+    public void handlesCdataAndPredefinedEntities() {
+        assertEquals("ST-1&2", this.extractor.extract("<r><SessionIndex><![CDATA[ST-1]]>&amp;2</SessionIndex></r>"));
+    }
+
+    @Test
+    public void rejectsDtd() {
+        assertNull(this.extractor.extract("<?xml version=\"1.0\"?><!DOCTYPE r [<!ENTITY e \"ST-evil\">]>"
+            + "<r><SessionIndex>&e;</SessionIndex></r>"));
+    }
+
+    @Test
+    public void rejectsExternalEntity() {
+        assertNull(this.extractor.extract("<?xml version=\"1.0\"?><!DOCTYPE r [<!ENTITY e SYSTEM \"file:///etc/passwd\">]>"
+            + "<r><SessionIndex>&e;</SessionIndex></r>"));
+    }
+
+    @Test
+    public void rejectsOverlongSessionIndex() {
+        assertNull(new SessionIndexExtractor(256, 16).extract("<r><SessionIndex>ST-12345678901234567890</SessionIndex></r>"));
+    }
+
+    @Test
+    public void givesUpAfterMaxEvents() {
+        final StringBuilder message = new StringBuilder("<r>");
+        for (int i = 0; i < 100; i++) {
+            message.append("<a/>");
+        }
+        message.append("<SessionIndex>ST-1</SessionIndex></r>");
+
+        assertNull(new SessionIndexExtractor(50, 16).extract(message.toString()));
+        assertEquals("ST-1", new SessionIndexExtractor(500, 16).extract(message.toString()));
+    }
+
+    @Test
+    public void missingOrMalformed() {
+        assertNull(this.extractor.extract("<r><a/></r>"));
+        assertNull(this.extractor.extract("not xml"));
+    }
+}
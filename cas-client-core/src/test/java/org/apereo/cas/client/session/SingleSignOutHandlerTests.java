@@ -18,12 +18,20 @@
  */
 package org.apereo.cas.client.session;
 
+import org.apereo.cas.client.validation.AssertionImpl;
+import org.apereo.cas.client.validation.Cas10TicketValidationFilter;
+
+import jakarta.servlet.http.HttpSession;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockHttpSession;
 
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static org.junit.Assert.*;
 
 /**
@@ -190,6 +198,123 @@ public final class SingleSignOutHandlerTests {
         assertTrue(session.isInvalid());
     }
 
+    @Test
+    public void asyncBackChannelLogoutOK() throws Exception {
+        handler.setLogoutQueueCapacity(10);
+        handler.init();
+        try {
+            final MockHttpSession session = doBackChannelLogout();
+            assertFalse(handler.process(request, response));
+            waitUntilInvalid(session);
+            assertEquals(1, handler.getAsyncLogoutProcessor().getProcessedCount());
+        } finally {
+            handler.destroy();
+        }
+        assertNull(handler.getAsyncLogoutProcessor());
+    }
+
+    @Test
+    public void bulkLogoutRejectedWithoutToken() {
+        handler.setBulkLogoutPath("/admin/logout");
+        handler.setBulkLogoutToken("secret");
+        final MockHttpSession session = doBulkLogout(null);
+        assertFalse(handler.process(request, response));
+        assertEquals(401, response.getStatus());
+        assertFalse(session.isInvalid());
+    }
+
+    @Test
+    public void bulkLogoutOK() {
+        handler.setBulkLogoutPath("/admin/logout");
+        handler.setBulkLogoutToken("secret");
+        final MockHttpSession other = new MockHttpSession();
+        handler.getSessionMappingStorage().addSessionById("ST-other", other);
+        final MockHttpSession session = doBulkLogout("Bearer secret");
+        assertFalse(handler.process(request, response));
+        assertEquals(202, response.getStatus());
+        assertTrue(session.isInvalid());
+        assertTrue(other.isInvalid());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bulkLogoutRequiresToken() {
+        final SingleSignOutHandler handler = new SingleSignOutHandler();
+        handler.setBulkLogoutPath("/admin/logout");
+        handler.init();
+    }
+
+    @Test
+    public void destroyReachesDecoratedStorage() {
+        final AtomicBoolean destroyed = new AtomicBoolean();
+        handler.setSessionMappingStorage(new BloomFilterSessionMappingStorage(new SessionMappingStorage() {
+            @Override
+            public HttpSession removeSessionByMappingId(final String mappingId) {
+                return null;
+            }
+
+            @Override
+            public void removeBySessionById(final String sessionId) {
+            }
+
+            @Override
+            public void addSessionById(final String mappingId, final HttpSession session) {
+            }
+
+            @Override
+            public void destroy() {
+                destroyed.set(true);
+            }
+        }));
+        handler.destroy();
+        assertTrue(destroyed.get());
+    }
+
+    @Test
+    public void destroySessionsOfPrincipal() throws Exception {
+        final PrincipalSessionIndex principalSessionIndex = new PrincipalSessionIndex();
+        handler.setPrincipalSessionIndex(principalSessionIndex);
+        final Cas10TicketValidationFilter validationFilter = new Cas10TicketValidationFilter();
+        validationFilter.setServerName("localhost");
+        validationFilter.setRedirectAfterValidation(false);
+        validationFilter.setTicketValidator((ticket, service) -> new AssertionImpl("alice"));
+        validationFilter.setPrincipalSessionIndex(principalSessionIndex);
+        final MockHttpSession session = new MockHttpSession();
+        request.setSession(session);
+        request.setParameter(ARTIFACT_PARAMETER_NAME, TICKET);
+        request.setParameter(validationFilter.getArtifactParameterName(), TICKET);
+        request.setQueryString(ARTIFACT_PARAMETER_NAME + "=" + TICKET + "&"
+                               + validationFilter.getArtifactParameterName() + "=" + TICKET);
+
+        // the single sign out filter runs before ticket validation, which establishes the principal
+        assertTrue(handler.process(request, response));
+        validationFilter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(Collections.singletonList(session.getId()), handler.destroySessionsOfPrincipal("alice"));
+        assertTrue(session.isInvalid());
+        assertNull(handler.getSessionMappingStorage().removeSessionByMappingId(TICKET));
+    }
+
+    private MockHttpSession doBulkLogout(final String authorization) {
+        request.setMethod("POST");
+        request.setServletPath("/admin/logout");
+        request.setContentType("text/plain");
+        request.setContent((TICKET + "\n\nST-other\nST-unknown\n").getBytes());
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        final MockHttpSession session = new MockHttpSession();
+        handler.getSessionMappingStorage().addSessionById(TICKET, session);
+        return session;
+    }
+
+    private static void waitUntilInvalid(final MockHttpSession session) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (!session.isInvalid() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(session.isInvalid());
+    }
+
     private MockHttpSession doBackChannelLogout() {
         final String logoutMessage = LogoutMessageGenerator.generateBackChannelLogoutMessage(TICKET);
         request.setParameter(LOGOUT_PARAMETER_NAME, logoutMessage);
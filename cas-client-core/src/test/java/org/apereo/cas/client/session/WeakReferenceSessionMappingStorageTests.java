@@ -0,0 +1,158 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 4.0.0
+ */
+public final class WeakReferenceSessionMappingStorageTests {
+
+    private final WeakReferenceSessionMappingStorage storage = new WeakReferenceSessionMappingStorage(20, 16);
+
+    @After
+    public void tearDown() {
+        this.storage.destroy();
+    }
+
+    @Test
+    public void addAndRemoveByMappingId() {
+        final MockHttpSession session = new MockHttpSession();
+        this.storage.addSessionById("ST-1", session);
+
+        assertSame(session, this.storage.removeSessionByMappingId("ST-1"));
+        assertNull(this.storage.removeSessionByMappingId("ST-1"));
+    }
+
+    @Test
+    public void idleSessionIsExpired() throws Exception {
+        final MockHttpSession session = new MockHttpSession();
+        session.setMaxInactiveInterval(1);
+        this.storage.addSessionById("ST-1", session);
+
+        waitForMappingCount(0, 3000);
+        assertNull(this.storage.removeSessionByMappingId("ST-1"));
+    }
+
+    @Test
+    public void activeSessionIsKept() throws Exception {
+        final MockHttpSession session = new MockHttpSession();
+        session.setMaxInactiveInterval(1);
+        this.storage.addSessionById("ST-1", session);
+
+        for (int i = 0; i < 6; i++) {
+            Thread.sleep(250);
+            session.access();
+        }
+        assertSame(session, this.storage.removeSessionByMappingId("ST-1"));
+    }
+
+    @Test
+    public void invalidatedSessionIsExpired() throws Exception {
+        final MockHttpSession session = new MockHttpSession();
+        session.setMaxInactiveInterval(1);
+        this.storage.addSessionById("ST-1", session);
+        session.invalidate();
+
+        waitForMappingCount(0, 3000);
+    }
+
+    @Test
+    public void collectedSessionIsRemoved() throws Exception {
+        this.storage.addSessionById("ST-1", new MockHttpSession());
+
+        for (int i = 0; i < 50 && this.storage.getMappingCount() > 0; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertEquals(0, this.storage.getMappingCount());
+    }
+
+    @Test
+    public void mappingsAgreeAfterConcurrentUseOfSameTicketsAndSessions() throws Exception {
+        final int threads = 8;
+        final int iterations = 20000;
+        final MockHttpSession[] sessions = new MockHttpSession[4];
+        final String[] tickets = new String[4];
+        for (int i = 0; i < sessions.length; i++) {
+            sessions[i] = new MockHttpSession();
+            tickets[i] = "ST-" + i;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> futures = new ArrayList<Future<?>>();
+
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                final ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < iterations; i++) {
+                    final String ticket = tickets[random.nextInt(tickets.length)];
+                    final MockHttpSession session = sessions[random.nextInt(sessions.length)];
+                    switch (random.nextInt(3)) {
+                        case 0:
+                            this.storage.addSessionById(ticket, session);
+                            break;
+                        case 1:
+                            this.storage.removeSessionByMappingId(ticket);
+                            break;
+                        default:
+                            this.storage.removeBySessionById(session.getId());
+                            break;
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (final Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // removing a ticket only clears its session's entry if that entry maps back to the ticket
+        assertEquals(this.storage.getMappingCount(), this.storage.getSessionCount());
+        for (final String ticket : tickets) {
+            this.storage.removeSessionByMappingId(ticket);
+        }
+        assertEquals(0, this.storage.getMappingCount());
+        assertEquals(0, this.storage.getSessionCount());
+    }
+
+    private void waitForMappingCount(final int count, final long timeout) throws InterruptedException {
+        final long end = System.currentTimeMillis() + timeout;
+        while (this.storage.getMappingCount() != count && System.currentTimeMillis() < end) {
+            Thread.sleep(50);
+        }
+        assertEquals(count, this.storage.getMappingCount());
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.apereo.cas.client.validation.Assertion;
+import org.apereo.cas.client.validation.AssertionImpl;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link AssertionHolder}.
+ *
+ * @since 4.0.0
+ */
+public class AssertionHolderTests {
+
+    @After
+    public void tearDown() {
+        AssertionHolder.clear();
+    }
+
+    @Test
+    public void runWithRestoresPreviousAssertion() {
+        final Assertion outer = new AssertionImpl("outer");
+        final Assertion inner = new AssertionImpl("inner");
+        final AtomicReference<Assertion> seen = new AtomicReference<Assertion>();
+
+        AssertionHolder.setAssertion(outer);
+        AssertionHolder.runWith(inner, () -> seen.set(AssertionHolder.getAssertion()));
+
+        assertSame(inner, seen.get());
+        assertSame(outer, AssertionHolder.getAssertion());
+    }
+
+    @Test
+    public void wrappedExecutorPropagatesAssertion() throws Exception {
+        final ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            final Executor executor = AssertionHolder.wrap(pool);
+            final Assertion assertion = new AssertionImpl("alice");
+            AssertionHolder.setAssertion(assertion);
+
+            final CompletableFuture<Assertion> future = CompletableFuture
+                .supplyAsync(AssertionHolder::getAssertion, executor);
+            assertSame(assertion, future.get(5, TimeUnit.SECONDS));
+
+            AssertionHolder.clear();
+            final CompletableFuture<Assertion> leaked = CompletableFuture
+                .supplyAsync(AssertionHolder::getAssertion, pool);
+            assertNull(leaked.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void supplyAsyncPropagatesAssertion() throws Exception {
+        final ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            final Assertion assertion = new AssertionImpl("bob");
+            AssertionHolder.setAssertion(assertion);
+
+            assertSame(assertion, AssertionHolder.supplyAsync(AssertionHolder::getAssertion, pool).get(5, TimeUnit.SECONDS));
+
+            final AtomicReference<Assertion> seen = new AtomicReference<Assertion>();
+            AssertionHolder.runAsync(() -> seen.set(AssertionHolder.getAssertion()), pool).get(5, TimeUnit.SECONDS);
+            assertSame(assertion, seen.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
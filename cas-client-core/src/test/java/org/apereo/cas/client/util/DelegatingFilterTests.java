@@ -0,0 +1,113 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.PatternSyntaxException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link DelegatingFilter}.
+ *
+ * @since 4.0.0
+ */
+public class DelegatingFilterTests {
+
+    private final RecordingFilter first = new RecordingFilter();
+
+    private final RecordingFilter second = new RecordingFilter();
+
+    private final RecordingFilter fallback = new RecordingFilter();
+
+    @Test
+    public void delegatesOnExactMatch() throws Exception {
+        final DelegatingFilter filter = new DelegatingFilter("type", delegators("cas", "saml"), true, this.fallback);
+
+        filter.doFilter(request("type=saml"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(request("type=sam"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(0, this.first.count);
+        assertEquals(1, this.second.count);
+        assertEquals(1, this.fallback.count);
+    }
+
+    @Test
+    public void delegatesToFirstMatchingExpression() throws Exception {
+        final DelegatingFilter filter = new DelegatingFilter("type", delegators("ca.*", "c.*"), false);
+
+        filter.doFilter(request("type=cas"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(request("type=cas"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(request("type=cu"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(2, this.first.count);
+        assertEquals(1, this.second.count);
+    }
+
+    @Test
+    public void continuesChainWithoutMatch() throws Exception {
+        final DelegatingFilter filter = new DelegatingFilter("type", delegators("ca.*", "c.*"), false);
+        final MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("type=saml"), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(0, this.first.count + this.second.count);
+    }
+
+    @Test(expected = PatternSyntaxException.class)
+    public void rejectsInvalidExpressionAtConstruction() {
+        new DelegatingFilter("type", delegators("ca[", "c.*"), false);
+    }
+
+    private Map<String, Filter> delegators(final String firstKey, final String secondKey) {
+        final Map<String, Filter> delegators = new LinkedHashMap<String, Filter>();
+        delegators.put(firstKey, this.first);
+        delegators.put(secondKey, this.second);
+        return delegators;
+    }
+
+    private static MockHttpServletRequest request(final String queryString) {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/app");
+        request.setQueryString(queryString);
+        final String[] parameter = queryString.split("=");
+        request.setParameter(parameter[0], parameter[1]);
+        return request;
+    }
+
+    private static final class RecordingFilter implements Filter {
+
+        private int count;
+
+        @Override
+        public void doFilter(final ServletRequest request, final ServletResponse response, final FilterChain chain) {
+            this.count++;
+        }
+    }
+}
@@ -119,6 +119,66 @@ public final class HttpServletRequestWrapperFilterTests extends TestCase {
         filter.destroy();
     }
 
+    public void testRolesAreCachedUntilAssertionChanges() throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        final MockHttpSession session = new MockHttpSession();
+        final MockFilterConfig config = new MockFilterConfig();
+
+        config.addInitParameter("roleAttribute", "memberOf");
+        config.addInitParameter("ignoreCase", "true");
+        final HttpServletRequestWrapperFilter filter = new HttpServletRequestWrapperFilter();
+        filter.init(config);
+
+        final Map<String, Object> attributes = new HashMap<String, Object>();
+        attributes.put("memberOf", Arrays.asList("Staff", "Faculty"));
+        session.setAttribute(AbstractCasFilter.CONST_CAS_ASSERTION,
+            new AssertionImpl(new AttributePrincipalImpl("alice", attributes)));
+        request.setSession(session);
+
+        filter.doFilter(request, new MockHttpServletResponse(), createFilterChain());
+        assertTrue(this.mockRequest.isUserInRole("STAFF"));
+        final Object roles = session.getAttribute(HttpServletRequestWrapperFilter.CONST_CAS_ROLES);
+        assertNotNull(roles);
+
+        filter.doFilter(request, new MockHttpServletResponse(), createFilterChain());
+        assertTrue(this.mockRequest.isUserInRole("faculty"));
+        assertSame(roles, session.getAttribute(HttpServletRequestWrapperFilter.CONST_CAS_ROLES));
+
+        final Map<String, Object> newAttributes = new HashMap<String, Object>();
+        newAttributes.put("memberOf", "Students");
+        session.setAttribute(AbstractCasFilter.CONST_CAS_ASSERTION,
+            new AssertionImpl(new AttributePrincipalImpl("alice", newAttributes)));
+
+        filter.doFilter(request, new MockHttpServletResponse(), createFilterChain());
+        assertFalse(this.mockRequest.isUserInRole("staff"));
+        assertTrue(this.mockRequest.isUserInRole("students"));
+        assertNotSame(roles, session.getAttribute(HttpServletRequestWrapperFilter.CONST_CAS_ROLES));
+
+        filter.destroy();
+    }
+
+    public void testRolesWithoutSession() throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        final MockFilterConfig config = new MockFilterConfig();
+
+        config.addInitParameter("roleAttribute", "memberOf");
+        final HttpServletRequestWrapperFilter filter = new HttpServletRequestWrapperFilter();
+        filter.init(config);
+
+        final Map<String, Object> attributes = new HashMap<String, Object>();
+        attributes.put("memberOf", Arrays.asList("staff", "faculty"));
+        request.setAttribute(AbstractCasFilter.CONST_CAS_ASSERTION,
+            new AssertionImpl(new AttributePrincipalImpl("bob", attributes)));
+
+        filter.doFilter(request, new MockHttpServletResponse(), createFilterChain());
+        assertTrue(this.mockRequest.isUserInRole("faculty"));
+        assertFalse(this.mockRequest.isUserInRole("FACULTY"));
+        assertNotNull(request.getAttribute(HttpServletRequestWrapperFilter.CONST_CAS_ROLES));
+        assertNull(request.getSession(false));
+
+        filter.destroy();
+    }
+
     private FilterChain createFilterChain() {
         return new FilterChain() {
             @Override
@@ -0,0 +1,78 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link PooledXPathExpression}.
+ *
+ * @since 4.0.0
+ */
+public class PooledXPathExpressionTests {
+
+    private static final String XML = "<cas:response xmlns:cas=\"http://www.yale.edu/tp/cas\">"
+        + "<cas:user>alice</cas:user><cas:group>a</cas:group><cas:group>b</cas:group></cas:response>";
+
+    private final MapNamespaceContext context = new MapNamespaceContext("cas->http://www.yale.edu/tp/cas");
+
+    @Test
+    public void evaluatesExpressions() throws Exception {
+        final Document document = XmlUtils.newDocument(XML);
+        final PooledXPathExpression user = new PooledXPathExpression("//cas:user", this.context);
+        final PooledXPathExpression groups = new PooledXPathExpression("//cas:group", this.context);
+
+        assertEquals("alice", user.evaluateAsString(document));
+        assertEquals(2, groups.evaluateAsNodeList(document).getLength());
+        assertEquals(1, user.getIdleCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidExpression() {
+        new PooledXPathExpression("//cas:user[", this.context);
+    }
+
+    @Test
+    public void poolIsBoundedUnderConcurrency() throws Exception {
+        final PooledXPathExpression user = new PooledXPathExpression("//cas:user", this.context, 2);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<String>> results = new ArrayList<Future<String>>();
+            for (int i = 0; i < 200; i++) {
+                results.add(executor.submit((Callable<String>) () -> user.evaluateAsString(XmlUtils.newDocument(XML))));
+            }
+            for (final Future<String> result : results) {
+                assertEquals("alice", result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(user.getIdleCount() <= 2);
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link QueryParameters}.
+ *
+ * @since 4.0.0
+ */
+public class QueryParametersTests {
+
+    @Test
+    public void tokenizesParameterNames() {
+        final QueryParameters parameters = QueryParameters.parse("a=1&ticket=ST-1&&flag&tick%65t2=x&b=c=d");
+
+        assertEquals(5, parameters.size());
+        assertTrue(parameters.contains("a"));
+        assertTrue(parameters.contains("ticket"));
+        assertTrue(parameters.contains("flag"));
+        assertTrue(parameters.contains("ticket2"));
+        assertTrue(parameters.contains("b"));
+        assertFalse(parameters.contains("tick"));
+        assertEquals(0, QueryParameters.parse(null).size());
+    }
+
+    @Test
+    public void isParsedOncePerRequest() {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/app");
+        request.setQueryString("ticket=ST-1");
+
+        final QueryParameters parameters = QueryParameters.of(request);
+        assertSame(parameters, QueryParameters.of(request));
+        assertSame(parameters, request.getAttribute(QueryParameters.CONST_CAS_QUERY_PARAMETERS));
+
+        request.setQueryString("logoutRequest=x");
+        assertNotSame(parameters, QueryParameters.of(request));
+        assertTrue(QueryParameters.of(request).contains("logoutRequest"));
+    }
+
+    @Test
+    public void safeGetParameterOnlyReadsParametersOfTheQueryString() {
+        final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/app");
+        request.setQueryString("a=b");
+        request.setParameter("ticket", "ST-1");
+        request.setParameter("logoutRequest", "message");
+
+        assertNull(CommonUtils.safeGetParameter(request, "ticket"));
+        assertEquals("message", CommonUtils.safeGetParameter(request, "logoutRequest"));
+
+        request.setQueryString("ticket=ST-1");
+        assertEquals("ST-1", CommonUtils.safeGetParameter(request, "ticket", Arrays.asList("logoutRequest")));
+    }
+}
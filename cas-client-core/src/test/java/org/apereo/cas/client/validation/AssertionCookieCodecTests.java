@@ -0,0 +1,175 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.authentication.AttributePrincipalImpl;
+import org.apereo.cas.client.util.AbstractCasFilter;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link AssertionCookieCodec}.
+ *
+ * @since 4.0.0
+ */
+public class AssertionCookieCodecTests {
+
+    private static final String FIRST_KEY = "oqi6vFxaZtct8Ud7VlHx62lpvgcaJAcCeU9ndRD2+k0=";
+
+    private static final String OTHER_KEY = "gY0wLXfY88KFx2dPboDRMi/jRMZJBiENQoy1iQol02o=";
+
+    private static final String OLD_KEY = "/ReIeYa+KqpM91LNUTocxhuToAGjDBzbrK+MyyRsXqs=";
+
+    private static final String NEW_KEY = "yKA+Frg/iZ5v6vDqOlB0yXovbox2jculrpmd51GojEQ=";
+
+    private static Assertion newAssertion() {
+        final Map<String, Object> attributes = new HashMap<String, Object>();
+        attributes.put("mail", "alice@example.org");
+        attributes.put("memberOf", Arrays.asList("staff", "admins"));
+        attributes.put("secret", "not for the cookie");
+        return new AssertionImpl(new AttributePrincipalImpl("alice", attributes));
+    }
+
+    private static AssertionCookieCodec newCodec(final String keys) {
+        final AssertionCookieCodec codec = new AssertionCookieCodec(keys);
+        codec.setAttributeNames("mail, memberOf");
+        return codec;
+    }
+
+    @Test
+    public void rejectsKeysThatAreNotBase64() {
+        try {
+            new AssertionCookieCodec("first-key");
+            fail("IllegalArgumentException expected.");
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void rejectsKeysShorterThan128Bits() {
+        try {
+            new AssertionCookieCodec(FIRST_KEY + ", c2hvcnQta2V5");
+            fail("IllegalArgumentException expected.");
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void roundTripsPrincipalAndSelectedAttributes() {
+        final AssertionCookieCodec codec = newCodec(FIRST_KEY);
+
+        final Assertion assertion = codec.decode(codec.encode(newAssertion()));
+
+        assertNotNull(assertion);
+        assertEquals("alice", assertion.getPrincipal().getName());
+        assertEquals("alice@example.org", assertion.getPrincipal().getAttributes().get("mail"));
+        assertEquals(Arrays.asList("staff", "admins"), assertion.getPrincipal().getAttributes().get("memberOf"));
+        assertFalse(assertion.getPrincipal().getAttributes().containsKey("secret"));
+        assertTrue(assertion.getValidUntilDate().getTime() > System.currentTimeMillis());
+    }
+
+    @Test
+    public void rejectsTamperedAndForeignCookies() {
+        final AssertionCookieCodec codec = newCodec(FIRST_KEY);
+        final String value = codec.encode(newAssertion());
+        final char[] tampered = value.toCharArray();
+        tampered[tampered.length / 2] = tampered[tampered.length / 2] == 'A' ? 'B' : 'A';
+
+        assertNull(codec.decode(new String(tampered)));
+        assertNull(codec.decode("not a cookie"));
+        assertNull(codec.decode(null));
+        assertNull(newCodec(OTHER_KEY).decode(value));
+    }
+
+    @Test
+    public void acceptsRetiredKeysDuringRotation() {
+        final String value = newCodec(OLD_KEY).encode(newAssertion());
+        final AssertionCookieCodec rotated = newCodec(NEW_KEY + ", " + OLD_KEY);
+
+        assertEquals("alice", rotated.decode(value).getPrincipal().getName());
+        assertNull(newCodec(OLD_KEY).decode(rotated.encode(newAssertion())));
+    }
+
+    @Test
+    public void rejectsExpiredCookies() {
+        final AssertionCookieCodec codec = newCodec(FIRST_KEY);
+        final Assertion expired = new AssertionImpl(new AttributePrincipalImpl("alice"), new Date(0), new Date(1000),
+            new Date(0), Collections.<String, Object>emptyMap());
+
+        assertNull(codec.decode(codec.encode(expired)));
+    }
+
+    @Test
+    public void dropsAttributesBeyondSizeBudget() {
+        final AssertionCookieCodec codec = newCodec(FIRST_KEY);
+        codec.setMaxSize(200);
+        final char[] large = new char[500];
+        Arrays.fill(large, 'x');
+        final Assertion assertion = new AssertionImpl(new AttributePrincipalImpl("alice",
+            Collections.<String, Object>singletonMap("mail", new String(large))));
+
+        final String value = codec.encode(assertion);
+        assertTrue(value.length() <= 200);
+        assertTrue(codec.decode(value).getPrincipal().getAttributes().isEmpty());
+
+        codec.setMaxSize(10);
+        assertNull(codec.encode(assertion));
+    }
+
+    @Test
+    public void issuesCookieAndAuthenticatesFollowingRequest() {
+        final AssertionCookieCodec codec = newCodec(FIRST_KEY);
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        request.setSecure(true);
+        request.setContextPath("/app");
+
+        assertTrue(codec.addCookie(request, response, newAssertion()));
+
+        final Cookie cookie = response.getCookie(AssertionCookieCodec.DEFAULT_COOKIE_NAME);
+        assertNotNull(cookie);
+        assertTrue(cookie.isHttpOnly());
+        assertTrue(cookie.getSecure());
+        assertEquals("/app", cookie.getPath());
+        assertNull(request.getSession(false));
+
+        final MockHttpServletRequest next = new MockHttpServletRequest();
+        next.setCookies(cookie);
+        final Assertion assertion = codec.retrieveAssertion(next);
+        assertEquals("alice", assertion.getPrincipal().getName());
+        assertSame(assertion, next.getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION));
+        assertSame(assertion, codec.retrieveAssertion(next));
+        assertNull(codec.retrieveAssertion(new MockHttpServletRequest()));
+        assertEquals(2, ((List<?>) assertion.getPrincipal().getAttributes().get("memberOf")).size());
+    }
+}
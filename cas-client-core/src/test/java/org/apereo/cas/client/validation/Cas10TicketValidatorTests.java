@@ -62,7 +62,7 @@ public final class Cas10TicketValidatorTests extends AbstractTicketValidatorTest
             this.ticketValidator.validate("testTicket", "myService");
             fail("ValidationException expected.");
         } catch (final TicketValidationException e) {
-            // expected
+            assertTrue(e instanceof InvalidTicketValidationException);
         }
     }
 
@@ -80,7 +80,7 @@ public final class Cas10TicketValidatorTests extends AbstractTicketValidatorTest
             this.ticketValidator.validate("testTicket", "myService");
             fail("ValidationException expected.");
         } catch (final TicketValidationException e) {
-            // expected
+            assertFalse(e instanceof InvalidTicketValidationException);
         }
     }
 
@@ -0,0 +1,157 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link TicketPreValidator}.
+ *
+ * @since 4.0.0
+ */
+public class TicketPreValidatorTests {
+
+    private static TicketPreValidator newPreValidator(final int cacheSize) {
+        final TicketPreValidator preValidator = new TicketPreValidator();
+        preValidator.setPrefixes("ST-, PT-");
+        preValidator.setMinLength(8);
+        preValidator.setMaxLength(64);
+        preValidator.setCacheSize(cacheSize);
+        return preValidator;
+    }
+
+    @Test
+    public void refusesMalformedTickets() {
+        final TicketPreValidator preValidator = newPreValidator(0);
+
+        assertTrue(preValidator.isAcceptable("ST-1-abcdef-cas01"));
+        assertTrue(preValidator.isAcceptable("PT-2-abcdef-cas01"));
+        assertFalse(preValidator.isAcceptable("TGT-1-abcdef"));
+        assertFalse(preValidator.isAcceptable("ST-1"));
+        assertFalse(preValidator.isAcceptable("ST-1-" + new String(new char[64]).replace('\0', 'x')));
+        assertFalse(preValidator.isAcceptable("ST-1-<script>alert(1)</script>"));
+        assertFalse(preValidator.isAcceptable("ST-1-abc def"));
+        assertEquals(5, preValidator.getMalformedCount());
+    }
+
+    @Test
+    public void refusesRejectedTicketsUntilTheyExpire() throws Exception {
+        final TicketPreValidator preValidator = newPreValidator(10);
+        preValidator.setCacheTimeToLive(1);
+
+        preValidator.reject("ST-1-abcdef-cas01");
+        preValidator.reject("ST-1-abcdef-cas01");
+        preValidator.reject("garbage");
+
+        assertEquals(1, preValidator.size());
+        assertEquals(1, preValidator.getRejectedCount());
+        assertFalse(preValidator.isAcceptable("ST-1-abcdef-cas01"));
+        assertTrue(preValidator.isAcceptable("ST-2-abcdef-cas01"));
+        assertEquals(1, preValidator.getReplayedCount());
+
+        Thread.sleep(1100);
+        assertTrue(preValidator.isAcceptable("ST-1-abcdef-cas01"));
+    }
+
+    @Test
+    public void evictsOldestRejectedTicketsWhenFull() {
+        final TicketPreValidator preValidator = newPreValidator(2);
+
+        preValidator.reject("ST-1-abcdef-cas01");
+        preValidator.reject("ST-2-abcdef-cas01");
+        preValidator.reject("ST-3-abcdef-cas01");
+
+        assertEquals(2, preValidator.size());
+        assertEquals(1, preValidator.getEvictionCount());
+        assertTrue(preValidator.isAcceptable("ST-1-abcdef-cas01"));
+        assertFalse(preValidator.isAcceptable("ST-3-abcdef-cas01"));
+    }
+
+    @Test
+    public void doesNotRememberTicketsWithoutCache() {
+        final TicketPreValidator preValidator = newPreValidator(0);
+
+        preValidator.reject("ST-1-abcdef-cas01");
+
+        assertEquals(0, preValidator.size());
+        assertTrue(preValidator.isAcceptable("ST-1-abcdef-cas01"));
+    }
+
+    @Test
+    public void filterRefusesReplayedTicketWithoutContactingServer() throws Exception {
+        final AtomicInteger validations = new AtomicInteger();
+        final Cas10TicketValidationFilter filter = new Cas10TicketValidationFilter();
+        filter.setServerName("localhost");
+        filter.setTicketValidator((ticket, service) -> {
+            validations.incrementAndGet();
+            throw new InvalidTicketValidationException("INVALID_TICKET");
+        });
+        filter.setTicketPreValidator(newPreValidator(10));
+
+        for (final String ticket : new String[] {"ST-1-abcdef-cas01", "ST-1-abcdef-cas01", "bogus"}) {
+            final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/app");
+            request.setQueryString("ticket=" + ticket);
+            request.addParameter("ticket", ticket);
+            final MockHttpServletResponse response = new MockHttpServletResponse();
+
+            filter.doFilter(request, response, new MockFilterChain());
+
+            assertEquals(HttpServletResponse.SC_FORBIDDEN, response.getStatus());
+        }
+
+        assertEquals(1, validations.get());
+        assertEquals(1, filter.getTicketPreValidator().getReplayedCount());
+        assertEquals(1, filter.getTicketPreValidator().getMalformedCount());
+    }
+
+    @Test
+    public void filterRetriesTicketWhenServerGaveNoAnswer() throws Exception {
+        final AtomicInteger validations = new AtomicInteger();
+        final Cas10TicketValidationFilter filter = new Cas10TicketValidationFilter();
+        filter.setServerName("localhost");
+        filter.setTicketValidator((ticket, service) -> {
+            validations.incrementAndGet();
+            throw new TicketValidationException("The CAS server returned no response.");
+        });
+        filter.setTicketPreValidator(newPreValidator(10));
+
+        for (int i = 0; i < 2; i++) {
+            final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/app");
+            request.setQueryString("ticket=ST-1-abcdef-cas01");
+            request.addParameter("ticket", "ST-1-abcdef-cas01");
+            final MockHttpServletResponse response = new MockHttpServletResponse();
+
+            filter.doFilter(request, response, new MockFilterChain());
+
+            assertEquals(HttpServletResponse.SC_FORBIDDEN, response.getStatus());
+        }
+
+        assertEquals(2, validations.get());
+        assertEquals(0, filter.getTicketPreValidator().getReplayedCount());
+        assertEquals(0, filter.getTicketPreValidator().size());
+    }
+}
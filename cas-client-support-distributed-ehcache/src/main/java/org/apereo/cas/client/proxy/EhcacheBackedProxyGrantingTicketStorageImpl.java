@@ -18,15 +18,36 @@
  */
 package org.apereo.cas.client.proxy;
 
+import org.apereo.cas.client.util.CommonUtils;
+
 import org.ehcache.Cache;
 import org.ehcache.CacheManager;
+import org.ehcache.config.CacheConfiguration;
 import org.ehcache.config.builders.CacheConfigurationBuilder;
 import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
 import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.spi.service.StatisticsService;
+import org.ehcache.core.statistics.CacheStatistics;
+import org.ehcache.core.statistics.DefaultStatisticsService;
+import org.ehcache.expiry.ExpiryPolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.function.Supplier;
+
 /**
+ * Implementation of the {@link ProxyGrantingTicketStorage} interface that is backed by Ehcache.
+ * <p>
+ * By default a heap-only cache of {@value #DEFAULT_HEAP_ENTRIES} entries is created whose entries expire
+ * {@link #DEFAULT_TIME_TO_LIVE} after they were saved, mirroring the lifetime used by {@link ProxyGrantingTicketStorageImpl}.
+ * Larger deployments should build their own {@link CacheConfiguration} (see
+ * {@link #newCacheConfiguration(long, long, long, Duration, Duration)}) with off-heap and/or disk tiers and may hand in
+ * an externally managed {@link CacheManager}.
+ *
  * @author Scott Battaglia
  * @version $Revision$ $Date$
  * @since 3.1.9
@@ -35,23 +56,170 @@ public final class EhcacheBackedProxyGrantingTicketStorageImpl extends AbstractE
 
     public static final String EHCACHE_CACHE_NAME = "org.apereocas.client.proxy.EhcacheBackedProxyGrantingTicketStorageImpl.cache";
 
+    /**
+     * Default number of entries held on heap.
+     */
+    public static final long DEFAULT_HEAP_ENTRIES = 1000;
+
+    /**
+     * Default time to live of a ProxyGrantingTicket that has not been claimed.
+     */
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(1);
+
+    private static final String SAVED_AT_SEPARATOR = ":";
+
     private static final Logger logger = LoggerFactory.getLogger(EhcacheBackedProxyGrantingTicketStorageImpl.class);
 
-    private final Cache cache;
+    private final Cache<String, String> cache;
+
+    private final String cacheName;
+
+    /**
+     * The cache manager, if it was created (and is therefore owned) by this instance.
+     */
+    private final CacheManager ownedCacheManager;
+
+    private final StatisticsService statisticsService;
+
+    /**
+     * Whether values carry the time they were saved, which only the expiry policy capping the time to idle at the time
+     * to live needs.  Values of all other caches are stored as is.
+     */
+    private final boolean stampSaveTime;
 
     public EhcacheBackedProxyGrantingTicketStorageImpl() {
-        final CacheManager cacheManager = CacheManagerBuilder.newCacheManagerBuilder().build();
-        cacheManager.init();
-        cache = cacheManager.createCache(EHCACHE_CACHE_NAME,
-            CacheConfigurationBuilder.newCacheConfigurationBuilder(String.class, String.class,
-                ResourcePoolsBuilder.heap(1000)));
+        this(newCacheConfiguration(DEFAULT_HEAP_ENTRIES, 0, 0, DEFAULT_TIME_TO_LIVE, null));
+    }
+
+    /**
+     * Creates the storage with its own {@link CacheManager} using the provided cache configuration.  The configuration
+     * must not contain a disk tier; use {@link #EhcacheBackedProxyGrantingTicketStorageImpl(CacheConfiguration, String)}
+     * for that.
+     *
+     * @param cacheConfiguration the cache configuration.  CANNOT be NULL.
+     */
+    public EhcacheBackedProxyGrantingTicketStorageImpl(final CacheConfiguration<String, String> cacheConfiguration) {
+        this(cacheConfiguration, null);
+    }
+
+    /**
+     * Creates the storage with its own {@link CacheManager} using the provided cache configuration.
+     *
+     * @param cacheConfiguration the cache configuration.  CANNOT be NULL.
+     * @param persistenceDirectory the root directory for the disk tier, or null if the configuration has no disk tier.
+     */
+    public EhcacheBackedProxyGrantingTicketStorageImpl(final CacheConfiguration<String, String> cacheConfiguration,
+                                                       final String persistenceDirectory) {
+        CommonUtils.assertNotNull(cacheConfiguration, "cacheConfiguration cannot be null.");
+        this.statisticsService = new DefaultStatisticsService();
+        final CacheManager cacheManager = CommonUtils.isBlank(persistenceDirectory)
+            ? CacheManagerBuilder.newCacheManagerBuilder().using(this.statisticsService).build(true)
+            : CacheManagerBuilder.newCacheManagerBuilder().using(this.statisticsService)
+                .with(CacheManagerBuilder.persistence(persistenceDirectory)).build(true);
+        this.ownedCacheManager = cacheManager;
+        this.cacheName = EHCACHE_CACHE_NAME;
+        this.cache = cacheManager.createCache(EHCACHE_CACHE_NAME, cacheConfiguration);
+        this.stampSaveTime = needsSaveTime(this.cache);
         logger.info("Created cache with name: {}", EHCACHE_CACHE_NAME);
     }
 
+    /**
+     * Creates the storage on top of an externally managed {@link CacheManager}.  The cache is looked up by name and
+     * created from the provided configuration if it does not exist yet.  The lifecycle of the cache manager remains the
+     * responsibility of the caller.
+     *
+     * @param cacheManager the initialized cache manager.  CANNOT be NULL.
+     * @param cacheName the name of the cache.  CANNOT be NULL.
+     * @param cacheConfiguration the configuration used if the cache has to be created.  CANNOT be NULL.
+     * @param statisticsService the statistics service the cache manager was built with, or null if statistics are not needed.
+     */
+    public EhcacheBackedProxyGrantingTicketStorageImpl(final CacheManager cacheManager, final String cacheName,
+                                                       final CacheConfiguration<String, String> cacheConfiguration,
+                                                       final StatisticsService statisticsService) {
+        CommonUtils.assertNotNull(cacheManager, "cacheManager cannot be null.");
+        CommonUtils.assertNotNull(cacheName, "cacheName cannot be null.");
+        CommonUtils.assertNotNull(cacheConfiguration, "cacheConfiguration cannot be null.");
+        final Cache<String, String> existing = cacheManager.getCache(cacheName, String.class, String.class);
+        this.cache = existing != null ? existing : cacheManager.createCache(cacheName, cacheConfiguration);
+        this.cacheName = cacheName;
+        this.ownedCacheManager = null;
+        this.statisticsService = statisticsService;
+        this.stampSaveTime = needsSaveTime(this.cache);
+        logger.info("Using cache with name: {}", cacheName);
+    }
+
+    /**
+     * Builds a cache configuration suitable for storing ProxyGrantingTickets.
+     *
+     * @param heapEntries the number of entries held on heap.  Must be greater than zero.
+     * @param offHeapMegabytes the size of the off-heap tier in megabytes, or 0 to disable it.
+     * @param diskMegabytes the size of the (non-persistent) disk tier in megabytes, or 0 to disable it.
+     * @param timeToLive the time after which a saved ticket expires, or null for no time to live.
+     * @param timeToIdle the time after which a ticket that has not been accessed expires, or null for no time to idle.
+     *                   Accessing a ticket never extends its life past the time to live.
+     * @return the cache configuration.
+     */
+    public static CacheConfiguration<String, String> newCacheConfiguration(final long heapEntries, final long offHeapMegabytes,
+                                                                           final long diskMegabytes, final Duration timeToLive,
+                                                                           final Duration timeToIdle) {
+        CommonUtils.assertTrue(heapEntries > 0, "heapEntries must be greater than zero.");
+        ResourcePoolsBuilder pools = ResourcePoolsBuilder.newResourcePoolsBuilder().heap(heapEntries, EntryUnit.ENTRIES);
+        if (offHeapMegabytes > 0) {
+            pools = pools.offheap(offHeapMegabytes, MemoryUnit.MB);
+        }
+        if (diskMegabytes > 0) {
+            pools = pools.disk(diskMegabytes, MemoryUnit.MB);
+        }
+        return CacheConfigurationBuilder.newCacheConfigurationBuilder(String.class, String.class, pools)
+            .withExpiry(newExpiryPolicy(timeToLive, timeToIdle))
+            .build();
+    }
+
+    private static ExpiryPolicy<? super String, ? super String> newExpiryPolicy(final Duration timeToLive, final Duration timeToIdle) {
+        if (timeToLive == null && timeToIdle == null) {
+            return ExpiryPolicyBuilder.noExpiration();
+        }
+        if (timeToIdle == null) {
+            return ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive);
+        }
+        if (timeToLive == null) {
+            return ExpiryPolicyBuilder.timeToIdleExpiration(timeToIdle);
+        }
+        return new TimeToLiveAndIdleExpiryPolicy(timeToLive, timeToIdle);
+    }
+
+    private static boolean needsSaveTime(final Cache<String, String> cache) {
+        return cache.getRuntimeConfiguration().getExpiryPolicy() instanceof TimeToLiveAndIdleExpiryPolicy;
+    }
+
+    /**
+     * Prefixes the value with the time it was saved so that {@link TimeToLiveAndIdleExpiryPolicy} can work out how much of
+     * the time to live is left.
+     */
+    private static String wrap(final String value) {
+        return System.currentTimeMillis() + SAVED_AT_SEPARATOR + value;
+    }
+
+    private static String unwrap(final String storedValue) {
+        return savedAt(storedValue) < 0 ? storedValue : storedValue.substring(storedValue.indexOf(SAVED_AT_SEPARATOR) + 1);
+    }
+
+    private static long savedAt(final String storedValue) {
+        final int index = storedValue.indexOf(SAVED_AT_SEPARATOR);
+        if (index > 0) {
+            try {
+                return Long.parseLong(storedValue.substring(0, index));
+            } catch (final NumberFormatException e) {
+                // fall through
+            }
+        }
+        return -1;
+    }
+
     @Override
     public void saveInternal(final String proxyGrantingTicketIou, final String proxyGrantingTicket) {
         try {
-            this.cache.put(proxyGrantingTicketIou, proxyGrantingTicket);
+            this.cache.put(proxyGrantingTicketIou, this.stampSaveTime ? wrap(proxyGrantingTicket) : proxyGrantingTicket);
         } catch (final Exception e) {
             logger.warn("Exception accessing one of the remote servers: {}", e.getMessage(), e);
         }
@@ -59,10 +227,83 @@ public final class EhcacheBackedProxyGrantingTicketStorageImpl extends AbstractE
 
     @Override
     public String retrieveInternal(final String proxyGrantingTicketIou) {
-        return proxyGrantingTicketIou == null ? null : (String) this.cache.get(proxyGrantingTicketIou);
+        if (proxyGrantingTicketIou == null) {
+            return null;
+        }
+        final String storedValue = this.cache.get(proxyGrantingTicketIou);
+        return storedValue == null || !this.stampSaveTime ? storedValue : unwrap(storedValue);
     }
 
+    /**
+     * Ehcache expires entries on its own; this only reports the cache statistics if they are available.
+     */
     @Override
     public void cleanUp() {
+        final CacheStatistics statistics = getCacheStatistics();
+        if (statistics != null && logger.isDebugEnabled()) {
+            logger.debug("Cache [{}]: hits={}, misses={}, evictions={}, expirations={}", this.cacheName,
+                statistics.getCacheHits(), statistics.getCacheMisses(), statistics.getCacheEvictions(),
+                statistics.getCacheExpirations());
+        }
+    }
+
+    /**
+     * Returns the hit/miss/eviction statistics of the underlying cache.
+     *
+     * @return the statistics, or null if no {@link StatisticsService} is available.
+     */
+    public CacheStatistics getCacheStatistics() {
+        return this.statisticsService == null ? null : this.statisticsService.getCacheStatistics(this.cacheName);
+    }
+
+    /**
+     * Closes the {@link CacheManager} if it was created by this instance.  Externally supplied cache managers are left
+     * untouched.
+     */
+    public void destroy() {
+        if (this.ownedCacheManager != null) {
+            this.ownedCacheManager.close();
+        }
+    }
+
+    /**
+     * Expires entries after the time to live, or earlier if they are not accessed within the time to idle.  Unlike an
+     * access duration set through {@link ExpiryPolicyBuilder}, an access only ever extends the entry up to the remaining
+     * time to live.
+     */
+    private static final class TimeToLiveAndIdleExpiryPolicy implements ExpiryPolicy<String, String> {
+
+        private final Duration timeToLive;
+
+        private final Duration timeToIdle;
+
+        private TimeToLiveAndIdleExpiryPolicy(final Duration timeToLive, final Duration timeToIdle) {
+            this.timeToLive = timeToLive;
+            this.timeToIdle = timeToIdle;
+        }
+
+        @Override
+        public Duration getExpiryForCreation(final String key, final String value) {
+            return min(this.timeToLive, this.timeToIdle);
+        }
+
+        @Override
+        public Duration getExpiryForAccess(final String key, final Supplier<? extends String> value) {
+            final long savedAt = savedAt(value.get());
+            if (savedAt < 0) {
+                return null;
+            }
+            final Duration remaining = this.timeToLive.minusMillis(System.currentTimeMillis() - savedAt);
+            return remaining.isNegative() ? Duration.ZERO : min(remaining, this.timeToIdle);
+        }
+
+        @Override
+        public Duration getExpiryForUpdate(final String key, final Supplier<? extends String> oldValue, final String newValue) {
+            return min(this.timeToLive, this.timeToIdle);
+        }
+
+        private static Duration min(final Duration first, final Duration second) {
+            return first.compareTo(second) <= 0 ? first : second;
+        }
     }
 }
@@ -20,6 +20,11 @@
 import org.apereo.cas.client.proxy.EhcacheBackedProxyGrantingTicketStorageImpl;
 
 import junit.framework.TestCase;
+import org.ehcache.CacheManager;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.expiry.ExpiryPolicy;
+
+import java.time.Duration;
 
 /**
  * @author Scott Battaglia
@@ -37,4 +42,61 @@ public class EhCacheBackedProxyGrantingTicketStorageImplTests extends TestCase {
         cache.save("proxyGrantingTicketIou", "proxyGrantingTicket");
         assertEquals("proxyGrantingTicket", cache.retrieve("proxyGrantingTicketIou"));
     }
+
+    public void testTieredConfigurationWithStatistics() throws Exception {
+        final EhcacheBackedProxyGrantingTicketStorageImpl cache = new EhcacheBackedProxyGrantingTicketStorageImpl(
+            EhcacheBackedProxyGrantingTicketStorageImpl.newCacheConfiguration(10, 1, 0, Duration.ofMinutes(5), Duration.ofMinutes(1)));
+        try {
+            cache.save("proxyGrantingTicketIou", "proxyGrantingTicket");
+            assertEquals("proxyGrantingTicket", cache.retrieve("proxyGrantingTicketIou"));
+            assertNull(cache.retrieve("unknown"));
+            assertEquals(1, cache.getCacheStatistics().getCacheHits());
+            assertEquals(1, cache.getCacheStatistics().getCacheMisses());
+        } finally {
+            cache.destroy();
+        }
+    }
+
+    public void testExpiredTicketIsNotReturned() throws Exception {
+        final EhcacheBackedProxyGrantingTicketStorageImpl cache = new EhcacheBackedProxyGrantingTicketStorageImpl(
+            EhcacheBackedProxyGrantingTicketStorageImpl.newCacheConfiguration(10, 0, 0, Duration.ofMillis(50), null));
+        try {
+            cache.save("proxyGrantingTicketIou", "proxyGrantingTicket");
+            Thread.sleep(100);
+            assertNull(cache.retrieve("proxyGrantingTicketIou"));
+        } finally {
+            cache.destroy();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testAccessDoesNotExtendTicketPastTimeToLive() throws Exception {
+        final ExpiryPolicy<String, String> expiry = (ExpiryPolicy<String, String>) EhcacheBackedProxyGrantingTicketStorageImpl
+            .newCacheConfiguration(10, 0, 0, Duration.ofHours(1), Duration.ofMinutes(1)).getExpiryPolicy();
+        final long now = System.currentTimeMillis();
+
+        // the stored values are backdated instead of waiting for time to pass
+        assertEquals(Duration.ofMinutes(1), expiry.getExpiryForCreation("iou", now + ":pgt"));
+        assertEquals(Duration.ofMinutes(1), expiry.getExpiryForAccess("iou", () -> now + ":pgt"));
+        final Duration nearlyExpired = expiry.getExpiryForAccess("iou",
+            () -> now - Duration.ofHours(1).minusSeconds(10).toMillis() + ":pgt");
+        assertTrue(nearlyExpired.compareTo(Duration.ofSeconds(10)) <= 0);
+        assertEquals(Duration.ZERO, expiry.getExpiryForAccess("iou", () -> now - Duration.ofHours(2).toMillis() + ":pgt"));
+    }
+
+    public void testValuesAreStoredAsIsWithoutTimeToIdle() throws Exception {
+        final CacheManager cacheManager = CacheManagerBuilder.newCacheManagerBuilder().build(true);
+        try {
+            final EhcacheBackedProxyGrantingTicketStorageImpl storage = new EhcacheBackedProxyGrantingTicketStorageImpl(
+                cacheManager, "tickets", EhcacheBackedProxyGrantingTicketStorageImpl.newCacheConfiguration(10, 0, 0,
+                Duration.ofMinutes(1), null), null);
+            storage.save("proxyGrantingTicketIou", "proxyGrantingTicket");
+
+            assertEquals("proxyGrantingTicket",
+                cacheManager.getCache("tickets", String.class, String.class).get("proxyGrantingTicketIou"));
+            assertEquals("proxyGrantingTicket", storage.retrieve("proxyGrantingTicketIou"));
+        } finally {
+            cacheManager.close();
+        }
+    }
 }
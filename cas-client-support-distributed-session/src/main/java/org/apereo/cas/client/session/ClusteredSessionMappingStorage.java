@@ -0,0 +1,170 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * SessionMappingStorage for applications running on more than one node.  The back-channel logout request from the CAS
+ * server reaches an arbitrary node, which usually does not hold the session of the ticket being logged out.
+ * <p>
+ * Sessions are held by a local {@link SessionMappingStorage}, while their location is published to a {@link SessionIndex}
+ * shared by all nodes.  A logout for a ticket that is not known locally costs a single index lookup; if the session lives
+ * on another node, the logout is forwarded to that node only through the {@link LogoutChannel}, where it is handled by
+ * the local storage like any other logout.
+ * <p>
+ * Failures of the shared index are logged and do not affect local single sign out.
+ * <p>
+ * Local lookups can be guarded by passing a {@link BloomFilterSessionMappingStorage} as the local storage.
+ *
+ * @since 4.0.0
+ */
+public final class ClusteredSessionMappingStorage implements SessionMappingStorage {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final String nodeId;
+
+    private final SessionIndex sessionIndex;
+
+    private final LogoutChannel logoutChannel;
+
+    private final SessionMappingStorage localStorage;
+
+    /**
+     * Maps the Session ID of local sessions to the key from the CAS Server, so that the index can be cleaned up when a
+     * session is destroyed.
+     */
+    private final ConcurrentMap<String, String> idToSessionKeyMapping = new ConcurrentHashMap<String, String>();
+
+    /**
+     * @param nodeId the ID under which this node can be reached through the logout channel.
+     * @param sessionIndex the index shared by all nodes.
+     * @param logoutChannel the channel used to reach the other nodes.
+     */
+    public ClusteredSessionMappingStorage(final String nodeId, final SessionIndex sessionIndex, final LogoutChannel logoutChannel) {
+        this(nodeId, sessionIndex, logoutChannel, new ConcurrentHashMapBackedSessionMappingStorage());
+    }
+
+    /**
+     * @param nodeId the ID under which this node can be reached through the logout channel.
+     * @param sessionIndex the index shared by all nodes.
+     * @param logoutChannel the channel used to reach the other nodes.
+     * @param localStorage the storage holding the sessions of this node.
+     */
+    public ClusteredSessionMappingStorage(final String nodeId, final SessionIndex sessionIndex, final LogoutChannel logoutChannel,
+                                          final SessionMappingStorage localStorage) {
+        CommonUtils.assertNotNull(nodeId, "nodeId cannot be null.");
+        CommonUtils.assertNotNull(sessionIndex, "sessionIndex cannot be null.");
+        CommonUtils.assertNotNull(logoutChannel, "logoutChannel cannot be null.");
+        CommonUtils.assertNotNull(localStorage, "localStorage cannot be null.");
+        this.nodeId = nodeId;
+        this.sessionIndex = sessionIndex;
+        this.logoutChannel = logoutChannel;
+        this.localStorage = localStorage;
+    }
+
+    @Override
+    public HttpSession removeSessionByMappingId(final String mappingId) {
+        final HttpSession session = this.localStorage.removeSessionByMappingId(mappingId);
+
+        if (session != null) {
+            this.idToSessionKeyMapping.remove(session.getId(), mappingId);
+            removeFromIndex(mappingId);
+            return session;
+        }
+
+        final SessionLocation location = removeFromIndex(mappingId);
+        if (location == null) {
+            logger.debug("No session known for [{}] in the cluster.", mappingId);
+            return null;
+        }
+        if (this.nodeId.equals(location.getNodeId())) {
+            logger.debug("Session [{}] was already removed from this node.", location.getSessionId());
+            return null;
+        }
+
+        logger.debug("Forwarding logout of [{}] to node [{}]", mappingId, location.getNodeId());
+        try {
+            this.logoutChannel.forward(location, mappingId);
+        } catch (final RuntimeException e) {
+            logger.warn("Unable to forward logout to node [{}]: {}", location.getNodeId(), e.getMessage(), e);
+        }
+        return null;
+    }
+
+    @Override
+    public void removeBySessionById(final String sessionId) {
+        this.localStorage.removeBySessionById(sessionId);
+
+        final String mappingId = this.idToSessionKeyMapping.remove(sessionId);
+        if (mappingId != null) {
+            removeFromIndex(mappingId);
+        }
+    }
+
+    @Override
+    public void addSessionById(final String mappingId, final HttpSession session) {
+        this.localStorage.addSessionById(mappingId, session);
+        this.idToSessionKeyMapping.put(session.getId(), mappingId);
+
+        try {
+            this.sessionIndex.put(mappingId, new SessionLocation(this.nodeId, session.getId()));
+        } catch (final RuntimeException e) {
+            logger.warn("Unable to publish session [{}] to the session index: {}", session.getId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return false, logouts for tickets recorded on other nodes are forwarded to them.
+     */
+    @Override
+    public boolean isLocal() {
+        return false;
+    }
+
+    /**
+     * Destroys the local storage and the session index.
+     */
+    @Override
+    public void destroy() {
+        this.localStorage.destroy();
+        this.sessionIndex.destroy();
+    }
+
+    public String getNodeId() {
+        return this.nodeId;
+    }
+
+    private SessionLocation removeFromIndex(final String mappingId) {
+        try {
+            return this.sessionIndex.remove(mappingId);
+        } catch (final RuntimeException e) {
+            logger.warn("Unable to access the session index: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+}
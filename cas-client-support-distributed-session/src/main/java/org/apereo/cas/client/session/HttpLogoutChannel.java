@@ -0,0 +1,105 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * LogoutChannel that replays the CAS back-channel logout request against the owning node.  Node IDs are therefore the
+ * URLs at which each node's {@link SingleSignOutFilter} can be reached directly, i.e. bypassing the load balancer.
+ * <p>
+ * Since the owning node handles the forwarded request with its regular single sign out handling, no additional endpoint
+ * is needed.  Requests are sent asynchronously; failures are logged.
+ *
+ * @since 4.0.0
+ */
+public final class HttpLogoutChannel implements LogoutChannel {
+
+    /**
+     * Default timeout in milliseconds for connecting to and receiving the response from the owning node.
+     */
+    public static final long DEFAULT_TIMEOUT = 5000;
+
+    private static final String LOGOUT_REQUEST_TEMPLATE =
+        "<samlp:LogoutRequest xmlns:samlp=\"urn:oasis:names:tc:SAML:2.0:protocol\" ID=\"%s\" Version=\"2.0\" "
+        + "IssueInstant=\"%s\"><saml:NameID xmlns:saml=\"urn:oasis:names:tc:SAML:2.0:assertion\">@NOT_USED@"
+        + "</saml:NameID><samlp:SessionIndex>%s</samlp:SessionIndex></samlp:LogoutRequest>";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final String logoutParameterName;
+
+    private final Duration timeout;
+
+    private final HttpClient httpClient;
+
+    public HttpLogoutChannel() {
+        this("logoutRequest", DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * @param logoutParameterName the name of the parameter the nodes read the logout request from.
+     * @param timeout the timeout in milliseconds for connecting to and receiving the response from the owning node.
+     */
+    public HttpLogoutChannel(final String logoutParameterName, final long timeout) {
+        CommonUtils.assertNotNull(logoutParameterName, "logoutParameterName cannot be null.");
+        CommonUtils.assertTrue(timeout > 0, "timeout must be greater than zero.");
+        this.logoutParameterName = logoutParameterName;
+        this.timeout = Duration.ofMillis(timeout);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(this.timeout).build();
+    }
+
+    @Override
+    public void forward(final SessionLocation location, final String mappingId) {
+        final String body = this.logoutParameterName + '='
+            + URLEncoder.encode(buildLogoutRequest(mappingId), StandardCharsets.UTF_8);
+        final HttpRequest request = HttpRequest.newBuilder(URI.create(location.getNodeId()))
+            .timeout(this.timeout)
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+            .build();
+
+        this.httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+            if (e != null) {
+                logger.warn("Unable to forward logout to node [{}]: {}", location.getNodeId(), e.getMessage());
+            } else if (response.statusCode() >= 400) {
+                logger.warn("Node [{}] answered forwarded logout with status {}", location.getNodeId(), response.statusCode());
+            } else {
+                logger.debug("Forwarded logout of [{}] to node [{}]", mappingId, location.getNodeId());
+            }
+        });
+    }
+
+    static String buildLogoutRequest(final String mappingId) {
+        final String escaped = mappingId.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+        return String.format(LOGOUT_REQUEST_TEMPLATE, "_" + Long.toHexString(System.nanoTime()), Instant.now(), escaped);
+    }
+}
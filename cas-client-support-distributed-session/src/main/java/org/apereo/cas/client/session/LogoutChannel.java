@@ -0,0 +1,35 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+/**
+ * Delivers a logout to the node that holds the session to be destroyed.
+ *
+ * @since 4.0.0
+ */
+public interface LogoutChannel {
+
+    /**
+     * Asks the node owning the session to destroy it.  Implementations should not block the caller on the remote node.
+     *
+     * @param location the location of the session.
+     * @param mappingId the id the session is keyed under.
+     */
+    void forward(SessionLocation location, String mappingId);
+}
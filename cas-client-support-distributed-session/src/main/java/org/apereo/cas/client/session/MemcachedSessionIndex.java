@@ -0,0 +1,114 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+import net.spy.memcached.MemcachedClient;
+import net.spy.memcached.MemcachedClientIF;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SessionIndex backed by memcached.  Entries expire after the configured time to live, which should be at least the
+ * maximum lifetime of an application session.
+ *
+ * @since 4.0.0
+ */
+public final class MemcachedSessionIndex implements SessionIndex {
+
+    /**
+     * Default time to live of an index entry in seconds.
+     */
+    public static final int DEFAULT_TIME_TO_LIVE = 8 * 60 * 60;
+
+    private static final String KEY_PREFIX = "cas-sso:";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final MemcachedClientIF client;
+
+    private final int timeToLive;
+
+    /**
+     * @param hostnamesAndPorts the host:port combinations of the memcached servers.
+     */
+    public MemcachedSessionIndex(final String[] hostnamesAndPorts) {
+        this(newClient(hostnamesAndPorts), DEFAULT_TIME_TO_LIVE);
+    }
+
+    /**
+     * @param client the memcached client.
+     * @param timeToLive the time to live of an index entry in seconds.
+     */
+    public MemcachedSessionIndex(final MemcachedClientIF client, final int timeToLive) {
+        CommonUtils.assertNotNull(client, "client cannot be null.");
+        CommonUtils.assertTrue(timeToLive > 0, "timeToLive must be greater than zero.");
+        this.client = client;
+        this.timeToLive = timeToLive;
+    }
+
+    private static MemcachedClientIF newClient(final String[] hostnamesAndPorts) {
+        final List<InetSocketAddress> addresses = new ArrayList<InetSocketAddress>();
+
+        for (final String hostname : hostnamesAndPorts) {
+            final String[] hostPort = hostname.split(":");
+            addresses.add(new InetSocketAddress(hostPort[0], Integer.parseInt(hostPort[1])));
+        }
+
+        try {
+            return new MemcachedClient(addresses);
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void put(final String mappingId, final SessionLocation location) {
+        this.client.set(KEY_PREFIX + mappingId, this.timeToLive, location.encode());
+    }
+
+    @Override
+    public SessionLocation remove(final String mappingId) {
+        final String key = KEY_PREFIX + mappingId;
+        final String value = (String) this.client.get(key);
+        if (value == null) {
+            return null;
+        }
+        this.client.delete(key);
+        final SessionLocation location = SessionLocation.decode(value);
+        if (location == null) {
+            logger.warn("Ignoring malformed session index entry for [{}]", mappingId);
+        }
+        return location;
+    }
+
+    /**
+     * Shuts down the memcached client.
+     */
+    @Override
+    public void destroy() {
+        this.client.shutdown();
+    }
+}
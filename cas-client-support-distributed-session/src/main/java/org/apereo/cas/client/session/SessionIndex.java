@@ -0,0 +1,51 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+/**
+ * Index shared by all nodes of a cluster that maps the ID from the CAS server to the location of the session it was
+ * recorded for.
+ *
+ * @since 4.0.0
+ */
+public interface SessionIndex {
+
+    /**
+     * Records the location of the session a ticket was validated in.
+     *
+     * @param mappingId the id the session is keyed under.
+     * @param location the location of the session.
+     */
+    void put(String mappingId, SessionLocation location);
+
+    /**
+     * Removes and returns the location of the session a ticket was validated in.
+     *
+     * @param mappingId the id the session is keyed under.
+     * @return the location of the session, or null if none is known.
+     */
+    SessionLocation remove(String mappingId);
+
+    /**
+     * Releases the resources of the index, such as its connections.  Does nothing by default.
+     */
+    default void destroy() {
+        // nothing to release
+    }
+}
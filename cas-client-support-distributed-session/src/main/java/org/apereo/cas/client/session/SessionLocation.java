@@ -0,0 +1,97 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+/**
+ * Identifies a session within a cluster: the node that holds it and the session's ID on that node.
+ *
+ * @since 4.0.0
+ */
+public final class SessionLocation {
+
+    private static final char SEPARATOR = '\n';
+
+    private final String nodeId;
+
+    private final String sessionId;
+
+    public SessionLocation(final String nodeId, final String sessionId) {
+        CommonUtils.assertNotNull(nodeId, "nodeId cannot be null.");
+        CommonUtils.assertNotNull(sessionId, "sessionId cannot be null.");
+        CommonUtils.assertTrue(nodeId.indexOf(SEPARATOR) == -1, "nodeId cannot contain line breaks.");
+        this.nodeId = nodeId;
+        this.sessionId = sessionId;
+    }
+
+    /**
+     * Parses a location previously produced by {@link #encode()}.
+     *
+     * @param value the encoded location.
+     * @return the location, or null if the value is null or malformed.
+     */
+    public static SessionLocation decode(final String value) {
+        if (value == null) {
+            return null;
+        }
+        final int separator = value.indexOf(SEPARATOR);
+        if (separator == -1) {
+            return null;
+        }
+        return new SessionLocation(value.substring(0, separator), value.substring(separator + 1));
+    }
+
+    /**
+     * @return the location in a compact string form suitable for storing in a shared index.
+     */
+    public String encode() {
+        return this.nodeId + SEPARATOR + this.sessionId;
+    }
+
+    public String getNodeId() {
+        return this.nodeId;
+    }
+
+    public String getSessionId() {
+        return this.sessionId;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SessionLocation)) {
+            return false;
+        }
+        final SessionLocation other = (SessionLocation) o;
+        return this.nodeId.equals(other.nodeId) && this.sessionId.equals(other.sessionId);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.nodeId.hashCode() + this.sessionId.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "SessionLocation[nodeId=" + this.nodeId + ", sessionId=" + this.sessionId + "]";
+    }
+}
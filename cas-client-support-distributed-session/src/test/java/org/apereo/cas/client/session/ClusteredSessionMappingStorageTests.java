@@ -0,0 +1,179 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 4.0.0
+ */
+public final class ClusteredSessionMappingStorageTests {
+
+    private final InMemorySessionIndex index = new InMemorySessionIndex();
+
+    private final Map<String, SingleSignOutHandler> nodes = new HashMap<String, SingleSignOutHandler>();
+
+    private final List<String> forwardedTo = new ArrayList<String>();
+
+    /**
+     * Delivers forwarded logouts to the other node's handler in the same format the HTTP channel uses.
+     */
+    private final LogoutChannel channel = (location, mappingId) -> {
+        this.forwardedTo.add(location.getNodeId());
+        final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/");
+        request.setParameter("logoutRequest", HttpLogoutChannel.buildLogoutRequest(mappingId));
+        this.nodes.get(location.getNodeId()).process(request, new MockHttpServletResponse());
+    };
+
+    private ClusteredSessionMappingStorage storageA;
+
+    private ClusteredSessionMappingStorage storageB;
+
+    @Before
+    public void setUp() throws Exception {
+        this.storageA = newNode("node-a");
+        this.storageB = newNode("node-b");
+    }
+
+    private ClusteredSessionMappingStorage newNode(final String nodeId) {
+        final ClusteredSessionMappingStorage storage = new ClusteredSessionMappingStorage(nodeId, this.index, this.channel);
+        final SingleSignOutHandler handler = new SingleSignOutHandler();
+        handler.setSessionMappingStorage(storage);
+        handler.init();
+        this.nodes.put(nodeId, handler);
+        return storage;
+    }
+
+    @Test
+    public void localLogoutDoesNotForward() {
+        final MockHttpSession session = new MockHttpSession();
+        this.storageA.addSessionById("ST-1", session);
+
+        assertSame(session, this.storageA.removeSessionByMappingId("ST-1"));
+        assertTrue(this.forwardedTo.isEmpty());
+        assertEquals(0, this.index.size());
+    }
+
+    @Test
+    public void remoteLogoutIsForwardedToOwningNodeOnly() {
+        final MockHttpSession session = new MockHttpSession();
+        this.storageA.addSessionById("ST-1", session);
+        newNode("node-c");
+
+        assertNull(this.storageB.removeSessionByMappingId("ST-1"));
+        assertEquals(List.of("node-a"), this.forwardedTo);
+        assertTrue(session.isInvalid());
+        assertNull(this.storageA.removeSessionByMappingId("ST-1"));
+    }
+
+    @Test
+    public void remoteLogoutCostsOneIndexLookup() {
+        this.storageA.addSessionById("ST-1", new MockHttpSession());
+        final int before = this.index.getLookups();
+
+        this.storageB.removeSessionByMappingId("ST-1");
+
+        // one lookup on the receiving node; the owning node finds the session locally and only cleans up
+        assertEquals(before + 2, this.index.getLookups());
+        assertEquals(1, this.forwardedTo.size());
+    }
+
+    @Test
+    public void filteredLocalStorageStillForwardsRemoteLogout() {
+        final BloomFilterSessionMappingStorage filtered =
+            new BloomFilterSessionMappingStorage(new ConcurrentHashMapBackedSessionMappingStorage(), 1000, 0.01, 0);
+        try {
+            final ClusteredSessionMappingStorage storageC =
+                new ClusteredSessionMappingStorage("node-c", this.index, this.channel, filtered);
+            final MockHttpSession session = new MockHttpSession();
+            this.storageA.addSessionById("ST-1", session);
+
+            assertNull(storageC.removeSessionByMappingId("ST-1"));
+            assertEquals(1, filtered.getSkippedLookups());
+            assertEquals(List.of("node-a"), this.forwardedTo);
+            assertTrue(session.isInvalid());
+        } finally {
+            filtered.destroy();
+        }
+    }
+
+    @Test
+    public void unknownTicketIsNotForwarded() {
+        assertNull(this.storageB.removeSessionByMappingId("ST-unknown"));
+        assertTrue(this.forwardedTo.isEmpty());
+    }
+
+    @Test
+    public void staleEntryForOwnNodeIsNotForwarded() {
+        this.index.put("ST-1", new SessionLocation("node-b", "gone"));
+
+        assertNull(this.storageB.removeSessionByMappingId("ST-1"));
+        assertTrue(this.forwardedTo.isEmpty());
+    }
+
+    @Test
+    public void destroyedSessionIsRemovedFromIndex() {
+        final MockHttpSession session = new MockHttpSession();
+        this.storageA.addSessionById("ST-1", session);
+        this.storageA.removeBySessionById(session.getId());
+
+        assertEquals(0, this.index.size());
+        assertNull(this.storageB.removeSessionByMappingId("ST-1"));
+        assertTrue(this.forwardedTo.isEmpty());
+    }
+
+    @Test
+    public void indexFailureDoesNotBreakLocalLogout() {
+        final SessionIndex failing = new SessionIndex() {
+            @Override
+            public void put(final String mappingId, final SessionLocation location) {
+                throw new IllegalStateException("unavailable");
+            }
+
+            @Override
+            public SessionLocation remove(final String mappingId) {
+                throw new IllegalStateException("unavailable");
+            }
+        };
+        final ClusteredSessionMappingStorage storage = new ClusteredSessionMappingStorage("node-a", failing, this.channel);
+        final MockHttpSession session = new MockHttpSession();
+        storage.addSessionById("ST-1", session);
+
+        assertSame(session, storage.removeSessionByMappingId("ST-1"));
+        assertNull(storage.removeSessionByMappingId("ST-2"));
+    }
+
+    @Test
+    public void locationRoundTrips() {
+        final SessionLocation location = new SessionLocation("http://10.0.0.1:8080/app/", "ABC");
+        assertEquals(location, SessionLocation.decode(location.encode()));
+        assertNull(SessionLocation.decode("malformed"));
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for a shared {@link SessionIndex} that counts the lookups performed against it.
+ *
+ * @since 4.0.0
+ */
+public final class InMemorySessionIndex implements SessionIndex {
+
+    private final ConcurrentMap<String, String> entries = new ConcurrentHashMap<String, String>();
+
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    @Override
+    public void put(final String mappingId, final SessionLocation location) {
+        this.entries.put(mappingId, location.encode());
+    }
+
+    @Override
+    public SessionLocation remove(final String mappingId) {
+        this.lookups.incrementAndGet();
+        return SessionLocation.decode(this.entries.remove(mappingId));
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public int getLookups() {
+        return this.lookups.get();
+    }
+}
@@ -31,8 +31,8 @@ import org.apereo.cas.client.authentication.AttributePrincipalImpl;
 import org.apereo.cas.client.util.CommonUtils;
 import org.apereo.cas.client.util.IOUtils;
 import org.apereo.cas.client.util.MapNamespaceContext;
+import org.apereo.cas.client.util.PooledXPathExpression;
 import org.apereo.cas.client.util.SamlUtils;
-import org.apereo.cas.client.util.ThreadLocalXPathExpression;
 import org.apereo.cas.client.util.XmlUtils;
 
 import org.w3c.dom.Document;
@@ -63,24 +63,24 @@ public final class Saml11TicketValidator extends AbstractUrlBasedTicketValidator
             "sp->urn:oasis:names:tc:SAML:1.0:protocol");
 
     /** XPath expression to extract Assertion validity start date. */
-    private static final ThreadLocalXPathExpression XPATH_ASSERTION_DATE_START =
-            new ThreadLocalXPathExpression("//sa:Assertion/sa:Conditions/@NotBefore", NS_CONTEXT);
+    private static final PooledXPathExpression XPATH_ASSERTION_DATE_START =
+            new PooledXPathExpression("//sa:Assertion/sa:Conditions/@NotBefore", NS_CONTEXT);
 
     /** XPath expression to extract Assertion validity end date. */
-    private static final ThreadLocalXPathExpression XPATH_ASSERTION_DATE_END =
-            new ThreadLocalXPathExpression("//sa:Assertion/sa:Conditions/@NotOnOrAfter", NS_CONTEXT);
+    private static final PooledXPathExpression XPATH_ASSERTION_DATE_END =
+            new PooledXPathExpression("//sa:Assertion/sa:Conditions/@NotOnOrAfter", NS_CONTEXT);
 
     /** XPath expression to extract NameIdentifier. */
-    private static final ThreadLocalXPathExpression XPATH_NAME_ID =
-            new ThreadLocalXPathExpression("//sa:AuthenticationStatement/sa:Subject/sa:NameIdentifier", NS_CONTEXT);
+    private static final PooledXPathExpression XPATH_NAME_ID =
+            new PooledXPathExpression("//sa:AuthenticationStatement/sa:Subject/sa:NameIdentifier", NS_CONTEXT);
 
     /** XPath expression to extract authentication method. */
-    private static final ThreadLocalXPathExpression XPATH_AUTH_METHOD =
-            new ThreadLocalXPathExpression("//sa:AuthenticationStatement/@AuthenticationMethod", NS_CONTEXT);
+    private static final PooledXPathExpression XPATH_AUTH_METHOD =
+            new PooledXPathExpression("//sa:AuthenticationStatement/@AuthenticationMethod", NS_CONTEXT);
 
     /** XPath expression to extract attributes. */
-    private static final ThreadLocalXPathExpression XPATH_ATTRIBUTES =
-            new ThreadLocalXPathExpression("//sa:AttributeStatement/sa:Attribute", NS_CONTEXT);
+    private static final PooledXPathExpression XPATH_ATTRIBUTES =
+            new PooledXPathExpression("//sa:AttributeStatement/sa:Attribute", NS_CONTEXT);
 
     private static final String HEX_CHARS = "0123456789abcdef";
 
@@ -30,7 +30,9 @@ import org.apereo.cas.client.validation.Cas30ProxyReceivingTicketValidationFilte
 import org.apereo.cas.client.validation.Saml11TicketValidationFilter;
 
 import jakarta.servlet.Filter;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -46,10 +48,13 @@ import org.springframework.security.core.userdetails.User;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EventListener;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -145,6 +150,8 @@ public class CasClientConfiguration {
             validationFilter.getInitParameters().put(ConfigurationKeys.PROXY_RECEPTOR_URL.getName(), this.configProps.getProxyReceptorUrl());
         }
 
+        validationFilter.setEnabled(!isFused());
+
         if (this.casClientConfigurer != null) {
             this.casClientConfigurer.configureValidationFilter(validationFilter);
         }
@@ -170,6 +177,8 @@ public class CasClientConfiguration {
             authnFilter.getInitParameters().put(ConfigurationKeys.GATEWAY.getName(), String.valueOf(this.configProps.getGateway()));
         }
 
+        authnFilter.setEnabled(!isFused());
+
         if (this.casClientConfigurer != null) {
             this.casClientConfigurer.configureAuthenticationFilter(authnFilter);
         }
@@ -184,6 +193,7 @@ public class CasClientConfiguration {
             reqWrapperFilter.setUrlPatterns(this.configProps.getRequestWrapperUrlPatterns());
         }
         reqWrapperFilter.setOrder(3);
+        reqWrapperFilter.setEnabled(!isFused());
 
         if (this.casClientConfigurer != null) {
             this.casClientConfigurer.configureHttpServletRequestWrapperFilter(reqWrapperFilter);
@@ -199,6 +209,7 @@ public class CasClientConfiguration {
             assertionTLFilter.setUrlPatterns(this.configProps.getAssertionThreadLocalUrlPatterns());
         }
         assertionTLFilter.setOrder(4);
+        assertionTLFilter.setEnabled(!isFused());
 
         if (this.casClientConfigurer != null) {
             this.casClientConfigurer.configureAssertionThreadLocalFilter(assertionTLFilter);
@@ -229,9 +240,81 @@ public class CasClientConfiguration {
         initParameters.put(ConfigurationKeys.CAS_SERVER_URL_PREFIX.getName(), configProps.getServerUrlPrefix());
         singleSignOutFilter.setInitParameters(initParameters);
         singleSignOutFilter.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        singleSignOutFilter.setEnabled(!isFused());
         return singleSignOutFilter;
     }
 
+    /**
+     * Registers the fused {@link CasFilter} running the stages of the separate CAS filters, which are then disabled.
+     * The stages keep the init parameters and URL patterns the separate registrations were given, including those set
+     * by a {@link CasClientConfigurer}; the fused filter is mapped to the union of the patterns, at the order of the
+     * first stage.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "cas", name = "fused-filter", havingValue = "true")
+    public FilterRegistrationBean casFilter(
+        @Qualifier("casSingleSignOutFilter") final ObjectProvider<FilterRegistrationBean> singleSignOutFilter,
+        @Qualifier("casValidationFilter") final ObjectProvider<FilterRegistrationBean> validationFilter) {
+        final FilterRegistrationBean reqWrapperFilter = casHttpServletRequestWrapperFilter();
+        final FilterRegistrationBean assertionThreadLocalFilter = casAssertionThreadLocalFilter();
+        final CasFilter casFilter = new CasFilter((HttpServletRequestWrapperFilter) reqWrapperFilter.getFilter(),
+            reqWrapperFilter.getInitParameters());
+        casFilter.setRequestWrapperUrlPatterns(reqWrapperFilter.getUrlPatterns());
+        casFilter.setAssertionThreadLocalUrlPatterns(assertionThreadLocalFilter.getUrlPatterns());
+        final List<FilterRegistrationBean> replaced = new ArrayList<>();
+
+        final FilterRegistrationBean singleSignOut = singleSignOutFilter.getIfAvailable();
+        if (singleSignOut != null) {
+            casFilter.addStage(singleSignOut.getFilter(), singleSignOut.getInitParameters(), singleSignOut.getUrlPatterns());
+            casFilter.setSingleSignOut(true);
+            replaced.add(singleSignOut);
+        }
+        final FilterRegistrationBean validation = validationFilter.getIfAvailable();
+        if (validation != null) {
+            casFilter.addStage(validation.getFilter(), validation.getInitParameters(), validation.getUrlPatterns());
+            replaced.add(validation);
+        }
+        final FilterRegistrationBean authentication = casAuthenticationFilter();
+        casFilter.addStage(authentication.getFilter(), authentication.getInitParameters(), authentication.getUrlPatterns());
+        replaced.add(authentication);
+        replaced.add(reqWrapperFilter);
+        replaced.add(assertionThreadLocalFilter);
+
+        final FilterRegistrationBean casFilterRegistration = new FilterRegistrationBean();
+        initFilter(casFilterRegistration, casFilter, replaced.get(0).getOrder(), new HashMap<>(), fusedUrlPatterns(replaced));
+        return casFilterRegistration;
+    }
+
+    /**
+     * The fused filter runs its stages in a fixed order and can only check URL patterns, so registrations that were
+     * reordered or mapped to servlet names cannot be fused.
+     *
+     * @return the union of the URL patterns of the registrations, empty if one of them applies to all requests.
+     */
+    private static List<String> fusedUrlPatterns(final List<FilterRegistrationBean> registrations) {
+        final Set<String> urlPatterns = new LinkedHashSet<>();
+        boolean all = false;
+        int previousOrder = Integer.MIN_VALUE;
+        for (final FilterRegistrationBean registration : registrations) {
+            if (!registration.getServletNames().isEmpty()) {
+                throw new IllegalStateException("The fused CAS filter cannot replace " + registration.getFilter()
+                                                + " mapped to servlet names; disable cas.fused-filter.");
+            }
+            if (registration.getOrder() < previousOrder) {
+                throw new IllegalStateException("The fused CAS filter cannot replace " + registration.getFilter()
+                                                + " ordered before the filters preceding it; disable cas.fused-filter.");
+            }
+            previousOrder = registration.getOrder();
+            all |= registration.getUrlPatterns().isEmpty() || registration.getUrlPatterns().contains("/*");
+            urlPatterns.addAll(registration.getUrlPatterns());
+        }
+        return all ? new ArrayList<>() : new ArrayList<>(urlPatterns);
+    }
+
+    private boolean isFused() {
+        return Boolean.TRUE.equals(this.configProps.getFusedFilter());
+    }
+
     @Bean
     @ConditionalOnProperty(prefix = "cas", value = "single-logout.enabled", havingValue = "true")
     public ServletListenerRegistrationBean<EventListener> casSingleSignOutListener() {
@@ -251,7 +334,10 @@ public class CasClientConfiguration {
         @ConditionalOnMissingBean(name = "springSecurityAssertionSessionContextFilter")
         public FilterRegistrationBean springSecurityAssertionSessionContextFilter() {
             final FilterRegistrationBean filter = new FilterRegistrationBean();
-            filter.setFilter(new SpringSecurityAssertionSessionContextFilter(springSecurityCasUserDetailsService()));
+            final SpringSecurityAssertionSessionContextFilter contextFilter =
+                new SpringSecurityAssertionSessionContextFilter(springSecurityCasUserDetailsService());
+            contextFilter.setAuthoritiesTimeToLive(configProps.getAuthoritiesTimeToLive());
+            filter.setFilter(contextFilter);
             filter.setEnabled(!configProps.getAttributeAuthorities().isEmpty());
             filter.setOrder(0);
             if (casClientConfigurer != null) {
@@ -21,6 +21,7 @@ package org.apereo.cas.client.boot.configuration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.lang.NonNull;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -118,6 +119,12 @@ public class CasClientConfigurationProperties {
      */
     private List<String> attributeAuthorities = new ArrayList<>();
 
+    /**
+     * How long the authorities cached in the session are used before they are reloaded.
+     * Unset (the default) keeps them until the assertion changes.
+     */
+    private Duration authoritiesTimeToLive;
+
     /**
      * ValidationType the CAS protocol validation type. Defaults to CAS3 if not explicitly set.
      */
@@ -125,6 +132,12 @@ public class CasClientConfigurationProperties {
 
     private Boolean skipTicketValidation = false;
 
+    /**
+     * Whether to register the single fused {@link CasFilter}, mapped to the authentication URL patterns, instead of the
+     * separate CAS filters.
+     */
+    private Boolean fusedFilter = false;
+
     private SingleLogout singleLogout;
 
     public static class SingleLogout{
@@ -270,6 +283,14 @@ public class CasClientConfigurationProperties {
         this.skipTicketValidation = skipTicketValidation;
     }
 
+    public Boolean getFusedFilter() {
+        return fusedFilter;
+    }
+
+    public void setFusedFilter(final Boolean fusedFilter) {
+        this.fusedFilter = fusedFilter;
+    }
+
     public SingleLogout getSingleLogout() {
         return singleLogout;
     }
@@ -286,6 +307,14 @@ public class CasClientConfigurationProperties {
         this.attributeAuthorities = attributeAuthorities;
     }
 
+    public Duration getAuthoritiesTimeToLive() {
+        return authoritiesTimeToLive;
+    }
+
+    public void setAuthoritiesTimeToLive(final Duration authoritiesTimeToLive) {
+        this.authoritiesTimeToLive = authoritiesTimeToLive;
+    }
+
     public String getHostnameVerifier() {
         return hostnameVerifier;
     }
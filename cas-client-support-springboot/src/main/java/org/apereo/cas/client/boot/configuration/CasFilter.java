@@ -0,0 +1,376 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.boot.configuration;
+
+import org.apereo.cas.client.session.SingleSignOutFilter;
+import org.apereo.cas.client.util.AbstractCasFilter;
+import org.apereo.cas.client.util.AssertionHolder;
+import org.apereo.cas.client.util.CommonUtils;
+import org.apereo.cas.client.util.HttpServletRequestWrapperFilter;
+import org.apereo.cas.client.util.QueryParameters;
+import org.apereo.cas.client.validation.Assertion;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs single sign out, ticket validation, authentication, request wrapping and the assertion thread local in a single
+ * filter, in place of the separate filters registered by {@link CasClientConfiguration}.  The query string is
+ * tokenized once into the {@link QueryParameters} view the stages share.
+ * <p>
+ * Requests whose session already holds an assertion and whose query string carries none of the CAS parameters (the
+ * ticket or a logout request, under the names the stages are configured with) skip the single sign out, validation and
+ * authentication stages: the assertion found by the one session lookup is used to wrap the request and is bound to the
+ * thread.  When single sign out is enabled, POST requests always run all stages since their logout request is in the
+ * body.  All other requests run the stages in the order of the separate filters.
+ * <p>
+ * Each stage, as well as the request wrapping and the assertion thread local, only applies to requests matching its own
+ * servlet URL patterns, so the fused filter can be mapped to the union of the patterns of the filters it replaces.
+ *
+ * @since 4.0.0
+ */
+public class CasFilter implements Filter {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final List<Stage> stages = new ArrayList<Stage>();
+
+    private final HttpServletRequestWrapperFilter requestWrapperFilter;
+
+    private final Map<String, String> requestWrapperInitParameters;
+
+    private UrlPatterns requestWrapperUrlPatterns = UrlPatterns.ALL;
+
+    private UrlPatterns assertionThreadLocalUrlPatterns = UrlPatterns.ALL;
+
+    private List<String> casParameterNames;
+
+    private boolean singleSignOut;
+
+    /**
+     * @param requestWrapperFilter the filter wrapping the request.  CANNOT be NULL.
+     * @param requestWrapperInitParameters the init parameters of the request wrapper filter.
+     */
+    public CasFilter(final HttpServletRequestWrapperFilter requestWrapperFilter,
+                     final Map<String, String> requestWrapperInitParameters) {
+        CommonUtils.assertNotNull(requestWrapperFilter, "requestWrapperFilter cannot be null.");
+        this.requestWrapperFilter = requestWrapperFilter;
+        this.requestWrapperInitParameters = requestWrapperInitParameters;
+    }
+
+    /**
+     * Adds a stage run before the request is wrapped, in the order stages are added.
+     *
+     * @param filter the filter of the stage, i.e. the ticket validation filter.
+     * @param initParameters the init parameters of the filter.
+     */
+    public void addStage(final Filter filter, final Map<String, String> initParameters) {
+        addStage(filter, initParameters, null);
+    }
+
+    /**
+     * Adds a stage run before the request is wrapped, in the order stages are added, for requests matching the given
+     * URL patterns only.
+     *
+     * @param filter the filter of the stage, i.e. the ticket validation filter.
+     * @param initParameters the init parameters of the filter.
+     * @param urlPatterns the servlet URL patterns the stage applies to, or null or empty for all requests.
+     */
+    public void addStage(final Filter filter, final Map<String, String> initParameters,
+                         final Collection<String> urlPatterns) {
+        this.stages.add(new Stage(filter, initParameters, UrlPatterns.of(urlPatterns)));
+    }
+
+    /**
+     * @param urlPatterns the servlet URL patterns of the requests that are wrapped, or null or empty for all requests.
+     */
+    public void setRequestWrapperUrlPatterns(final Collection<String> urlPatterns) {
+        this.requestWrapperUrlPatterns = UrlPatterns.of(urlPatterns);
+    }
+
+    /**
+     * @param urlPatterns the servlet URL patterns of the requests whose assertion is bound to the thread, or null or
+     *                    empty for all requests.
+     */
+    public void setAssertionThreadLocalUrlPatterns(final Collection<String> urlPatterns) {
+        this.assertionThreadLocalUrlPatterns = UrlPatterns.of(urlPatterns);
+    }
+
+    /**
+     * @param singleSignOut whether one of the stages handles single sign out, in which case POST requests are never
+     *                      taken as already authenticated.
+     */
+    public void setSingleSignOut(final boolean singleSignOut) {
+        this.singleSignOut = singleSignOut;
+    }
+
+    /**
+     * @param casParameterNames the query parameters that make a request run all stages even if it is authenticated.
+     *                          Defaults to the artifact and logout parameter names of the stages.
+     */
+    public void setCasParameterNames(final List<String> casParameterNames) {
+        this.casParameterNames = casParameterNames;
+    }
+
+    @Override
+    public void init(final FilterConfig filterConfig) throws ServletException {
+        for (final Stage stage : this.stages) {
+            stage.filter.init(new StageFilterConfig(filterConfig, stage.initParameters));
+        }
+        this.requestWrapperFilter.init(new StageFilterConfig(filterConfig, this.requestWrapperInitParameters));
+        if (this.casParameterNames == null) {
+            this.casParameterNames = stageParameterNames();
+            logger.debug("Running all stages for requests carrying any of {}", this.casParameterNames);
+        }
+    }
+
+    @Override
+    public void doFilter(final ServletRequest servletRequest, final ServletResponse servletResponse,
+                         final FilterChain filterChain) throws IOException, ServletException {
+        final HttpServletRequest request = (HttpServletRequest) servletRequest;
+        final HttpSession session = request.getSession(false);
+        final Assertion assertion = session == null ? null
+            : (Assertion) session.getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION);
+
+        if (assertion != null && !carriesCasParameters(request)) {
+            logger.trace("Request is already authenticated; skipping CAS stages");
+            wrapAndContinue(request, servletResponse, assertion, filterChain);
+            return;
+        }
+
+        new StageChain(filterChain).doFilter(request, servletResponse);
+    }
+
+    @Override
+    public void destroy() {
+        for (final Stage stage : this.stages) {
+            stage.filter.destroy();
+        }
+        this.requestWrapperFilter.destroy();
+    }
+
+    /**
+     * @return the names of the parameters the initialized stages take tickets and logout requests from.
+     */
+    private List<String> stageParameterNames() {
+        final Set<String> names = new LinkedHashSet<String>();
+        for (final Stage stage : this.stages) {
+            if (stage.filter instanceof AbstractCasFilter) {
+                names.add(((AbstractCasFilter) stage.filter).getArtifactParameterName());
+            } else if (stage.filter instanceof SingleSignOutFilter) {
+                final SingleSignOutFilter singleSignOutFilter = (SingleSignOutFilter) stage.filter;
+                names.add(singleSignOutFilter.getArtifactParameterName());
+                names.add(singleSignOutFilter.getLogoutParameterName());
+            }
+        }
+        return new ArrayList<String>(names);
+    }
+
+    private boolean carriesCasParameters(final HttpServletRequest request) {
+        if (this.singleSignOut && "POST".equals(request.getMethod())) {
+            return true;
+        }
+        final QueryParameters parameters = QueryParameters.of(request);
+        if (parameters.size() == 0) {
+            return false;
+        }
+        for (final String name : this.casParameterNames) {
+            if (parameters.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void wrapAndContinue(final HttpServletRequest request, final ServletResponse response,
+                                 final Assertion assertion, final FilterChain filterChain)
+        throws IOException, ServletException {
+        final ServletRequest wrapped = this.requestWrapperUrlPatterns.matches(request)
+            ? this.requestWrapperFilter.wrap(request, assertion == null ? null : assertion.getPrincipal())
+            : request;
+        if (!this.assertionThreadLocalUrlPatterns.matches(request)) {
+            filterChain.doFilter(wrapped, response);
+            return;
+        }
+        try {
+            AssertionHolder.setAssertion(assertion);
+            filterChain.doFilter(wrapped, response);
+        } finally {
+            AssertionHolder.clear();
+        }
+    }
+
+    /**
+     * Runs the stages one after the other, then wraps the request and binds the assertion to the thread.
+     */
+    private final class StageChain implements FilterChain {
+
+        private final FilterChain filterChain;
+
+        private int position;
+
+        StageChain(final FilterChain filterChain) {
+            this.filterChain = filterChain;
+        }
+
+        @Override
+        public void doFilter(final ServletRequest servletRequest, final ServletResponse servletResponse)
+            throws IOException, ServletException {
+            while (this.position < stages.size()) {
+                final Stage stage = stages.get(this.position++);
+                if (stage.urlPatterns.matches((HttpServletRequest) servletRequest)) {
+                    stage.filter.doFilter(servletRequest, servletResponse, this);
+                    return;
+                }
+            }
+
+            final HttpServletRequest request = (HttpServletRequest) servletRequest;
+            final HttpSession session = request.getSession(false);
+            Assertion assertion = session == null ? null
+                : (Assertion) session.getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION);
+            if (assertion == null) {
+                assertion = (Assertion) request.getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION);
+            }
+            wrapAndContinue(request, servletResponse, assertion, this.filterChain);
+        }
+    }
+
+    private static final class Stage {
+
+        private final Filter filter;
+
+        private final Map<String, String> initParameters;
+
+        private final UrlPatterns urlPatterns;
+
+        Stage(final Filter filter, final Map<String, String> initParameters, final UrlPatterns urlPatterns) {
+            this.filter = filter;
+            this.initParameters = initParameters == null ? Collections.<String, String>emptyMap() : initParameters;
+            this.urlPatterns = urlPatterns;
+        }
+    }
+
+    /**
+     * Matches requests against servlet URL patterns: exact paths, <code>/path/*</code> prefixes, <code>*.extension</code>
+     * suffixes and the empty string for the context root.
+     */
+    private static final class UrlPatterns {
+
+        private static final UrlPatterns ALL = new UrlPatterns(Collections.<String>emptyList());
+
+        private final Collection<String> patterns;
+
+        private UrlPatterns(final Collection<String> patterns) {
+            this.patterns = patterns;
+        }
+
+        static UrlPatterns of(final Collection<String> patterns) {
+            return patterns == null || patterns.isEmpty() || patterns.contains("/*")
+                ? ALL : new UrlPatterns(new ArrayList<String>(patterns));
+        }
+
+        boolean matches(final HttpServletRequest request) {
+            if (this == ALL) {
+                return true;
+            }
+            final String path = request.getServletPath() + (request.getPathInfo() == null ? "" : request.getPathInfo());
+            for (final String pattern : this.patterns) {
+                if (matches(path, pattern)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean matches(final String path, final String pattern) {
+            if (pattern.isEmpty()) {
+                return path.isEmpty() || "/".equals(path);
+            }
+            if (pattern.endsWith("/*")) {
+                final String prefix = pattern.substring(0, pattern.length() - 2);
+                return path.equals(prefix) || path.startsWith(prefix + "/");
+            }
+            if (pattern.startsWith("*.")) {
+                return path.endsWith(pattern.substring(1)) && path.lastIndexOf('/') < path.lastIndexOf('.');
+            }
+            return pattern.equals(path);
+        }
+    }
+
+    /**
+     * Exposes the init parameters of a stage, falling back to those of the fused filter.
+     */
+    private static final class StageFilterConfig implements FilterConfig {
+
+        private final FilterConfig filterConfig;
+
+        private final Map<String, String> initParameters;
+
+        StageFilterConfig(final FilterConfig filterConfig, final Map<String, String> initParameters) {
+            this.filterConfig = filterConfig;
+            this.initParameters = initParameters == null ? Collections.<String, String>emptyMap() : initParameters;
+        }
+
+        @Override
+        public String getFilterName() {
+            return this.filterConfig.getFilterName();
+        }
+
+        @Override
+        public ServletContext getServletContext() {
+            return this.filterConfig.getServletContext();
+        }
+
+        @Override
+        public String getInitParameter(final String name) {
+            final String value = this.initParameters.get(name);
+            return value != null ? value : this.filterConfig.getInitParameter(name);
+        }
+
+        @Override
+        public Enumeration<String> getInitParameterNames() {
+            final List<String> names = new ArrayList<String>(this.initParameters.keySet());
+            for (final String name : Collections.list(this.filterConfig.getInitParameterNames())) {
+                if (!names.contains(name)) {
+                    names.add(name);
+                }
+            }
+            return Collections.enumeration(names);
+        }
+    }
+}
@@ -30,27 +30,49 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.AuthenticationUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.io.IOException;
 import java.io.Serial;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 
 /**
  * Populates the Spring Security context with
  * the CAS authentication fetched from assertion
  * and processing roles, attributes, etc.
+ * <p>
+ * The authentication and its authorities are built once per assertion and kept in the session, so the
+ * {@link AuthenticationUserDetailsService} is only consulted again when the assertion changes or, if an
+ * authorities time to live is configured, once the cached authorities are older than that.  Assertions are told apart
+ * by principal name and validity start rather than by reference, since session stores such as Spring Session
+ * deserialize every attribute separately on each request.  Requests without
+ * a session are passed through untouched; no session is ever created by this filter.
  *
  * @author Misagh Moayyed
  * @since 3.6.2
  */
 public class SpringSecurityAssertionSessionContextFilter extends AbstractConfigurationFilter {
+
+    /**
+     * Name of the session attribute holding the cached authentication.
+     */
+    public static final String CONST_CAS_AUTHENTICATION = "_const_cas_authentication_";
+
     private final AuthenticationUserDetailsService userDetailsService;
 
     private final String[] attributes;
 
+    /**
+     * How long cached authorities are used before being reloaded, or null to keep them for the lifetime of the assertion.
+     */
+    private Duration authoritiesTimeToLive;
+
     public SpringSecurityAssertionSessionContextFilter(
         final AuthenticationUserDetailsService userDetailsService,
         final String... attributes) {
@@ -58,34 +80,67 @@ public class SpringSecurityAssertionSessionContextFilter extends AbstractConfigu
         this.attributes = attributes;
     }
 
+    public void setAuthoritiesTimeToLive(final Duration authoritiesTimeToLive) {
+        this.authoritiesTimeToLive = authoritiesTimeToLive;
+    }
+
     @Override
     public void doFilter(final ServletRequest servletRequest, final ServletResponse servletResponse,
                          final FilterChain filterChain) throws IOException, ServletException {
         final HttpServletRequest request = (HttpServletRequest) servletRequest;
         final HttpServletResponse response = (HttpServletResponse) servletResponse;
-        final HttpSession session = request.getSession();
-        if (session != null && session.getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION) != null) {
-            final Assertion assertion = (Assertion) session.getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION);
-
-            final CasAuthenticationToken authentication = new CasAuthenticationToken(assertion);
-            final UserDetails userDetails = userDetailsService.loadUserDetails(authentication);
-            authentication.getAuthorities().addAll(userDetails.getAuthorities());
+        final HttpSession session = request.getSession(false);
+        final Object assertion = session != null ? session.getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION) : null;
+        if (assertion instanceof Assertion) {
+            final Object cached = session.getAttribute(CONST_CAS_AUTHENTICATION);
+            final CasAuthenticationToken authentication;
+            if (cached instanceof CasAuthenticationToken && isValid((CasAuthenticationToken) cached, (Assertion) assertion)) {
+                authentication = (CasAuthenticationToken) cached;
+            } else {
+                authentication = createAuthentication((Assertion) assertion);
+                session.setAttribute(CONST_CAS_AUTHENTICATION, authentication);
+            }
             SecurityContextHolder.getContext().setAuthentication(authentication);
         }
         filterChain.doFilter(request, response);
     }
 
+    private boolean isValid(final CasAuthenticationToken authentication, final Assertion assertion) {
+        if (!authentication.isFor(assertion)) {
+            return false;
+        }
+        return this.authoritiesTimeToLive == null || this.authoritiesTimeToLive.isZero()
+            || System.currentTimeMillis() - authentication.createdAt < this.authoritiesTimeToLive.toMillis();
+    }
+
+    private CasAuthenticationToken createAuthentication(final Assertion assertion) {
+        logger.debug("Loading authorities for [{}]", assertion.getPrincipal().getName());
+        final UserDetails userDetails = userDetailsService.loadUserDetails(new CasAuthenticationToken(assertion, new ArrayList<>()));
+        return new CasAuthenticationToken(assertion, userDetails.getAuthorities());
+    }
+
     private static class CasAuthenticationToken extends AbstractAuthenticationToken {
         @Serial
         private static final long serialVersionUID = -270498735829222143L;
 
         private final Assertion assertion;
 
-        public CasAuthenticationToken(final Assertion assertion) {
-            super(new ArrayList<>());
+        private final long createdAt = System.currentTimeMillis();
+
+        public CasAuthenticationToken(final Assertion assertion, final Collection<? extends GrantedAuthority> authorities) {
+            super(authorities);
             this.assertion = assertion;
         }
 
+        boolean isFor(final Assertion other) {
+            if (this.assertion == other) {
+                return true;
+            }
+            final Date validFromDate = this.assertion.getValidFromDate();
+            return this.assertion.getPrincipal().getName().equals(other.getPrincipal().getName())
+                && validFromDate != null && validFromDate.equals(other.getValidFromDate());
+        }
+
         @Override
         public Object getCredentials() {
             return null;
@@ -0,0 +1,223 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.boot.configuration;
+
+import org.apereo.cas.client.session.SingleSignOutFilter;
+import org.apereo.cas.client.util.AbstractCasFilter;
+import org.apereo.cas.client.util.AssertionHolder;
+import org.apereo.cas.client.util.HttpServletRequestWrapperFilter;
+import org.apereo.cas.client.validation.Assertion;
+import org.apereo.cas.client.validation.AssertionImpl;
+import org.apereo.cas.client.validation.Cas10TicketValidationFilter;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link CasFilter}.
+ *
+ * @since 4.0.0
+ */
+public class CasFilterTests {
+
+    private final Assertion assertion = new AssertionImpl("user");
+
+    private final List<String> stagesRun = new ArrayList<String>();
+
+    private final List<String> remoteUsers = new ArrayList<String>();
+
+    private final List<Assertion> boundAssertions = new ArrayList<Assertion>();
+
+    private final FilterChain chain = (request, response) -> {
+        this.remoteUsers.add(((HttpServletRequest) request).getRemoteUser());
+        this.boundAssertions.add(AssertionHolder.getAssertion());
+    };
+
+    private final CasFilter casFilter = new CasFilter(new HttpServletRequestWrapperFilter(), null);
+
+    @After
+    public void tearDown() {
+        this.casFilter.destroy();
+    }
+
+    @Test
+    public void authenticatedRequestSkipsStages() throws Exception {
+        this.casFilter.addStage(recordingStage("first"), null);
+        this.casFilter.addStage(new SingleSignOutFilter(), null);
+        this.casFilter.init(new MockFilterConfig());
+
+        this.casFilter.doFilter(authenticatedRequest("GET", "page=1"), new MockHttpServletResponse(), this.chain);
+
+        assertTrue(this.stagesRun.isEmpty());
+        assertEquals(Arrays.asList("user"), this.remoteUsers);
+        assertSame(this.assertion, this.boundAssertions.get(0));
+        assertNull(AssertionHolder.getAssertion());
+    }
+
+    @Test
+    public void parameterNamesComeFromStages() throws Exception {
+        final Map<String, String> singleSignOutParameters = new HashMap<String, String>();
+        singleSignOutParameters.put("artifactParameterName", "st");
+        singleSignOutParameters.put("logoutParameterName", "slo");
+        final Map<String, String> validationParameters = new HashMap<String, String>();
+        validationParameters.put("casServerUrlPrefix", "https://cas.example.com/cas");
+        validationParameters.put("serverName", "localhost");
+        this.casFilter.addStage(recordingStage("first"), null);
+        this.casFilter.addStage(new SingleSignOutFilter(), singleSignOutParameters);
+        this.casFilter.addStage(new Cas10TicketValidationFilter(), validationParameters);
+        this.casFilter.init(new MockFilterConfig());
+
+        this.casFilter.doFilter(authenticatedRequest("GET", "st=ST-1-abcdef"), new MockHttpServletResponse(), this.chain);
+        assertEquals(Arrays.asList("first"), this.stagesRun);
+
+        this.stagesRun.clear();
+        this.casFilter.doFilter(authenticatedRequest("GET", "logoutRequest=x&SAMLart=y"), new MockHttpServletResponse(),
+            this.chain);
+        assertTrue(this.stagesRun.isEmpty());
+    }
+
+    @Test
+    public void configuredParameterNamesTakePrecedence() throws Exception {
+        this.casFilter.addStage(recordingStage("first"), null);
+        this.casFilter.addStage(new SingleSignOutFilter(), null);
+        this.casFilter.setCasParameterNames(Arrays.asList("custom"));
+        this.casFilter.init(new MockFilterConfig());
+
+        this.casFilter.doFilter(authenticatedRequest("GET", "ticket=ST-1-abcdef"), new MockHttpServletResponse(), this.chain);
+        assertTrue(this.stagesRun.isEmpty());
+
+        this.casFilter.doFilter(authenticatedRequest("GET", "custom=1"), new MockHttpServletResponse(), this.chain);
+        assertEquals(Arrays.asList("first"), this.stagesRun);
+    }
+
+    @Test
+    public void postRunsStagesWhenSingleSignOutIsEnabled() throws Exception {
+        this.casFilter.addStage(recordingStage("first"), null);
+        this.casFilter.setSingleSignOut(true);
+        this.casFilter.init(new MockFilterConfig());
+
+        this.casFilter.doFilter(authenticatedRequest("POST", null), new MockHttpServletResponse(), this.chain);
+
+        assertEquals(Arrays.asList("first"), this.stagesRun);
+        assertEquals(Arrays.asList("user"), this.remoteUsers);
+    }
+
+    @Test
+    public void stagesRunInOrderThenWrapRequest() throws Exception {
+        this.casFilter.addStage(recordingStage("first"), null);
+        this.casFilter.addStage((request, response, filterChain) -> {
+            this.stagesRun.add("second");
+            request.setAttribute(AbstractCasFilter.CONST_CAS_ASSERTION, this.assertion);
+            filterChain.doFilter(request, response);
+        }, null);
+        this.casFilter.init(new MockFilterConfig());
+
+        this.casFilter.doFilter(new MockHttpServletRequest("GET", "/app"), new MockHttpServletResponse(), this.chain);
+
+        assertEquals(Arrays.asList("first", "second"), this.stagesRun);
+        assertEquals(Arrays.asList("user"), this.remoteUsers);
+        assertSame(this.assertion, this.boundAssertions.get(0));
+    }
+
+    @Test
+    public void stageEndingRequestStopsChain() throws Exception {
+        this.casFilter.addStage((request, response, filterChain) -> this.stagesRun.add("redirect"), null);
+        this.casFilter.addStage(recordingStage("second"), null);
+        this.casFilter.init(new MockFilterConfig());
+
+        this.casFilter.doFilter(new MockHttpServletRequest("GET", "/app"), new MockHttpServletResponse(), this.chain);
+
+        assertEquals(Arrays.asList("redirect"), this.stagesRun);
+        assertTrue(this.remoteUsers.isEmpty());
+    }
+
+    @Test
+    public void stagesOnlyRunForTheirUrlPatterns() throws Exception {
+        this.casFilter.addStage(recordingStage("logout"), null, null);
+        this.casFilter.addStage(recordingStage("validation"), null, Arrays.asList("/secure/*", "*.do"));
+        this.casFilter.init(new MockFilterConfig());
+
+        this.casFilter.doFilter(request("/public/page"), new MockHttpServletResponse(), this.chain);
+        assertEquals(Arrays.asList("logout"), this.stagesRun);
+
+        this.stagesRun.clear();
+        this.casFilter.doFilter(request("/secure"), new MockHttpServletResponse(), this.chain);
+        this.casFilter.doFilter(request("/public/save.do"), new MockHttpServletResponse(), this.chain);
+        assertEquals(Arrays.asList("logout", "validation", "logout", "validation"), this.stagesRun);
+
+        this.stagesRun.clear();
+        this.casFilter.doFilter(request("/secureish"), new MockHttpServletResponse(), this.chain);
+        assertEquals(Arrays.asList("logout"), this.stagesRun);
+    }
+
+    @Test
+    public void wrappingAndThreadLocalFollowTheirUrlPatterns() throws Exception {
+        this.casFilter.setRequestWrapperUrlPatterns(Arrays.asList("/secure/*"));
+        this.casFilter.setAssertionThreadLocalUrlPatterns(Arrays.asList("/api/*"));
+        this.casFilter.init(new MockFilterConfig());
+
+        final MockHttpServletRequest publicPage = authenticatedRequest("GET", null);
+        publicPage.setServletPath("/api/data");
+        this.casFilter.doFilter(publicPage, new MockHttpServletResponse(), this.chain);
+        final MockHttpServletRequest securePage = authenticatedRequest("GET", null);
+        securePage.setServletPath("/secure/page");
+        this.casFilter.doFilter(securePage, new MockHttpServletResponse(), this.chain);
+
+        assertEquals(Arrays.asList(null, "user"), this.remoteUsers);
+        assertSame(this.assertion, this.boundAssertions.get(0));
+        assertNull(this.boundAssertions.get(1));
+    }
+
+    private Filter recordingStage(final String name) {
+        return (request, response, filterChain) -> {
+            this.stagesRun.add(name);
+            filterChain.doFilter(request, response);
+        };
+    }
+
+    private static MockHttpServletRequest request(final String servletPath) {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", servletPath);
+        request.setServletPath(servletPath);
+        return request;
+    }
+
+    private MockHttpServletRequest authenticatedRequest(final String method, final String queryString) {
+        final MockHttpServletRequest request = new MockHttpServletRequest(method, "/app");
+        request.setQueryString(queryString);
+        final MockHttpSession session = new MockHttpSession();
+        session.setAttribute(AbstractCasFilter.CONST_CAS_ASSERTION, this.assertion);
+        request.setSession(session);
+        return request;
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.boot.configuration;
+
+import org.apereo.cas.client.authentication.AttributePrincipalImpl;
+import org.apereo.cas.client.util.AbstractCasFilter;
+import org.apereo.cas.client.validation.Assertion;
+import org.apereo.cas.client.validation.AssertionImpl;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link SpringSecurityAssertionSessionContextFilter}.
+ *
+ * @since 4.0.0
+ */
+public class SpringSecurityAssertionSessionContextFilterTests {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final SpringSecurityAssertionSessionContextFilter filter = new SpringSecurityAssertionSessionContextFilter(
+        token -> {
+            this.loads.incrementAndGet();
+            return new User(token.getPrincipal().toString(), "", AuthorityUtils.createAuthorityList("ROLE_USER"));
+        });
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void authenticationIsCachedInSession() throws Exception {
+        final MockHttpSession session = new MockHttpSession();
+        session.setAttribute(AbstractCasFilter.CONST_CAS_ASSERTION, new AssertionImpl("user"));
+
+        doFilter(session);
+        doFilter(session);
+
+        assertEquals(1, this.loads.get());
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertEquals("user", authentication.getPrincipal());
+        assertEquals(AuthorityUtils.createAuthorityList("ROLE_USER"), authentication.getAuthorities());
+        assertSame(authentication, session.getAttribute(SpringSecurityAssertionSessionContextFilter.CONST_CAS_AUTHENTICATION));
+    }
+
+    @Test
+    public void deserializedAssertionUsesCachedAuthentication() throws Exception {
+        final Date validFrom = new Date();
+        final MockHttpSession session = new MockHttpSession();
+        session.setAttribute(AbstractCasFilter.CONST_CAS_ASSERTION, assertion("user", validFrom));
+        doFilter(session);
+        final Object cached = session.getAttribute(SpringSecurityAssertionSessionContextFilter.CONST_CAS_AUTHENTICATION);
+
+        // session stores deserialize each attribute on their own, so the assertion is an equal copy
+        session.setAttribute(AbstractCasFilter.CONST_CAS_ASSERTION, assertion("user", new Date(validFrom.getTime())));
+        doFilter(session);
+
+        assertEquals(1, this.loads.get());
+        assertSame(cached, session.getAttribute(SpringSecurityAssertionSessionContextFilter.CONST_CAS_AUTHENTICATION));
+    }
+
+    @Test
+    public void newAssertionReloadsAuthorities() throws Exception {
+        final MockHttpSession session = new MockHttpSession();
+        session.setAttribute(AbstractCasFilter.CONST_CAS_ASSERTION, assertion("user", new Date(1000)));
+        doFilter(session);
+
+        session.setAttribute(AbstractCasFilter.CONST_CAS_ASSERTION, assertion("user", new Date(2000)));
+        doFilter(session);
+        session.setAttribute(AbstractCasFilter.CONST_CAS_ASSERTION, assertion("other", new Date(2000)));
+        doFilter(session);
+
+        assertEquals(3, this.loads.get());
+        assertEquals("other", SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+    }
+
+    @Test
+    public void authoritiesAreReloadedOnceTimeToLiveHasPassed() throws Exception {
+        final MockHttpSession session = new MockHttpSession();
+        session.setAttribute(AbstractCasFilter.CONST_CAS_ASSERTION, new AssertionImpl("user"));
+
+        this.filter.setAuthoritiesTimeToLive(Duration.ofHours(1));
+        doFilter(session);
+        doFilter(session);
+        assertEquals(1, this.loads.get());
+
+        // only a lower bound on the elapsed time matters, so a loaded machine cannot make this fail
+        this.filter.setAuthoritiesTimeToLive(Duration.ofMillis(1));
+        Thread.sleep(50);
+        doFilter(session);
+        assertEquals(2, this.loads.get());
+    }
+
+    @Test
+    public void anonymousRequestDoesNotCreateSession() throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+
+        this.filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(request.getSession(false));
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(0, this.loads.get());
+    }
+
+    @Test
+    public void authoritiesTimeToLiveIsBound() {
+        final CasClientConfigurationProperties properties = new Binder(new MapConfigurationPropertySource(
+            Collections.singletonMap("cas.authorities-time-to-live", "5m")))
+            .bind("cas", CasClientConfigurationProperties.class).get();
+
+        assertEquals(Duration.ofMinutes(5), properties.getAuthoritiesTimeToLive());
+    }
+
+    private void doFilter(final MockHttpSession session) throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setSession(session);
+        this.filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+
+    private static Assertion assertion(final String name, final Date validFrom) {
+        return new AssertionImpl(new AttributePrincipalImpl(name), validFrom, null, validFrom,
+            Collections.<String, Object>emptyMap());
+    }
+}
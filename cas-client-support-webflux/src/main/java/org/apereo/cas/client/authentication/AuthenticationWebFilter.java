@@ -0,0 +1,86 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.authentication;
+
+import org.apereo.cas.client.Protocol;
+import org.apereo.cas.client.util.AbstractCasWebFilter;
+import org.apereo.cas.client.util.CommonUtils;
+
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link AuthenticationFilter}: redirects requests without an assertion and without a ticket to
+ * the CAS server login url.
+ * <p>
+ * Must run after {@link org.apereo.cas.client.validation.TicketValidationWebFilter}, so that requests carrying a ticket
+ * have been validated by the time they reach this filter.
+ *
+ * @since 4.0.0
+ */
+public class AuthenticationWebFilter extends AbstractCasWebFilter {
+
+    /** The URL to the CAS Server login. */
+    private final String casServerLoginUrl;
+
+    /** Whether to send the renew request or not. */
+    private boolean renew;
+
+    /** The method used by the CAS server to send the user back to the application. */
+    private String method;
+
+    /**
+     * @param casServerLoginUrl the URL to the CAS Server login.
+     */
+    public AuthenticationWebFilter(final String casServerLoginUrl) {
+        super(Protocol.CAS3);
+        CommonUtils.assertNotNull(casServerLoginUrl, "casServerLoginUrl cannot be null.");
+        this.casServerLoginUrl = casServerLoginUrl;
+    }
+
+    public final void setRenew(final boolean renew) {
+        this.renew = renew;
+    }
+
+    public final void setMethod(final String method) {
+        this.method = method;
+    }
+
+    @Override
+    public Mono<Void> filter(final ServerWebExchange exchange, final WebFilterChain chain) {
+        if (CommonUtils.isNotBlank(retrieveTicketFromRequest(exchange.getRequest()))) {
+            return chain.filter(exchange);
+        }
+
+        return retrieveAssertion(exchange)
+            .map(assertion -> true)
+            .defaultIfEmpty(false)
+            .flatMap(authenticated -> {
+                if (authenticated) {
+                    return chain.filter(exchange);
+                }
+                final String serviceUrl = constructServiceUrl(exchange.getRequest());
+                final String urlToRedirectTo = CommonUtils.constructRedirectUrl(this.casServerLoginUrl,
+                    getServiceParameterName(), serviceUrl, this.renew, false, this.method);
+                logger.debug("redirecting to \"{}\"", urlToRedirectTo);
+                return sendRedirect(exchange, urlToRedirectTo);
+            });
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.Protocol;
+import org.apereo.cas.client.configuration.ConfigurationKeys;
+import org.apereo.cas.client.engine.CasClient;
+import org.apereo.cas.client.util.CommonUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.server.session.WebSessionStore;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reactive counterpart of {@link SingleSignOutFilter}.
+ * <p>
+ * Requests carrying a ticket are recorded against the id of their {@link org.springframework.web.server.WebSession};
+ * back channel (POST) and front channel (GET, compressed) logout requests from the CAS server remove the mapped session
+ * from the {@link WebSessionStore}.  Must run before {@link org.apereo.cas.client.validation.TicketValidationWebFilter}.
+ * <p>
+ * Mappings whose logout never arrives are dropped once they are older than the maximum session lifetime.
+ *
+ * @since 4.0.0
+ */
+public final class SingleSignOutWebFilter implements WebFilter {
+
+    /**
+     * Default time after which unused mappings are dropped.
+     */
+    public static final Duration DEFAULT_MAX_SESSION_LIFETIME = Duration.ofHours(8);
+
+    private static final int PURGE_INTERVAL = 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final WebSessionStore sessionStore;
+
+    /** Maps the ticket (SessionIndex) to the session. */
+    private final ConcurrentMap<String, Mapping> mappings = new ConcurrentHashMap<String, Mapping>();
+
+    private final AtomicInteger recordedSinceLastPurge = new AtomicInteger();
+
+    private String artifactParameterName = Protocol.CAS2.getArtifactParameterName();
+
+    private String logoutParameterName = ConfigurationKeys.LOGOUT_PARAMETER_NAME.getDefaultValue();
+
+    private long maxSessionLifetime = DEFAULT_MAX_SESSION_LIFETIME.toMillis();
+
+    /**
+     * @param sessionStore the store holding the sessions of the application.
+     */
+    public SingleSignOutWebFilter(final WebSessionStore sessionStore) {
+        CommonUtils.assertNotNull(sessionStore, "sessionStore cannot be null.");
+        this.sessionStore = sessionStore;
+    }
+
+    public void setArtifactParameterName(final String name) {
+        this.artifactParameterName = name;
+    }
+
+    public void setLogoutParameterName(final String name) {
+        this.logoutParameterName = name;
+    }
+
+    public void setMaxSessionLifetime(final Duration maxSessionLifetime) {
+        CommonUtils.assertTrue(maxSessionLifetime != null && !maxSessionLifetime.isNegative() && !maxSessionLifetime.isZero(),
+            "maxSessionLifetime must be greater than zero.");
+        this.maxSessionLifetime = maxSessionLifetime.toMillis();
+    }
+
+    /**
+     * @return the number of tickets currently mapped to a session.
+     */
+    public int getMappingCount() {
+        return this.mappings.size();
+    }
+
+    @Override
+    public Mono<Void> filter(final ServerWebExchange exchange, final WebFilterChain chain) {
+        final ServerHttpRequest request = exchange.getRequest();
+
+        final String ticket = request.getQueryParams().getFirst(this.artifactParameterName);
+        if (CommonUtils.isNotBlank(ticket)) {
+            logger.trace("Received a token request");
+            return exchange.getSession()
+                .doOnNext(session -> recordSession(ticket, session.getId()))
+                .then(chain.filter(exchange));
+        }
+
+        if (HttpMethod.POST.equals(request.getMethod())
+            && MediaType.APPLICATION_FORM_URLENCODED.isCompatibleWith(request.getHeaders().getContentType())) {
+            return exchange.getFormData().flatMap(form -> {
+                final String logoutMessage = form.getFirst(this.logoutParameterName);
+                if (CommonUtils.isBlank(logoutMessage)) {
+                    return chain.filter(exchange);
+                }
+                logger.trace("Received a back channel logout request");
+                return destroySession(logoutMessage).then(exchange.getResponse().setComplete());
+            });
+        }
+
+        final String logoutMessage = request.getQueryParams().getFirst(this.logoutParameterName);
+        if (HttpMethod.GET.equals(request.getMethod()) && CommonUtils.isNotBlank(logoutMessage)) {
+            logger.trace("Received a front channel logout request");
+            return destroySession(logoutMessage).then(exchange.getResponse().setComplete());
+        }
+
+        return chain.filter(exchange);
+    }
+
+    private void recordSession(final String ticket, final String sessionId) {
+        logger.debug("Recording session for token {}", ticket);
+        this.mappings.put(ticket, new Mapping(sessionId, System.currentTimeMillis() + this.maxSessionLifetime));
+        if (this.recordedSinceLastPurge.incrementAndGet() >= PURGE_INTERVAL) {
+            this.recordedSinceLastPurge.set(0);
+            final long now = System.currentTimeMillis();
+            this.mappings.values().removeIf(mapping -> mapping.expires < now);
+        }
+    }
+
+    private Mono<Void> destroySession(final String logoutMessage) {
+        final String token = CasClient.extractSessionIndex(logoutMessage);
+        if (CommonUtils.isBlank(token)) {
+            return Mono.empty();
+        }
+
+        final Mapping mapping = this.mappings.remove(token);
+        if (mapping == null) {
+            return Mono.empty();
+        }
+        logger.debug("Invalidating session [{}] for token [{}]", mapping.sessionId, token);
+        return this.sessionStore.removeSession(mapping.sessionId);
+    }
+
+    private static final class Mapping {
+
+        private final String sessionId;
+
+        private final long expires;
+
+        Mapping(final String sessionId, final long expires) {
+            this.sessionId = sessionId;
+            this.expires = expires;
+        }
+    }
+}
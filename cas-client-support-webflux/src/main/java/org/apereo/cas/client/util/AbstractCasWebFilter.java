@@ -0,0 +1,178 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.apereo.cas.client.Protocol;
+import org.apereo.cas.client.engine.CasClient;
+import org.apereo.cas.client.validation.Assertion;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Abstract WebFilter that contains code that is common to all reactive CAS filters, mirroring
+ * {@link AbstractCasFilter} for servlet applications.
+ * <p>
+ * Either <code>serverName</code>, the name of the CAS client server in the format localhost:8080 or
+ * https://localhost:8443, or <code>service</code>, the completely qualified service url, must be set.
+ *
+ * @since 4.0.0
+ */
+public abstract class AbstractCasWebFilter implements WebFilter, InitializingBean {
+
+    /** Represents the constant for where the assertion will be located in the session and the exchange. */
+    public static final String CONST_CAS_ASSERTION = CasClient.CONST_CAS_ASSERTION;
+
+    protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /** The name of the server.  Should be in the following format: {protocol}:{hostName}:{port}. */
+    private String serverName;
+
+    /** The exact url of the service. */
+    private String service;
+
+    private String artifactParameterName;
+
+    private String serviceParameterName;
+
+    protected AbstractCasWebFilter(final Protocol protocol) {
+        this.artifactParameterName = protocol.getArtifactParameterName();
+        this.serviceParameterName = protocol.getServiceParameterName();
+    }
+
+    public final void setServerName(final String serverName) {
+        if (serverName != null && serverName.endsWith("/")) {
+            this.serverName = serverName.substring(0, serverName.length() - 1);
+        } else {
+            this.serverName = serverName;
+        }
+    }
+
+    public final void setService(final String service) {
+        this.service = service;
+    }
+
+    public final void setArtifactParameterName(final String artifactParameterName) {
+        this.artifactParameterName = artifactParameterName;
+    }
+
+    public final void setServiceParameterName(final String serviceParameterName) {
+        this.serviceParameterName = serviceParameterName;
+    }
+
+    protected final String getArtifactParameterName() {
+        return this.artifactParameterName;
+    }
+
+    protected final String getServiceParameterName() {
+        return this.serviceParameterName;
+    }
+
+    /**
+     * Asserts that the filter has been configured with either a server name or a service.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        CommonUtils.assertTrue(CommonUtils.isNotBlank(this.serverName) || CommonUtils.isNotBlank(this.service),
+            "either serverName or service must be set.");
+    }
+
+    /**
+     * @param request the current request.
+     * @return the ticket sent along with the request, or null if there is none.
+     */
+    protected final String retrieveTicketFromRequest(final ServerHttpRequest request) {
+        return request.getQueryParams().getFirst(this.artifactParameterName);
+    }
+
+    /**
+     * Constructs the service url of the current request: the configured service, or the server name followed by the
+     * request path and its query parameters without the ticket and service parameters.
+     *
+     * @param request the current request.
+     * @return the service url.
+     */
+    protected final String constructServiceUrl(final ServerHttpRequest request) {
+        if (CommonUtils.isNotBlank(this.service)) {
+            return this.service;
+        }
+
+        final URI uri = request.getURI();
+        final URIBuilder builder = this.serverName.startsWith("https://") || this.serverName.startsWith("http://")
+            ? new URIBuilder(this.serverName, true)
+            : new URIBuilder(uri.getScheme() + "://" + this.serverName, true);
+        builder.setEncodedPath(builder.getEncodedPath() + uri.getRawPath());
+
+        for (final Map.Entry<String, List<String>> parameter : request.getQueryParams().entrySet()) {
+            final String name = parameter.getKey();
+            if (!name.equals(this.artifactParameterName) && !name.equals(this.serviceParameterName)) {
+                for (final String value : parameter.getValue()) {
+                    builder.addParameter(name, value);
+                }
+            }
+        }
+
+        final String serviceUrl = builder.toString();
+        logger.debug("serviceUrl generated: {}", serviceUrl);
+        return serviceUrl;
+    }
+
+    /**
+     * Looks up the assertion of the current exchange, first among the exchange attributes and then in the session.
+     * No session is created if there is none.
+     *
+     * @param exchange the current exchange.
+     * @return the assertion, or empty if the user has not been authenticated.
+     */
+    protected static Mono<Assertion> retrieveAssertion(final ServerWebExchange exchange) {
+        final Object assertion = exchange.getAttribute(CONST_CAS_ASSERTION);
+        if (assertion instanceof Assertion) {
+            return Mono.just((Assertion) assertion);
+        }
+        return exchange.getSession().flatMap(session -> {
+            final Object sessionAssertion = session.getAttribute(CONST_CAS_ASSERTION);
+            return sessionAssertion instanceof Assertion ? Mono.just((Assertion) sessionAssertion) : Mono.empty();
+        });
+    }
+
+    /**
+     * Completes the exchange with a redirect.
+     *
+     * @param exchange the current exchange.
+     * @param url the location to redirect to.
+     * @return completion of the response.
+     */
+    protected static Mono<Void> sendRedirect(final ServerWebExchange exchange, final String url) {
+        final ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.FOUND);
+        response.getHeaders().setLocation(URI.create(url));
+        return response.setComplete();
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.apereo.cas.client.validation.Assertion;
+
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * Reactive counterpart of {@link AssertionThreadLocalFilter}: places the assertion in the Reactor subscriber context,
+ * where it follows the request across operators and threads, so that code without access to the exchange can obtain
+ * it through {@link #getAssertion()}.
+ *
+ * @since 4.0.0
+ */
+public final class AssertionContextWebFilter implements WebFilter {
+
+    /** Key of the assertion in the Reactor context. */
+    private static final Class<Assertion> CONTEXT_KEY = Assertion.class;
+
+    @Override
+    public Mono<Void> filter(final ServerWebExchange exchange, final WebFilterChain chain) {
+        return AbstractCasWebFilter.retrieveAssertion(exchange)
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
+            .flatMap(assertion -> assertion.isPresent()
+                ? chain.filter(exchange).contextWrite(context -> context.put(CONTEXT_KEY, assertion.get()))
+                : chain.filter(exchange));
+    }
+
+    /**
+     * Retrieve the assertion of the request being processed.
+     *
+     * @return the assertion, or empty if there is none.
+     */
+    public static Mono<Assertion> getAssertion() {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(context.getOrEmpty(CONTEXT_KEY)));
+    }
+}
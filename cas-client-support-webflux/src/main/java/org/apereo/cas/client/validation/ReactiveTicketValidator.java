@@ -0,0 +1,39 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link TicketValidator}.
+ *
+ * @since 4.0.0
+ */
+public interface ReactiveTicketValidator {
+
+    /**
+     * Validates a ticket without blocking the calling thread.
+     *
+     * @param ticket the ticket to validate.
+     * @param service the service the ticket was issued for.
+     * @return the assertion, or an error signal carrying a {@link TicketValidationException} if the ticket is invalid or
+     * the CAS server could not be reached.
+     */
+    Mono<Assertion> validate(String ticket, String service);
+}
@@ -0,0 +1,103 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.Protocol;
+import org.apereo.cas.client.util.AbstractCasWebFilter;
+import org.apereo.cas.client.util.CommonUtils;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link AbstractTicketValidationFilter}: validates the ticket of a request through a
+ * {@link ReactiveTicketValidator} and stores the resulting assertion in the exchange and the {@link
+ * org.springframework.web.server.WebSession}.
+ * <p>
+ * On success the user is, by default, redirected to the service url so that the ticket disappears from the address
+ * bar.  Failed validations are answered with 403.
+ *
+ * @since 4.0.0
+ */
+public class TicketValidationWebFilter extends AbstractCasWebFilter {
+
+    private final ReactiveTicketValidator ticketValidator;
+
+    /** Whether to store the assertion in the session or not. */
+    private boolean useSession = true;
+
+    /** Whether to redirect to the same URL after ticket validation (only used together with the session). */
+    private boolean redirectAfterValidation = true;
+
+    /**
+     * @param ticketValidator the validator used to validate tickets.
+     */
+    public TicketValidationWebFilter(final ReactiveTicketValidator ticketValidator) {
+        super(Protocol.CAS3);
+        CommonUtils.assertNotNull(ticketValidator, "ticketValidator cannot be null.");
+        this.ticketValidator = ticketValidator;
+    }
+
+    public final void setUseSession(final boolean useSession) {
+        this.useSession = useSession;
+    }
+
+    public final void setRedirectAfterValidation(final boolean redirectAfterValidation) {
+        this.redirectAfterValidation = redirectAfterValidation;
+    }
+
+    @Override
+    public Mono<Void> filter(final ServerWebExchange exchange, final WebFilterChain chain) {
+        final String ticket = retrieveTicketFromRequest(exchange.getRequest());
+        if (CommonUtils.isBlank(ticket)) {
+            return chain.filter(exchange);
+        }
+
+        logger.debug("Attempting to validate ticket: {}", ticket);
+        final String serviceUrl = constructServiceUrl(exchange.getRequest());
+        return this.ticketValidator.validate(ticket, serviceUrl)
+            .onErrorResume(TicketValidationException.class, e -> onFailedValidation(exchange, e).then(Mono.empty()))
+            .flatMap(assertion -> onSuccessfulValidation(exchange, chain, assertion, serviceUrl));
+    }
+
+    private Mono<Void> onSuccessfulValidation(final ServerWebExchange exchange, final WebFilterChain chain,
+                                              final Assertion assertion, final String serviceUrl) {
+        logger.debug("Successfully authenticated user: {}", assertion.getPrincipal().getName());
+        exchange.getAttributes().put(CONST_CAS_ASSERTION, assertion);
+        if (!this.useSession) {
+            return chain.filter(exchange);
+        }
+        return exchange.getSession().flatMap(session -> {
+            session.getAttributes().put(CONST_CAS_ASSERTION, assertion);
+            if (this.redirectAfterValidation) {
+                logger.debug("Redirecting after successful ticket validation.");
+                return sendRedirect(exchange, serviceUrl);
+            }
+            return chain.filter(exchange);
+        });
+    }
+
+    private Mono<Void> onFailedValidation(final ServerWebExchange exchange, final TicketValidationException e) {
+        logger.debug(e.getMessage(), e);
+        exchange.getResponse().setStatusCode(HttpStatus.FORBIDDEN);
+        return exchange.getResponse().setComplete();
+    }
+}
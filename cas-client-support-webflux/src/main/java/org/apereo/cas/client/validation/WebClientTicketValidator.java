@@ -0,0 +1,77 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientException;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * {@link ReactiveTicketValidator} that contacts the CAS server through a {@link WebClient} and then hands the response
+ * to an existing {@link AbstractUrlBasedTicketValidator} for parsing.
+ * <p>
+ * The delegate is only used to build the validation URL and to parse the response, so the same validators (and their
+ * configuration: renew, custom parameters, proxy chains, attribute decoding, ...) apply as for servlet applications,
+ * while the request itself never blocks an event loop thread.  Only validators that validate with a simple GET request
+ * are supported, i.e. the CAS 1.0, 2.0 and 3.0 validators; SAML 1.1 validation POSTs a request document and is not.
+ *
+ * @since 4.0.0
+ */
+public final class WebClientTicketValidator implements ReactiveTicketValidator {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final AbstractUrlBasedTicketValidator ticketValidator;
+
+    private final WebClient webClient;
+
+    /**
+     * @param ticketValidator the validator used to build the validation URL and to parse responses.
+     * @param webClient the client used to contact the CAS server.
+     */
+    public WebClientTicketValidator(final AbstractUrlBasedTicketValidator ticketValidator, final WebClient webClient) {
+        CommonUtils.assertNotNull(ticketValidator, "ticketValidator cannot be null.");
+        CommonUtils.assertNotNull(webClient, "webClient cannot be null.");
+        this.ticketValidator = ticketValidator;
+        this.webClient = webClient;
+    }
+
+    @Override
+    public Mono<Assertion> validate(final String ticket, final String service) {
+        final String validationUrl = this.ticketValidator.constructValidationUrl(ticket, service);
+        logger.debug("Constructing validation url: {}", validationUrl);
+
+        return this.webClient.get()
+            .uri(URI.create(validationUrl))
+            .retrieve()
+            .bodyToMono(String.class)
+            .onErrorMap(WebClientException.class, TicketValidationException::new)
+            .switchIfEmpty(Mono.error(() -> new TicketValidationException("The CAS server returned no response.")))
+            .flatMap(response -> {
+                logger.debug("Server response: {}", response);
+                return Mono.fromCallable(() -> this.ticketValidator.parseResponseFromServer(response));
+            });
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.authentication;
+
+import org.apereo.cas.client.util.AbstractCasWebFilter;
+import org.apereo.cas.client.util.AssertionContextWebFilter;
+import org.apereo.cas.client.validation.Assertion;
+import org.apereo.cas.client.validation.AssertionImpl;
+
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link AuthenticationWebFilter} and {@link AssertionContextWebFilter}.
+ *
+ * @since 4.0.0
+ */
+public class AuthenticationWebFilterTests {
+
+    @Test
+    public void redirectsAnonymousRequestsToLogin() {
+        final AtomicBoolean chainInvoked = new AtomicBoolean();
+        final MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("https://app.example.com/page?a=1"));
+
+        newFilter().filter(exchange, e -> {
+            chainInvoked.set(true);
+            return Mono.empty();
+        }).block();
+
+        assertFalse(chainInvoked.get());
+        assertEquals(HttpStatus.FOUND, exchange.getResponse().getStatusCode());
+        assertEquals("https://cas.example.com/cas/login?service=https%3A%2F%2Fapp.example.com%2Fpage%3Fa%3D1",
+            exchange.getResponse().getHeaders().getLocation().toString());
+        assertFalse(exchange.getSession().block().isStarted());
+    }
+
+    @Test
+    public void passesAuthenticatedRequestsWithAssertionInContext() {
+        final Assertion assertion = new AssertionImpl("alice");
+        final MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("https://app.example.com/page"));
+        exchange.getSession().block().getAttributes().put(AbstractCasWebFilter.CONST_CAS_ASSERTION, assertion);
+        final AtomicReference<Assertion> seen = new AtomicReference<Assertion>();
+
+        newFilter().filter(exchange, e -> new AssertionContextWebFilter().filter(e,
+            e2 -> AssertionContextWebFilter.getAssertion().doOnNext(seen::set).then())).block();
+
+        assertSame(assertion, seen.get());
+    }
+
+    @Test
+    public void passesRequestsWithTicket() {
+        final AtomicBoolean chainInvoked = new AtomicBoolean();
+        final MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("https://app.example.com/page?ticket=ST-1"));
+
+        newFilter().filter(exchange, e -> {
+            chainInvoked.set(true);
+            return Mono.empty();
+        }).block();
+
+        assertTrue(chainInvoked.get());
+    }
+
+    private static AuthenticationWebFilter newFilter() {
+        final AuthenticationWebFilter filter = new AuthenticationWebFilter("https://cas.example.com/cas/login");
+        filter.setServerName("https://app.example.com");
+        filter.afterPropertiesSet();
+        return filter;
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebSession;
+import org.springframework.web.server.session.InMemoryWebSessionStore;
+import org.springframework.web.util.UriUtils;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link SingleSignOutWebFilter}.
+ *
+ * @since 4.0.0
+ */
+public class SingleSignOutWebFilterTests {
+
+    private final InMemoryWebSessionStore sessionStore = new InMemoryWebSessionStore();
+
+    private SingleSignOutWebFilter filter;
+
+    private WebSession session;
+
+    @Before
+    public void setUp() {
+        this.filter = new SingleSignOutWebFilter(this.sessionStore);
+        this.session = this.sessionStore.createWebSession().block();
+        this.session.start();
+        this.session.save().block();
+
+        final MockServerWebExchange exchange = MockServerWebExchange.builder(
+            MockServerHttpRequest.get("https://app.example.com/page?ticket=ST-1")).session(this.session).build();
+        final AtomicBoolean chainInvoked = new AtomicBoolean();
+        this.filter.filter(exchange, e -> {
+            chainInvoked.set(true);
+            return Mono.empty();
+        }).block();
+        assertTrue(chainInvoked.get());
+        assertEquals(1, this.filter.getMappingCount());
+    }
+
+    @Test
+    public void backChannelLogoutRemovesSession() {
+        final String body = "logoutRequest=" + UriUtils.encode(
+            LogoutMessageGenerator.generateBackChannelLogoutMessage("ST-1"), StandardCharsets.UTF_8);
+        final MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+            .post("https://app.example.com/page")
+            .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+            .body(body));
+
+        this.filter.filter(exchange, e -> Mono.error(new IllegalStateException("chain must not be invoked"))).block();
+
+        assertNull(this.sessionStore.retrieveSession(this.session.getId()).block());
+        assertEquals(0, this.filter.getMappingCount());
+    }
+
+    @Test
+    public void frontChannelLogoutRemovesSession() {
+        final URI uri = URI.create("https://app.example.com/page?logoutRequest=" + UriUtils.encode(
+            LogoutMessageGenerator.generateFrontChannelLogoutMessage("ST-1"), StandardCharsets.UTF_8));
+        final MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.method(HttpMethod.GET, uri));
+
+        this.filter.filter(exchange, e -> Mono.error(new IllegalStateException("chain must not be invoked"))).block();
+
+        assertNull(this.sessionStore.retrieveSession(this.session.getId()).block());
+    }
+
+    @Test
+    public void unknownSessionIndexIsIgnored() {
+        final String body = "logoutRequest=" + UriUtils.encode(
+            LogoutMessageGenerator.generateBackChannelLogoutMessage("ST-2"), StandardCharsets.UTF_8);
+        final MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+            .post("https://app.example.com/page")
+            .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+            .body(body));
+
+        this.filter.filter(exchange, e -> Mono.error(new IllegalStateException("chain must not be invoked"))).block();
+
+        assertNotNull(this.sessionStore.retrieveSession(this.session.getId()).block());
+        assertEquals(1, this.filter.getMappingCount());
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.util.AbstractCasWebFilter;
+
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link TicketValidationWebFilter}.
+ *
+ * @since 4.0.0
+ */
+public class TicketValidationWebFilterTests {
+
+    private final AtomicBoolean chainInvoked = new AtomicBoolean();
+
+    private final WebFilterChain chain = exchange -> {
+        this.chainInvoked.set(true);
+        return Mono.empty();
+    };
+
+    private final ReactiveTicketValidator validator = (ticket, service) -> "ST-1".equals(ticket)
+        ? Mono.just(new AssertionImpl("alice"))
+        : Mono.error(new TicketValidationException("invalid ticket"));
+
+    @Test
+    public void validatesTicketAndRedirects() {
+        final TicketValidationWebFilter filter = newFilter();
+        final MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("https://app.example.com/page?a=1&ticket=ST-1"));
+
+        filter.filter(exchange, this.chain).block();
+
+        assertFalse(this.chainInvoked.get());
+        assertEquals(HttpStatus.FOUND, exchange.getResponse().getStatusCode());
+        assertEquals("https://app.example.com/page?a=1", exchange.getResponse().getHeaders().getLocation().toString());
+        final Assertion assertion = exchange.getSession().block().getAttribute(AbstractCasWebFilter.CONST_CAS_ASSERTION);
+        assertEquals("alice", assertion.getPrincipal().getName());
+    }
+
+    @Test
+    public void continuesChainWithoutRedirect() {
+        final TicketValidationWebFilter filter = newFilter();
+        filter.setRedirectAfterValidation(false);
+        final MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("https://app.example.com/page?ticket=ST-1"));
+
+        filter.filter(exchange, this.chain).block();
+
+        assertTrue(this.chainInvoked.get());
+        assertNotNull(exchange.getAttribute(AbstractCasWebFilter.CONST_CAS_ASSERTION));
+    }
+
+    @Test
+    public void rejectsInvalidTicket() {
+        final TicketValidationWebFilter filter = newFilter();
+        final MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("https://app.example.com/page?ticket=ST-2"));
+
+        filter.filter(exchange, this.chain).block();
+
+        assertFalse(this.chainInvoked.get());
+        assertEquals(HttpStatus.FORBIDDEN, exchange.getResponse().getStatusCode());
+        assertNull(exchange.getSession().block().getAttribute(AbstractCasWebFilter.CONST_CAS_ASSERTION));
+    }
+
+    @Test
+    public void ignoresRequestsWithoutTicket() {
+        final TicketValidationWebFilter filter = newFilter();
+        final MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("https://app.example.com/page"));
+
+        filter.filter(exchange, this.chain).block();
+
+        assertTrue(this.chainInvoked.get());
+    }
+
+    private TicketValidationWebFilter newFilter() {
+        final TicketValidationWebFilter filter = new TicketValidationWebFilter(this.validator);
+        filter.setServerName("https://app.example.com");
+        filter.afterPropertiesSet();
+        return filter;
+    }
+}
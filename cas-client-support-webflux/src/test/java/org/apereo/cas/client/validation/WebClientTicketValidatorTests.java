@@ -0,0 +1,94 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link WebClientTicketValidator}.
+ *
+ * @since 4.0.0
+ */
+public class WebClientTicketValidatorTests {
+
+    private static final String SUCCESS = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>"
+        + "<cas:authenticationSuccess><cas:user>alice</cas:user></cas:authenticationSuccess></cas:serviceResponse>";
+
+    private static final String FAILURE = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>"
+        + "<cas:authenticationFailure code=\"INVALID_TICKET\">Ticket ST-1 not recognized</cas:authenticationFailure>"
+        + "</cas:serviceResponse>";
+
+    private final AtomicReference<ClientRequest> lastRequest = new AtomicReference<ClientRequest>();
+
+    @Test
+    public void validatesTicket() {
+        final Assertion assertion = newValidator(HttpStatus.OK, SUCCESS)
+            .validate("ST-1", "https://app.example.com/").block();
+
+        assertEquals("alice", assertion.getPrincipal().getName());
+        final String url = this.lastRequest.get().url().toString();
+        assertTrue(url.startsWith("https://cas.example.com/cas/serviceValidate?"));
+        assertTrue(url.contains("ticket=ST-1"));
+        assertTrue(url.contains("service=https%3A%2F%2Fapp.example.com%2F"));
+    }
+
+    @Test
+    public void rejectsInvalidTicket() {
+        try {
+            newValidator(HttpStatus.OK, FAILURE).validate("ST-1", "https://app.example.com/").block();
+            fail("TicketValidationException expected");
+        } catch (final RuntimeException e) {
+            assertTrue(e.getCause() instanceof TicketValidationException);
+        }
+    }
+
+    @Test
+    public void mapsServerErrors() {
+        final Throwable error = newValidator(HttpStatus.INTERNAL_SERVER_ERROR, "")
+            .validate("ST-1", "https://app.example.com/")
+            .map(assertion -> (Throwable) null)
+            .onErrorResume(Mono::just)
+            .block();
+
+        assertTrue(error instanceof TicketValidationException);
+    }
+
+    private WebClientTicketValidator newValidator(final HttpStatus status, final String body) {
+        final WebClient webClient = WebClient.builder()
+            .exchangeFunction(request -> {
+                this.lastRequest.set(request);
+                return Mono.just(ClientResponse.create(status)
+                    .header("Content-Type", MediaType.APPLICATION_XML_VALUE)
+                    .body(body)
+                    .build());
+            })
+            .build();
+        return new WebClientTicketValidator(new Cas20ServiceTicketValidator("https://cas.example.com/cas"), webClient);
+    }
+}